@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.ifruit"
@@ -13,13 +14,50 @@ dependencies {
     testImplementation(platform("org.junit:junit-bom:5.9.1"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testImplementation("org.mockito:mockito-core:4.2.0")
+    testImplementation("com.h2database:h2:2.2.224")
     implementation("mysql:mysql-connector-java:8.0.28")
     implementation("org.mongodb:mongodb-driver-sync:4.11.1")
     implementation("org.slf4j:slf4j-api:1.7.32")
     implementation("ch.qos.logback:logback-classic:1.2.6")
     implementation("org.apache.commons:commons-lang3:3.12.0")
+    implementation("org.hdrhistogram:HdrHistogram:2.1.12")
+    jmh("com.h2database:h2:2.2.224")
+}
+
+// The aggregation kernels use the incubating Vector API; a JVM started without the module gets the scalar ones.
+val vectorModule = listOf("--add-modules", "jdk.incubator.vector")
+
+tasks.withType<JavaCompile> {
+    options.compilerArgs.addAll(vectorModule)
 }
 
 tasks.test {
     useJUnitPlatform()
+    jvmArgs(vectorModule)
+}
+
+// gradle loadTest -PloadArgs="--backend=mysql --clients=50 --seconds=60 --zipf=1.1"
+tasks.register<JavaExec>("loadTest") {
+    description = "Runs the checkout load generator against a store."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("FlowerStore.LoadTest.CheckoutLoadTest")
+    jvmArgs(vectorModule)
+    args = (project.findProperty("loadArgs")?.toString() ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+// ./gradlew jmh -Pjmh.includes=ProductMapping runs a subset; results go to build/results/jmh.
+jmh {
+    jmhVersion.set("1.37")
+    benchmarkMode.addAll("thrpt", "avgt")
+    profilers.add("gc")
+    includeTests.set(false)
+    fork.set(1)
+    jvmArgsAppend.addAll(vectorModule)
+    warmupIterations.set(3)
+    iterations.set(5)
+    timeUnit.set("ms")
+    resultFormat.set("JSON")
+    if (project.hasProperty("jmh.includes")) {
+        includes.add(project.property("jmh.includes").toString())
+    }
 }
@@ -0,0 +1,71 @@
+package Benchmarks;
+
+import Utils.Kernels.AggregationKernels;
+import Utils.Kernels.ScalarAggregationKernels;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+// The same columns summed by the scalar kernels and by whatever AggregationKernels.getInstance() picked.
+// Compare both against the bytes scanned per second to see how close each gets to memory bandwidth.
+@State(Scope.Benchmark)
+public class AggregationKernelsBenchmark {
+
+    private static final int TYPES = 3;
+
+    @Param({"1000", "1000000"})
+    int rows;
+
+    @Param({"scalar", "default"})
+    String kernels;
+
+    private AggregationKernels aggregation;
+    private byte[] types;
+    private int[] quantities;
+    private long[] prices;
+    private ByteBuffer typeColumn;
+    private ByteBuffer quantityColumn;
+    private ByteBuffer priceColumn;
+    private final long[] count = new long[TYPES];
+    private final long[] units = new long[TYPES];
+    private final long[] value = new long[TYPES];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        aggregation = kernels.equals("scalar") ? new ScalarAggregationKernels() : AggregationKernels.getInstance();
+        Random random = new Random(42);
+        types = new byte[rows];
+        quantities = new int[rows];
+        prices = new long[rows];
+        typeColumn = ByteBuffer.allocateDirect(rows).order(ByteOrder.nativeOrder());
+        quantityColumn = ByteBuffer.allocateDirect(rows * 4).order(ByteOrder.nativeOrder());
+        priceColumn = ByteBuffer.allocateDirect(rows * 8).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < rows; i++) {
+            types[i] = (byte) random.nextInt(TYPES);
+            quantities[i] = random.nextInt(100);
+            prices[i] = 100 + random.nextInt(5000);
+            typeColumn.put(i, types[i]);
+            quantityColumn.putInt(i * 4, quantities[i]);
+            priceColumn.putLong(i * 8, prices[i]);
+        }
+    }
+
+    @Benchmark
+    public long dot() {
+        return aggregation.dot(quantities, prices, rows);
+    }
+
+    @Benchmark
+    public long[] sumByTypeArrays() {
+        aggregation.sumByType(types, quantities, prices, rows, count, units, value);
+        return value;
+    }
+
+    @Benchmark
+    public long[] sumByTypeColumns() {
+        aggregation.sumByType(typeColumn, quantityColumn, priceColumn, rows, count, units, value);
+        return value;
+    }
+}
@@ -0,0 +1,53 @@
+package Benchmarks;
+
+import Contexts.Product.Domain.*;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Deterministic catalogs shared by the benchmarks: ids 1..size, types in rotation.
+public class Catalog {
+
+    private static final String[] COLORS = {"roja", "blanca", "amarilla", "azul"};
+    private static final String[] MATERIALS = {"madera", "plastico"};
+
+    private Catalog() {
+    }
+
+    public static List<Product> products(int size) {
+        List<Product> products = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            products.add(product(id));
+        }
+        return products;
+    }
+
+    public static Product product(int id) {
+        String name = "product" + id;
+        int quantity = 1000 + id % 100;
+        double price = 1 + id % 50 / 2.0;
+        switch (id % 3) {
+            case 0:
+                return new Tree<>(id, name, quantity, price, 1 + id % 20 / 10.0);
+            case 1:
+                return new Flower<>(id, name, quantity, price, COLORS[id % COLORS.length]);
+            default:
+                return new Decoration<>(id, name, quantity, price, MATERIALS[id % MATERIALS.length]);
+        }
+    }
+
+    // Same shape ProductRepositoryMongoDB writes.
+    public static List<Document> documents(int size) {
+        List<Document> documents = new ArrayList<>(size);
+        for (Product product : products(size)) {
+            documents.add(new Document("productId", product.getProductId())
+                    .append("name", product.getName())
+                    .append("quantity", product.getQuantity())
+                    .append("price", product.getPrice())
+                    .append("type", product.getType().toString())
+                    .append("attribute", product.getAttributes()));
+        }
+        return documents;
+    }
+}
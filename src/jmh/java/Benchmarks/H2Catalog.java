@@ -0,0 +1,75 @@
+package Benchmarks;
+
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Infrastructure.SQL.ProductRepositorySQL;
+import Infrastructure.Connections.MySQLConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+
+// An in-process H2 database in MySQL mode with the product tables, seeded through ProductRepositorySQL so
+// the benchmarks run the repository's own queries and row mapping.
+public class H2Catalog implements AutoCloseable {
+
+    private static final int SEED_BATCH_SIZE = 10_000;
+    private static final String[] SCHEMA = {
+            "CREATE TABLE product (idproduct INT NOT NULL AUTO_INCREMENT PRIMARY KEY, name VARCHAR(45) NOT NULL, "
+                    + "quantity INT NOT NULL, price DOUBLE NOT NULL, type VARCHAR(10))",
+            "CREATE INDEX idx_product_type ON product (type, idproduct)",
+            "CREATE TABLE flower (color VARCHAR(45) NOT NULL, product_idproduct INT NOT NULL)",
+            "CREATE INDEX fk_flower_product1_idx ON flower (product_idproduct)",
+            // VARCHAR because H2 types COALESCE(color, height, material) as DOUBLE, where MySQL gives a string.
+            "CREATE TABLE tree (height VARCHAR(45) NOT NULL, product_idproduct INT NOT NULL)",
+            "CREATE INDEX fk_tree_product1_idx ON tree (product_idproduct)",
+            "CREATE TABLE decoration (material VARCHAR(45) NOT NULL, product_idproduct INT NOT NULL)",
+            "CREATE INDEX fk_decoration_product1_idx ON decoration (product_idproduct)",
+            // H2 has no FIELD(), which getAllProducts orders by.
+            "CREATE ALIAS field FOR \"Benchmarks.H2Catalog.field\""
+    };
+
+    private final MySQLConnection connection;
+    private final ProductRepositorySQL repository;
+
+    public H2Catalog(String name, int size) throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("mysql.url", "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        properties.setProperty("mysql.username", "sa");
+        properties.setProperty("mysql.password", "");
+        connection = new MySQLConnection(properties);
+        try (Connection sql = MySQLConnection.getMySQLDatabase(); Statement statement = sql.createStatement()) {
+            for (String ddl : SCHEMA) {
+                statement.execute(ddl);
+            }
+        }
+        repository = new ProductRepositorySQL(connection, name);
+        List<Product> products = Catalog.products(size);
+        for (int from = 0; from < size; from += SEED_BATCH_SIZE) {
+            repository.addProducts(products.subList(from, Math.min(size, from + SEED_BATCH_SIZE)));
+        }
+    }
+
+    // MySQL's FIELD(value, a, b, ...): the 1-based position of value in the list, or 0.
+    public static int field(String value, String... list) {
+        for (int i = 0; i < list.length; i++) {
+            if (list[i].equals(value)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    public ProductRepositorySQL getRepository() {
+        return repository;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try (Connection sql = MySQLConnection.getMySQLDatabase(); Statement statement = sql.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.disconnectMySQL();
+    }
+}
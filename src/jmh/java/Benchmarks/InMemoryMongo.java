@@ -0,0 +1,213 @@
+package Benchmarks;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.FindIterable;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+// Just enough of the driver's read path, backed by lists, to run ProductRepositoryMongoDB without a server:
+// find with equality and range filters, sort, limit and first. Every other call fails loudly so a benchmark
+// never silently measures a stub. Documents are kept in insertion order, which the seed makes productId order.
+public class InMemoryMongo {
+
+    private static final Object UNSUPPORTED = new Object();
+
+    private final Map<String, List<Document>> collections = new HashMap<>();
+    private final MongoDatabase database = proxy(MongoDatabase.class, (method, args) -> {
+        if (method.getName().equals("getCollection")) {
+            return collection((String) args[0]);
+        }
+        return UNSUPPORTED;
+    });
+
+    public MongoDatabase getDatabase() {
+        return database;
+    }
+
+    public void insert(String collectionName, List<Document> documents) {
+        collections.computeIfAbsent(collectionName, name -> new ArrayList<>()).addAll(documents);
+    }
+
+    @SuppressWarnings("unchecked")
+    private MongoCollection<Document> collection(String name) {
+        List<Document> documents = collections.computeIfAbsent(name, key -> new ArrayList<>());
+        return proxy(MongoCollection.class, (method, args) -> {
+            if (method.getName().equals("find") && (args == null || args.length == 0)) {
+                return new Query(documents, null).iterable();
+            }
+            if (method.getName().equals("find") && args.length == 1 && args[0] instanceof Bson) {
+                return new Query(documents, ((Bson) args[0]).toBsonDocument()).iterable();
+            }
+            if (method.getName().equals("countDocuments") && (args == null || args.length == 0)) {
+                return (long) documents.size();
+            }
+            return UNSUPPORTED;
+        });
+    }
+
+    private static class Query {
+        private final List<Document> documents;
+        private final BsonDocument filter;
+        private BsonDocument sort;
+        private int limit;
+
+        private Query(List<Document> documents, BsonDocument filter) {
+            this.documents = documents;
+            this.filter = filter;
+        }
+
+        @SuppressWarnings("unchecked")
+        private FindIterable<Document> iterable() {
+            FindIterable<Document>[] self = new FindIterable[1];
+            self[0] = proxy(FindIterable.class, (method, args) -> {
+                switch (method.getName()) {
+                    case "sort":
+                        sort = ((Bson) args[0]).toBsonDocument();
+                        return self[0];
+                    case "limit":
+                        limit = (Integer) args[0];
+                        return self[0];
+                    case "batchSize":
+                    case "projection":
+                        return self[0];
+                    case "first":
+                        List<Document> results = run();
+                        return results.isEmpty() ? null : results.get(0);
+                    case "iterator":
+                    case "cursor":
+                        return cursor(run().iterator());
+                    default:
+                        return UNSUPPORTED;
+                }
+            });
+            return self[0];
+        }
+
+        private List<Document> run() {
+            List<Document> results = new ArrayList<>();
+            for (Document document : documents) {
+                if (filter == null || matches(document, filter)) {
+                    results.add(document);
+                }
+            }
+            if (sort != null) {
+                results.sort(comparator(sort));
+            }
+            return limit > 0 && results.size() > limit ? results.subList(0, limit) : results;
+        }
+    }
+
+    private static boolean matches(Document document, BsonDocument filter) {
+        for (Map.Entry<String, BsonValue> condition : filter.entrySet()) {
+            Object value = document.get(condition.getKey());
+            BsonValue expected = condition.getValue();
+            if (expected.isDocument()) {
+                for (Map.Entry<String, BsonValue> operator : expected.asDocument().entrySet()) {
+                    if (!matchesOperator(value, operator.getKey(), operator.getValue())) {
+                        return false;
+                    }
+                }
+            } else if (compare(value, expected) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesOperator(Object value, String operator, BsonValue expected) {
+        int comparison = compare(value, expected);
+        switch (operator) {
+            case "$eq":
+                return comparison == 0;
+            case "$gt":
+                return comparison > 0;
+            case "$gte":
+                return comparison >= 0;
+            case "$lt":
+                return comparison < 0;
+            case "$lte":
+                return comparison <= 0;
+            default:
+                throw new UnsupportedOperationException("Filter operator " + operator);
+        }
+    }
+
+    private static int compare(Object value, BsonValue expected) {
+        if (value instanceof Number && expected.isNumber()) {
+            return Double.compare(((Number) value).doubleValue(), expected.asNumber().doubleValue());
+        }
+        if (value instanceof String && expected.isString()) {
+            return ((String) value).compareTo(expected.asString().getValue());
+        }
+        return value == null ? -1 : 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Document> comparator(BsonDocument sort) {
+        Comparator<Document> comparator = (left, right) -> 0;
+        for (Map.Entry<String, BsonValue> key : sort.entrySet()) {
+            String field = key.getKey();
+            int direction = key.getValue().asNumber().intValue();
+            comparator = comparator.thenComparing((left, right) ->
+                    direction * ((Comparable<Object>) left.get(field)).compareTo(right.get(field)));
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MongoCursor<Document> cursor(Iterator<Document> iterator) {
+        return proxy(MongoCursor.class, (method, args) -> {
+            switch (method.getName()) {
+                case "hasNext":
+                    return iterator.hasNext();
+                case "next":
+                    return iterator.next();
+                case "tryNext":
+                    return iterator.hasNext() ? iterator.next() : null;
+                case "close":
+                    return null;
+                default:
+                    return UNSUPPORTED;
+            }
+        });
+    }
+
+    private interface Handler {
+        // Returns UNSUPPORTED for calls the stand-in does not implement.
+        Object invoke(Method method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return "in-memory " + type.getSimpleName();
+                }
+            }
+            Object result = handler.invoke(method, args);
+            if (result != UNSUPPORTED) {
+                return result;
+            }
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+        };
+        return (T) Proxy.newProxyInstance(InMemoryMongo.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+}
@@ -0,0 +1,67 @@
+package Benchmarks;
+
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductType;
+import Contexts.Product.Domain.StockValuation;
+import Contexts.Product.Infrastructure.Memory.ProductRepositoryMemory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// The in-process backend: the floor the database-backed repositories are compared against.
+@State(Scope.Benchmark)
+public class ProductRepositoryMemoryBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int catalogSize;
+
+    private ProductRepositoryMemory repository;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new ProductRepositoryMemory();
+        repository.addProducts(Catalog.products(catalogSize));
+    }
+
+    @Benchmark
+    public Product getProduct() {
+        nextId = nextId % catalogSize + 1;
+        return repository.getProduct(nextId);
+    }
+
+    @Benchmark
+    public List<Product> getProductsAfter() {
+        return repository.getProductsAfter(0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Product> getProductsByType() {
+        return repository.getProductsByType(ProductType.FLOWER);
+    }
+
+    @Benchmark
+    public List<Product> getAllProducts() {
+        return repository.getAllProducts();
+    }
+
+    // A scan of the quantity and price columns; the gc profiler should show no allocation per product.
+    @Benchmark
+    public Map<ProductType, StockValuation> getStockValuationByType() {
+        return repository.getStockValuationByType();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean reserveAndReleaseStock() {
+        int productId = ThreadLocalRandom.current().nextInt(catalogSize) + 1;
+        boolean reserved = repository.reserveStock(productId, 1);
+        repository.releaseStock(Collections.singletonMap(productId, 1));
+        return reserved;
+    }
+}
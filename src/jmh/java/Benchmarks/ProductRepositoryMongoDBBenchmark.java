@@ -0,0 +1,59 @@
+package Benchmarks;
+
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductType;
+import Contexts.Product.Infrastructure.MongoDB.ProductRepositoryMongoDB;
+import Infrastructure.Connections.MongoDBConnection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+
+// ProductRepositoryMongoDB over InMemoryMongo: documentToProduct and the repository's cursor handling. The
+// stand-in scans lists, so absolute numbers say nothing about a real server; compare runs with each other.
+@State(Scope.Benchmark)
+public class ProductRepositoryMongoDBBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int catalogSize;
+
+    private MongoDBConnection connection;
+    private ProductRepositoryMongoDB<Product> repository;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryMongo mongo = new InMemoryMongo();
+        mongo.insert("products", Catalog.documents(catalogSize));
+        connection = new MongoDBConnection("benchmarks");
+        connection.mongoDatabase = mongo.getDatabase();
+        repository = new ProductRepositoryMongoDB<>(connection);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connection.disconnectMongo();
+    }
+
+    @Benchmark
+    public Product getProduct() {
+        nextId = nextId % catalogSize + 1;
+        return repository.getProduct(nextId);
+    }
+
+    @Benchmark
+    public List<Product> getProductsAfter() {
+        return repository.getProductsAfter(0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Product> getProductsByType() {
+        return repository.getProductsByType(ProductType.FLOWER);
+    }
+
+    @Benchmark
+    public List<Product> getAllProducts() {
+        return repository.getAllProducts();
+    }
+}
@@ -0,0 +1,55 @@
+package Benchmarks;
+
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductType;
+import Contexts.Product.Infrastructure.SQL.ProductRepositorySQL;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.List;
+
+// ProductRepositorySQL against H2 in MySQL mode: the queries and resultSetToProduct, without network.
+@State(Scope.Benchmark)
+public class ProductRepositorySQLBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int catalogSize;
+
+    private H2Catalog catalog;
+    private ProductRepositorySQL repository;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        catalog = new H2Catalog("products" + catalogSize, catalogSize);
+        repository = catalog.getRepository();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        catalog.close();
+    }
+
+    @Benchmark
+    public Product getProduct() {
+        nextId = nextId % catalogSize + 1;
+        return repository.getProduct(nextId);
+    }
+
+    @Benchmark
+    public List<Product> getProductsAfter() {
+        return repository.getProductsAfter(0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Product> getProductsByType() {
+        return repository.getProductsByType(ProductType.FLOWER);
+    }
+
+    @Benchmark
+    public List<Product> getAllProducts() {
+        return repository.getAllProducts();
+    }
+}
@@ -0,0 +1,72 @@
+package Benchmarks;
+
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductsRepository;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketRepository;
+import FlowerStore.Checkout.CheckoutService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// CheckoutService.createTicket, which replaced ManagerTickets.getTotalTicket: product lookups, the line total
+// and the ticket itself. Repositories answer from memory and every reservation succeeds, so only the
+// checkout's own work is measured.
+@State(Scope.Benchmark)
+public class TicketTotalBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int catalogSize;
+
+    @Param({"1", "10"})
+    int lines;
+
+    private CheckoutService checkoutService;
+    private Map<Integer, Integer> quantities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Product> products = Catalog.products(catalogSize);
+        ProductsRepository productsRepository = stub(ProductsRepository.class, (method, args) -> {
+            switch (method) {
+                case "getProduct":
+                    return products.get((Integer) args[0] - 1);
+                case "reserveStock":
+                    return true;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+        TicketRepository ticketRepository = stub(TicketRepository.class, (method, args) -> {
+            if (method.equals("newTicket")) {
+                return args[0];
+            }
+            throw new UnsupportedOperationException(method);
+        });
+        checkoutService = new CheckoutService(productsRepository, ticketRepository);
+
+        quantities = new HashMap<>();
+        int step = Math.max(1, catalogSize / lines);
+        for (int line = 0; line < lines; line++) {
+            quantities.merge(line * step % catalogSize + 1, 1 + line % 3, Integer::sum);
+        }
+    }
+
+    @Benchmark
+    public Ticket createTicket() throws Exception {
+        return checkoutService.createTicket(quantities);
+    }
+
+    private interface Stub {
+        Object invoke(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Stub stub) {
+        return (T) Proxy.newProxyInstance(TicketTotalBenchmark.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> stub.invoke(method.getName(), args));
+    }
+}
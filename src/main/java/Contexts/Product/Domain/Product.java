@@ -50,6 +50,10 @@ public abstract class Product<T> {
         return quantity;
     }
 
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
     public void setQuantity(int quantity) {
         this.quantity = quantity;
     }
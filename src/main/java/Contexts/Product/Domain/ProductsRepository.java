@@ -1,6 +1,9 @@
 package Contexts.Product.Domain;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface ProductsRepository {
     void initialize();
@@ -11,18 +14,37 @@ public interface ProductsRepository {
 
     List<Product> getAllProducts();
 
+    Stream<Product> streamAllProducts();
+
+    List<Product> getProductsAfter(int lastId, int pageSize);
+
     List<Product> getFlowers();
 
     List<Product> getTrees();
 
     List<Product> getDecorations();
 
+    List<Product> getProductsByType(ProductType type);
+
+    Map<ProductType, StockValuation> getStockValuationByType();
+
     void addPrimaryStock();
 
     void updateProduct(Product product);
 
+    void updateProducts(Collection<Product> products);
+
     void deleteProduct(Product product);
 
+    boolean reserveStock(int productId, int quantity);
+
+    // All or nothing: returns false and changes no stock if any product has less than requested.
+    boolean reserveStock(Map<Integer, Integer> quantities);
+
+    void releaseStock(Map<Integer, Integer> quantities);
+
     void addProduct(Product product);
 
+    void addProducts(Collection<Product> products);
+
 }
@@ -0,0 +1,26 @@
+package Contexts.Product.Domain;
+
+public class StockValuation {
+
+    private final ProductType type;
+    private final long units;
+    private final double value;
+
+    public StockValuation(ProductType type, long units, double value) {
+        this.type = type;
+        this.units = units;
+        this.value = value;
+    }
+
+    public ProductType getType() {
+        return type;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public double getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,34 @@
+package Contexts.Product.Infrastructure.Cache;
+
+import java.time.Duration;
+
+public class CachePolicy {
+
+    private final Duration refreshAfter;
+
+    private CachePolicy(Duration refreshAfter) {
+        this.refreshAfter = refreshAfter;
+    }
+
+    // The catalog is loaded once and only changes through this process.
+    public static CachePolicy never() {
+        return new CachePolicy(Duration.ZERO);
+    }
+
+    // The whole catalog is reloaded from the database once it is older than the given duration,
+    // so writes made by other processes become visible.
+    public static CachePolicy refreshAfter(Duration refreshAfter) {
+        if (refreshAfter == null || refreshAfter.isNegative()) {
+            throw new IllegalArgumentException("Invalid refresh interval: " + refreshAfter);
+        }
+        return new CachePolicy(refreshAfter);
+    }
+
+    public boolean isExpired(long loadedAtNanos, long nowNanos) {
+        return !refreshAfter.isZero() && nowNanos - loadedAtNanos >= refreshAfter.toNanos();
+    }
+
+    public Duration getRefreshAfter() {
+        return refreshAfter;
+    }
+}
@@ -0,0 +1,295 @@
+package Contexts.Product.Infrastructure.Cache;
+
+import Contexts.Product.Domain.Decoration;
+import Contexts.Product.Domain.Flower;
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductType;
+import Contexts.Product.Domain.ProductsRepository;
+import Contexts.Product.Domain.StockValuation;
+import Contexts.Product.Domain.Tree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Products are mutable, so the catalog keeps its own copies and hands out new ones: a caller editing a product
+// before updateProduct() can't change what other readers see, and stock changes replace the cached entry.
+public class ProductRepositoryCache implements ProductsRepository {
+
+    private static final ProductType[] DISPLAY_ORDER = {ProductType.TREE, ProductType.FLOWER, ProductType.DECORATION};
+
+    private final ProductsRepository delegate;
+    private final CachePolicy policy;
+    private volatile Catalog catalog;
+
+    public ProductRepositoryCache(ProductsRepository delegate, CachePolicy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    @Override
+    public void initialize() {
+        delegate.initialize();
+        reload();
+    }
+
+    public void invalidate() {
+        catalog = null;
+    }
+
+    @Override
+    public Product getProduct(int id) {
+        Catalog current = currentCatalog();
+        Product product = current.products.get(id);
+        if (product == null) {
+            product = delegate.getProduct(id);
+            if (product != null) {
+                synchronized (this) {
+                    current.putCopy(product);
+                }
+            }
+            return product;
+        }
+        return copy(product, product.getQuantity());
+    }
+
+    @Override
+    public Product getLastProduct() {
+        Map.Entry<Integer, Product> last = currentCatalog().products.lastEntry();
+        return last == null ? null : copy(last.getValue(), last.getValue().getQuantity());
+    }
+
+    @Override
+    public List<Product> getAllProducts() {
+        Catalog current = currentCatalog();
+        List<Product> products = new ArrayList<>(current.products.size());
+        for (ProductType type : DISPLAY_ORDER) {
+            copyInto(products, current.productsByType.get(type).values());
+        }
+        return products;
+    }
+
+    @Override
+    public Stream<Product> streamAllProducts() {
+        return currentCatalog().products.values().stream().map(product -> copy(product, product.getQuantity()));
+    }
+
+    @Override
+    public List<Product> getProductsAfter(int lastId, int pageSize) {
+        return currentCatalog().products.tailMap(lastId, false).values().stream()
+                .limit(pageSize)
+                .map(product -> copy(product, product.getQuantity()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Product> getFlowers() {
+        return getProductsByType(ProductType.FLOWER);
+    }
+
+    @Override
+    public List<Product> getTrees() {
+        return getProductsByType(ProductType.TREE);
+    }
+
+    @Override
+    public List<Product> getDecorations() {
+        return getProductsByType(ProductType.DECORATION);
+    }
+
+    @Override
+    public List<Product> getProductsByType(ProductType type) {
+        Collection<Product> products = currentCatalog().productsByType.get(type).values();
+        List<Product> copies = new ArrayList<>(products.size());
+        copyInto(copies, products);
+        return copies;
+    }
+
+    // The catalog is already in memory, so the valuation needs no round trip.
+    @Override
+    public Map<ProductType, StockValuation> getStockValuationByType() {
+        Map<ProductType, StockValuation> valuation = new EnumMap<>(ProductType.class);
+        for (Map.Entry<ProductType, NavigableMap<Integer, Product>> entry : currentCatalog().productsByType.entrySet()) {
+            long units = 0;
+            double value = 0;
+            for (Product product : entry.getValue().values()) {
+                units += product.getQuantity();
+                value += product.getPrice() * product.getQuantity();
+            }
+            if (!entry.getValue().isEmpty()) {
+                valuation.put(entry.getKey(), new StockValuation(entry.getKey(), units, value));
+            }
+        }
+        return valuation;
+    }
+
+    @Override
+    public void addPrimaryStock() {
+        delegate.addPrimaryStock();
+        invalidate();
+    }
+
+    @Override
+    public void updateProduct(Product product) {
+        delegate.updateProduct(product);
+        synchronized (this) {
+            currentCatalog().putCopy(product);
+        }
+    }
+
+    @Override
+    public void updateProducts(Collection<Product> products) {
+        delegate.updateProducts(products);
+        synchronized (this) {
+            Catalog catalog = currentCatalog();
+            for (Product product : products) {
+                catalog.putCopy(product);
+            }
+        }
+    }
+
+    @Override
+    public boolean reserveStock(int productId, int quantity) {
+        return reserveStock(Collections.singletonMap(productId, quantity));
+    }
+
+    // Stock is checked by the backend; the cached quantities only follow once it has succeeded.
+    @Override
+    public boolean reserveStock(Map<Integer, Integer> quantities) {
+        if (!delegate.reserveStock(quantities)) {
+            return false;
+        }
+        adjustQuantities(quantities, -1);
+        return true;
+    }
+
+    @Override
+    public void releaseStock(Map<Integer, Integer> quantities) {
+        delegate.releaseStock(quantities);
+        adjustQuantities(quantities, 1);
+    }
+
+    private void adjustQuantities(Map<Integer, Integer> quantities, int sign) {
+        synchronized (this) {
+            Catalog catalog = currentCatalog();
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                Product product = catalog.products.get(entry.getKey());
+                if (product != null) {
+                    catalog.put(copy(product, product.getQuantity() + sign * entry.getValue()));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void deleteProduct(Product product) {
+        delegate.deleteProduct(product);
+        synchronized (this) {
+            currentCatalog().remove(product.getProductId());
+        }
+    }
+
+    @Override
+    public void addProduct(Product product) {
+        delegate.addProduct(product);
+        index(Collections.singletonList(product));
+    }
+
+    @Override
+    public void addProducts(Collection<Product> products) {
+        delegate.addProducts(products);
+        index(products);
+    }
+
+    // The backends set the generated id on the products they insert.
+    private void index(Collection<Product> products) {
+        synchronized (this) {
+            Catalog current = currentCatalog();
+            for (Product product : products) {
+                if (product.getProductId() > 0) {
+                    current.putCopy(product);
+                }
+            }
+        }
+    }
+
+    private static void copyInto(List<Product> copies, Collection<Product> products) {
+        for (Product product : products) {
+            copies.add(copy(product, product.getQuantity()));
+        }
+    }
+
+    private static Product copy(Product product, int quantity) {
+        switch (product.getType()) {
+            case TREE:
+                return new Tree<>(product.getProductId(), product.getName(), quantity, product.getPrice(), product.getAttributes());
+            case FLOWER:
+                return new Flower<>(product.getProductId(), product.getName(), quantity, product.getPrice(), product.getAttributes());
+            case DECORATION:
+                return new Decoration<>(product.getProductId(), product.getName(), quantity, product.getPrice(), product.getAttributes());
+            default:
+                throw new IllegalArgumentException("Unknown product type " + product.getType());
+        }
+    }
+
+    private Catalog currentCatalog() {
+        Catalog current = catalog;
+        if (current == null || policy.isExpired(current.loadedAt, System.nanoTime())) {
+            current = reload();
+        }
+        return current;
+    }
+
+    private synchronized Catalog reload() {
+        Catalog current = catalog;
+        if (current != null && !policy.isExpired(current.loadedAt, System.nanoTime())) {
+            return current;
+        }
+        Catalog loaded = new Catalog(System.nanoTime());
+        for (Product product : delegate.getAllProducts()) {
+            loaded.putCopy(product);
+        }
+        catalog = loaded;
+        return loaded;
+    }
+
+    private static class Catalog {
+        private final long loadedAt;
+        private final NavigableMap<Integer, Product> products = new ConcurrentSkipListMap<>();
+        private final Map<ProductType, NavigableMap<Integer, Product>> productsByType = new EnumMap<>(ProductType.class);
+
+        private Catalog(long loadedAt) {
+            this.loadedAt = loadedAt;
+            for (ProductType type : ProductType.values()) {
+                productsByType.put(type, new ConcurrentSkipListMap<>());
+            }
+        }
+
+        // Stores a copy, so later changes to the caller's product don't reach the catalog.
+        private void putCopy(Product product) {
+            put(copy(product, product.getQuantity()));
+        }
+
+        private void put(Product product) {
+            Product previous = products.put(product.getProductId(), product);
+            if (previous != null && previous.getType() != product.getType()) {
+                productsByType.get(previous.getType()).remove(previous.getProductId());
+            }
+            productsByType.get(product.getType()).put(product.getProductId(), product);
+        }
+
+        private void remove(int productId) {
+            Product removed = products.remove(productId);
+            if (removed != null) {
+                productsByType.get(removed.getType()).remove(productId);
+            }
+        }
+    }
+}
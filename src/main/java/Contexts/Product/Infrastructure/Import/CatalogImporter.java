@@ -0,0 +1,201 @@
+package Contexts.Product.Infrastructure.Import;
+
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductsRepository;
+import Contexts.Product.Infrastructure.Import.Exceptions.InvalidCatalogRowException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Three stages connected by bounded queues: a parser thread reading the file, a validator thread building
+// products and grouping them into batches, and the calling thread writing batches to the repository.
+// A full queue blocks the stage feeding it, so a slow database throttles the file reader.
+public class CatalogImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImporter.class);
+    private static final CatalogRow END_OF_ROWS = new CatalogRow(-1, null, null, null, null, null);
+    private static final List<Product> END_OF_BATCHES = new ArrayList<>(0);
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final long POLL_MILLIS = 100;
+
+    private final ProductsRepository productsRepository;
+    private final ProductRowValidator validator = new ProductRowValidator();
+    private final int batchSize;
+    private final int queueCapacity;
+    private final long progressInterval;
+
+    public CatalogImporter(ProductsRepository productsRepository, int batchSize, int queueCapacity, long progressInterval) {
+        if (batchSize < 1 || queueCapacity < 1 || progressInterval < 1) {
+            throw new IllegalArgumentException("Batch size, queue capacity and progress interval must be positive");
+        }
+        this.productsRepository = productsRepository;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.progressInterval = progressInterval;
+    }
+
+    public ImportProgress importFile(Path path, Consumer<ImportProgress> progressListener) throws IOException {
+        CatalogParser parser = CatalogParser.forFile(path.getFileName().toString());
+        BlockingQueue<CatalogRow> rows = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<List<Product>> batches = new ArrayBlockingQueue<>(Math.max(1, queueCapacity / batchSize));
+
+        try (ChannelLineReader reader = new ChannelLineReader(path)) {
+            ImportState state = new ImportState(reader, reader.size());
+            Thread parserThread = new Thread(() -> parse(reader, parser, rows, state), "catalog-import-parser");
+            Thread validatorThread = new Thread(() -> validate(rows, batches, state), "catalog-import-validator");
+            parserThread.start();
+            validatorThread.start();
+            try {
+                write(batches, state, progressListener);
+                if (state.failure != null) {
+                    parserThread.interrupt();
+                    validatorThread.interrupt();
+                }
+                parserThread.join();
+                validatorThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Catalog import interrupted", e);
+            } finally {
+                parserThread.interrupt();
+                validatorThread.interrupt();
+            }
+
+            if (state.failure instanceof IOException) {
+                throw (IOException) state.failure;
+            }
+            if (state.failure != null) {
+                throw new IOException("Catalog import failed", state.failure);
+            }
+            ImportProgress result = state.snapshot(true);
+            logger.info(result.toString());
+            progressListener.accept(result);
+            return result;
+        }
+    }
+
+    // Both stages queue their end marker whatever happens, so the stage after them never waits forever.
+    private void parse(ChannelLineReader reader, CatalogParser parser, BlockingQueue<CatalogRow> rows, ImportState state) {
+        try {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                state.linesRead.incrementAndGet();
+                try {
+                    CatalogRow row = parser.parse(line, lineNumber);
+                    if (row != null) {
+                        rows.put(row);
+                    }
+                } catch (InvalidCatalogRowException e) {
+                    state.reject(e);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            state.failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            end(rows, END_OF_ROWS);
+        }
+    }
+
+    private void validate(BlockingQueue<CatalogRow> rows, BlockingQueue<List<Product>> batches, ImportState state) {
+        try {
+            List<Product> batch = new ArrayList<>(batchSize);
+            CatalogRow row;
+            while ((row = rows.take()) != END_OF_ROWS) {
+                try {
+                    batch.add(validator.toProduct(row));
+                } catch (InvalidCatalogRowException e) {
+                    state.reject(e);
+                }
+                if (batch.size() == batchSize) {
+                    batches.put(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                batches.put(batch);
+            }
+        } catch (RuntimeException e) {
+            state.failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            end(batches, END_OF_BATCHES);
+        }
+    }
+
+    // An interrupted stage gives up at once instead of blocking on a full queue.
+    private static <T> void end(BlockingQueue<T> queue, T marker) {
+        try {
+            queue.put(marker);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Stops at the end marker, or as soon as a stage has failed.
+    private void write(BlockingQueue<List<Product>> batches, ImportState state, Consumer<ImportProgress> progressListener)
+            throws InterruptedException {
+        long nextReport = progressInterval;
+        while (state.failure == null) {
+            List<Product> batch = batches.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (batch == END_OF_BATCHES) {
+                return;
+            }
+            if (batch == null) {
+                continue;
+            }
+            productsRepository.addProducts(batch);
+            long imported = state.imported.addAndGet(batch.size());
+            if (imported >= nextReport) {
+                progressListener.accept(state.snapshot(false));
+                nextReport = imported + progressInterval;
+            }
+        }
+    }
+
+    private static class ImportState {
+        private final ChannelLineReader reader;
+        private final long totalBytes;
+        private final long startedAt = System.nanoTime();
+        private final AtomicLong linesRead = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile Exception failure;
+
+        private ImportState(ChannelLineReader reader, long totalBytes) {
+            this.reader = reader;
+            this.totalBytes = totalBytes;
+        }
+
+        private void reject(InvalidCatalogRowException e) {
+            if (rejected.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                errors.add(e.getMessage());
+            }
+            logger.warn("Rejected catalog row. " + e.getMessage());
+        }
+
+        private ImportProgress snapshot(boolean finished) {
+            List<String> reportedErrors;
+            synchronized (errors) {
+                reportedErrors = new ArrayList<>(errors);
+            }
+            return new ImportProgress(linesRead.get(), reader.getBytesRead(), totalBytes, imported.get(), rejected.get(),
+                    System.nanoTime() - startedAt, reportedErrors, finished);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package Contexts.Product.Infrastructure.Import;
+
+import Contexts.Product.Infrastructure.Import.Exceptions.InvalidCatalogRowException;
+
+public interface CatalogParser {
+
+    // Returns null for lines that carry no product (blank lines, CSV header).
+    CatalogRow parse(String line, long lineNumber) throws InvalidCatalogRowException;
+
+    static CatalogParser forFile(String fileName) {
+        String lowerCaseName = fileName.toLowerCase();
+        if (lowerCaseName.endsWith(".jsonl") || lowerCaseName.endsWith(".ndjson")) {
+            return new JsonLinesCatalogParser();
+        } else if (lowerCaseName.endsWith(".csv")) {
+            return new CsvCatalogParser();
+        }
+        throw new IllegalArgumentException("Unsupported catalog format: " + fileName);
+    }
+}
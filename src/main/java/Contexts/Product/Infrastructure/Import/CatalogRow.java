@@ -0,0 +1,44 @@
+package Contexts.Product.Infrastructure.Import;
+
+public class CatalogRow {
+
+    private final long lineNumber;
+    private final String type;
+    private final String name;
+    private final String quantity;
+    private final String price;
+    private final String attribute;
+
+    public CatalogRow(long lineNumber, String type, String name, String quantity, String price, String attribute) {
+        this.lineNumber = lineNumber;
+        this.type = type;
+        this.name = name;
+        this.quantity = quantity;
+        this.price = price;
+        this.attribute = attribute;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getQuantity() {
+        return quantity;
+    }
+
+    public String getPrice() {
+        return price;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+}
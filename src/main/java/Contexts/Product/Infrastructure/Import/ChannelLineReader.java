@@ -0,0 +1,84 @@
+package Contexts.Product.Infrastructure.Import;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Reads UTF-8 lines through a direct buffer. Lines are split on the '\n' byte, which never occurs inside a
+// multi-byte UTF-8 sequence, so only complete lines are decoded.
+public class ChannelLineReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private volatile long bytesRead;
+    private boolean endOfFile;
+
+    public ChannelLineReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer.flip();
+    }
+
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public String readLine() throws IOException {
+        while (true) {
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n') {
+                    return takeLine();
+                }
+                append(b);
+            }
+            if (endOfFile || !fill()) {
+                endOfFile = true;
+                return lineLength > 0 ? takeLine() : null;
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read = channel.read(buffer);
+        buffer.flip();
+        if (read > 0) {
+            bytesRead += read;
+        }
+        return read > 0;
+    }
+
+    private void append(byte b) {
+        if (lineLength == line.length) {
+            line = Arrays.copyOf(line, line.length * 2);
+        }
+        line[lineLength++] = b;
+    }
+
+    private String takeLine() {
+        int length = lineLength;
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        lineLength = 0;
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
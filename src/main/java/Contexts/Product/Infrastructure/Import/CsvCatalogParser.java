@@ -0,0 +1,59 @@
+package Contexts.Product.Infrastructure.Import;
+
+import Contexts.Product.Infrastructure.Import.Exceptions.InvalidCatalogRowException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Columns: type,name,quantity,price,attribute. An optional header line starting with "type" is skipped and
+// fields may be wrapped in double quotes ("" escapes a quote).
+public class CsvCatalogParser implements CatalogParser {
+
+    private static final int COLUMNS = 5;
+
+    @Override
+    public CatalogRow parse(String line, long lineNumber) throws InvalidCatalogRowException {
+        if (line.isBlank()) {
+            return null;
+        }
+        List<String> fields = split(line, lineNumber);
+        if (fields.size() != COLUMNS) {
+            throw new InvalidCatalogRowException(lineNumber, "expected " + COLUMNS + " columns but found " + fields.size());
+        }
+        if (fields.get(0).equalsIgnoreCase("type")) {
+            return null;
+        }
+        return new CatalogRow(lineNumber, fields.get(0), fields.get(1), fields.get(2), fields.get(3), fields.get(4));
+    }
+
+    private List<String> split(String line, long lineNumber) throws InvalidCatalogRowException {
+        List<String> fields = new ArrayList<>(COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new InvalidCatalogRowException(lineNumber, "unterminated quoted field");
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
@@ -0,0 +1,8 @@
+package Contexts.Product.Infrastructure.Import.Exceptions;
+
+public class InvalidCatalogRowException extends Exception {
+    public InvalidCatalogRowException(long lineNumber, String message) {
+        super("Line " + lineNumber + ": " + message);
+    }
+
+}
@@ -0,0 +1,66 @@
+package Contexts.Product.Infrastructure.Import;
+
+import java.util.List;
+
+public class ImportProgress {
+
+    private final long linesRead;
+    private final long bytesRead;
+    private final long totalBytes;
+    private final long imported;
+    private final long rejected;
+    private final long elapsedNanos;
+    private final List<String> errors;
+    private final boolean finished;
+
+    public ImportProgress(long linesRead, long bytesRead, long totalBytes, long imported, long rejected,
+                          long elapsedNanos, List<String> errors, boolean finished) {
+        this.linesRead = linesRead;
+        this.bytesRead = bytesRead;
+        this.totalBytes = totalBytes;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.elapsedNanos = elapsedNanos;
+        this.errors = errors;
+        this.finished = finished;
+    }
+
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public double getPercentRead() {
+        return totalBytes == 0 ? 100 : bytesRead * 100.0 / totalBytes;
+    }
+
+    public double getElapsedSeconds() {
+        return elapsedNanos / 1_000_000_000.0;
+    }
+
+    public double getProductsPerSecond() {
+        return elapsedNanos == 0 ? 0 : imported / getElapsedSeconds();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %.1f%% read, %d lines, %d imported, %d rejected in %.1fs (%.0f products/s)",
+                finished ? "Import finished" : "Importing", getPercentRead(), linesRead, imported, rejected,
+                getElapsedSeconds(), getProductsPerSecond());
+    }
+}
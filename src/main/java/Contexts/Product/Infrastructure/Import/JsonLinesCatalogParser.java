@@ -0,0 +1,37 @@
+package Contexts.Product.Infrastructure.Import;
+
+import Contexts.Product.Infrastructure.Import.Exceptions.InvalidCatalogRowException;
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+
+// One object per line using the same field names as the MongoDB products collection:
+// {"type": "FLOWER", "name": "rosa", "quantity": 50, "price": 4.0, "attribute": "roja"}
+public class JsonLinesCatalogParser implements CatalogParser {
+
+    @Override
+    public CatalogRow parse(String line, long lineNumber) throws InvalidCatalogRowException {
+        if (line.isBlank()) {
+            return null;
+        }
+        Document document;
+        try {
+            document = Document.parse(line);
+        } catch (JsonParseException e) {
+            throw new InvalidCatalogRowException(lineNumber, "malformed JSON: " + e.getMessage());
+        } catch (RuntimeException e) {
+            // Valid JSON that is not an object, such as 42 or [1], fails with BsonInvalidOperationException.
+            throw new InvalidCatalogRowException(lineNumber, "not a JSON object: " + e.getMessage());
+        }
+        return new CatalogRow(lineNumber,
+                field(document, "type"),
+                field(document, "name"),
+                field(document, "quantity"),
+                field(document, "price"),
+                field(document, "attribute"));
+    }
+
+    private String field(Document document, String key) {
+        Object value = document.get(key);
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package Contexts.Product.Infrastructure.Import;
+
+import Contexts.Product.Domain.*;
+import Contexts.Product.Infrastructure.Import.Exceptions.InvalidCatalogRowException;
+
+// Applies the same rules as the interactive prompts in ManagerProducts.
+public class ProductRowValidator {
+
+    public Product toProduct(CatalogRow row) throws InvalidCatalogRowException {
+        long lineNumber = row.getLineNumber();
+        ProductType type = parseType(row.getType(), lineNumber);
+        String name = required(row.getName(), "name", lineNumber).toLowerCase();
+        int quantity = parseQuantity(row.getQuantity(), lineNumber);
+        double price = parsePrice(row.getPrice(), lineNumber);
+        String attribute = required(row.getAttribute(), "attribute", lineNumber);
+
+        switch (type) {
+            case TREE:
+                return new Tree<>(name, quantity, price, parseHeight(attribute, lineNumber));
+            case FLOWER:
+                return new Flower<>(name, quantity, price, attribute.toLowerCase());
+            case DECORATION:
+                return new Decoration<>(name, quantity, price, parseMaterial(attribute, lineNumber));
+            default:
+                throw new InvalidCatalogRowException(lineNumber, "invalid product type " + type);
+        }
+    }
+
+    private ProductType parseType(String value, long lineNumber) throws InvalidCatalogRowException {
+        try {
+            return ProductType.valueOf(required(value, "type", lineNumber).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCatalogRowException(lineNumber, "invalid product type " + value);
+        }
+    }
+
+    private String required(String value, String field, long lineNumber) throws InvalidCatalogRowException {
+        if (value == null || value.isBlank()) {
+            throw new InvalidCatalogRowException(lineNumber, "missing " + field);
+        }
+        return value.trim();
+    }
+
+    private int parseQuantity(String value, long lineNumber) throws InvalidCatalogRowException {
+        try {
+            int quantity = Integer.parseInt(required(value, "quantity", lineNumber));
+            if (quantity < 0) {
+                throw new InvalidCatalogRowException(lineNumber, "quantity can't be negative");
+            }
+            return quantity;
+        } catch (NumberFormatException e) {
+            throw new InvalidCatalogRowException(lineNumber, "invalid quantity " + value);
+        }
+    }
+
+    private double parsePrice(String value, long lineNumber) throws InvalidCatalogRowException {
+        try {
+            double price = Double.parseDouble(required(value, "price", lineNumber));
+            if (!(price > 0)) {
+                throw new InvalidCatalogRowException(lineNumber, "price must be over 0");
+            }
+            return price;
+        } catch (NumberFormatException e) {
+            throw new InvalidCatalogRowException(lineNumber, "invalid price " + value);
+        }
+    }
+
+    private double parseHeight(String value, long lineNumber) throws InvalidCatalogRowException {
+        try {
+            double height = Double.parseDouble(value);
+            if (!(height > 0)) {
+                throw new InvalidCatalogRowException(lineNumber, "height must be over 0");
+            }
+            return height;
+        } catch (NumberFormatException e) {
+            throw new InvalidCatalogRowException(lineNumber, "invalid height " + value);
+        }
+    }
+
+    private String parseMaterial(String value, long lineNumber) throws InvalidCatalogRowException {
+        String material = value.toLowerCase();
+        if (!material.equals("madera") && !material.equals("plastico")) {
+            throw new InvalidCatalogRowException(lineNumber, "material must be \"madera\" or \"plastico\"");
+        }
+        return material;
+    }
+}
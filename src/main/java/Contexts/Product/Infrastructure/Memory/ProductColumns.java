@@ -0,0 +1,207 @@
+package Contexts.Product.Infrastructure.Memory;
+
+import Contexts.Product.Domain.*;
+import Utils.Kernels.AggregationKernels;
+import Utils.Primitive.Cents;
+import Utils.Primitive.IntObjectHashMap;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+// The numeric product state in off-heap columns, one row per product: productId int, type byte, quantity int
+// and price in cents long. Names and attributes stay on the heap in arrays parallel to the rows.
+// A dense index maps each id below DENSE_IDS to its row, so lookups and scans read the columns without
+// allocating; larger ids go to a hash map, so one stray id can't size the index. A Product is only built when
+// a caller asks for one. Removing a product moves the last row into its place.
+// Not thread-safe: rows are added, removed or repriced under an exclusive lock, while quantities can change
+// under a shared one and are read and written with volatile semantics.
+public class ProductColumns {
+
+    private static final int INITIAL_ROWS = 64;
+    // Caps the dense index at 16 MB.
+    private static final int DENSE_IDS = 1 << 22;
+    private static final ProductType[] TYPES = ProductType.values();
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private ByteBuffer ids;
+    private ByteBuffer types;
+    private ByteBuffer quantities;
+    private ByteBuffer pricesInCents;
+    private ByteBuffer rowsById;
+    private final IntObjectHashMap<Integer> sparseRowsById = new IntObjectHashMap<>();
+    private String[] names;
+    private Object[] attributes;
+    private int rows;
+
+    public ProductColumns() {
+        ids = allocate(INITIAL_ROWS * 4);
+        types = allocate(INITIAL_ROWS);
+        quantities = allocate(INITIAL_ROWS * 4);
+        pricesInCents = allocate(INITIAL_ROWS * 8);
+        rowsById = allocate(INITIAL_ROWS * 4);
+        names = new String[INITIAL_ROWS];
+        attributes = new Object[INITIAL_ROWS];
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public boolean isEmpty() {
+        return rows == 0;
+    }
+
+    // -1 when there's no product with that id.
+    public int rowOf(int productId) {
+        if (productId <= 0) {
+            return -1;
+        }
+        if (productId >= DENSE_IDS) {
+            Integer row = sparseRowsById.get(productId);
+            return row == null ? -1 : row;
+        }
+        if (productId >= rowsById.capacity() / 4) {
+            return -1;
+        }
+        return rowsById.getInt(productId * 4) - 1;
+    }
+
+    public int productId(int row) {
+        return ids.getInt(row * 4);
+    }
+
+    public ProductType type(int row) {
+        return TYPES[types.get(row)];
+    }
+
+    public int typeOrdinal(int row) {
+        return types.get(row);
+    }
+
+    public int quantity(int row) {
+        return (int) INT.getVolatile(quantities, row * 4);
+    }
+
+    public long priceInCents(int row) {
+        return pricesInCents.getLong(row * 8);
+    }
+
+    // Callers serialize changes to the same row; the write is volatile so readers see it without that lock.
+    public void addQuantity(int row, int delta) {
+        INT.setVolatile(quantities, row * 4, quantity(row) + delta);
+    }
+
+    // Inserts the product or overwrites the row it already has.
+    public void put(Product product) {
+        int productId = product.getProductId();
+        if (productId <= 0) {
+            throw new IllegalArgumentException("Invalid product id: " + productId);
+        }
+        int row = rowOf(productId);
+        if (row < 0) {
+            ensureRows(rows + 1);
+            row = rows++;
+            index(productId, row);
+        }
+        ids.putInt(row * 4, productId);
+        types.put(row, (byte) product.getType().ordinal());
+        INT.setVolatile(quantities, row * 4, product.getQuantity());
+        pricesInCents.putLong(row * 8, Cents.fromEuros(product.getPrice()));
+        names[row] = product.getName();
+        attributes[row] = product.getAttributes();
+    }
+
+    public boolean remove(int productId) {
+        int row = rowOf(productId);
+        if (row < 0) {
+            return false;
+        }
+        int last = --rows;
+        if (row != last) {
+            int movedId = productId(last);
+            ids.putInt(row * 4, movedId);
+            types.put(row, types.get(last));
+            INT.setVolatile(quantities, row * 4, quantity(last));
+            pricesInCents.putLong(row * 8, priceInCents(last));
+            names[row] = names[last];
+            attributes[row] = attributes[last];
+            index(movedId, row);
+        }
+        names[last] = null;
+        attributes[last] = null;
+        unindex(productId);
+        return true;
+    }
+
+    // Products, units and stock value in cents per type ordinal, added into the arrays passed in. The kernels read
+    // the columns with plain loads, so a stock move racing with the scan may or may not be counted.
+    public void valuation(long[] count, long[] units, long[] valueInCents) {
+        VarHandle.acquireFence();
+        AggregationKernels.getInstance().sumByType(types, quantities, pricesInCents, rows, count, units, valueInCents);
+    }
+
+    public Product toProduct(int row) {
+        int productId = productId(row);
+        String name = names[row];
+        int quantity = quantity(row);
+        double price = Cents.toEuros(priceInCents(row));
+        Object attribute = attributes[row];
+        switch (type(row)) {
+            case TREE:
+                return new Tree<>(productId, name, quantity, price, attribute);
+            case FLOWER:
+                return new Flower<>(productId, name, quantity, price, attribute);
+            case DECORATION:
+                return new Decoration<>(productId, name, quantity, price, attribute);
+            default:
+                throw new IllegalArgumentException("Invalid product type : " + type(row));
+        }
+    }
+
+    private void ensureRows(int required) {
+        int capacity = names.length;
+        if (required <= capacity) {
+            return;
+        }
+        int grown = Math.max(required, capacity * 2);
+        ids = grow(ids, grown * 4);
+        types = grow(types, grown);
+        quantities = grow(quantities, grown * 4);
+        pricesInCents = grow(pricesInCents, grown * 8);
+        names = Arrays.copyOf(names, grown);
+        attributes = Arrays.copyOf(attributes, grown);
+    }
+
+    private void index(int productId, int row) {
+        if (productId >= DENSE_IDS) {
+            sparseRowsById.put(productId, row);
+            return;
+        }
+        int capacity = rowsById.capacity() / 4;
+        if (productId >= capacity) {
+            rowsById = grow(rowsById, Math.min(Math.max(productId + 1, capacity * 2), DENSE_IDS) * 4);
+        }
+        rowsById.putInt(productId * 4, row + 1);
+    }
+
+    private void unindex(int productId) {
+        if (productId >= DENSE_IDS) {
+            sparseRowsById.remove(productId);
+        } else {
+            rowsById.putInt(productId * 4, 0);
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer column, int bytes) {
+        ByteBuffer grown = allocate(bytes);
+        grown.put(column.duplicate().clear());
+        return grown.clear();
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+}
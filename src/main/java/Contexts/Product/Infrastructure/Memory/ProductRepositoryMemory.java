@@ -0,0 +1,330 @@
+package Contexts.Product.Infrastructure.Memory;
+
+import Contexts.Product.Domain.*;
+import Utils.Primitive.Cents;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Products live in off-heap columns (see ProductColumns) under a read/write lock that only structural changes
+// (add, update, delete) take exclusively. Stock moves take the read lock plus the striped locks of the products
+// involved, so sales of different products never wait for each other. Callers get Products built from the rows.
+// Ids come from an atomic counter and are never reused. Ids restored with putProducts can be arbitrarily large,
+// so ordered reads sort the ids of the stored rows rather than walk the id range.
+public class ProductRepositoryMemory implements ProductsRepository {
+
+    private static final int STOCK_STRIPES = 64;
+    private static final ProductType[] DISPLAY_ORDER = {ProductType.TREE, ProductType.FLOWER, ProductType.DECORATION};
+
+    private final ProductColumns products = new ProductColumns();
+    private final ReentrantReadWriteLock catalogLock = new ReentrantReadWriteLock();
+    private final ReentrantLock[] stockLocks = new ReentrantLock[STOCK_STRIPES];
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    public ProductRepositoryMemory() {
+        for (int i = 0; i < STOCK_STRIPES; i++) {
+            stockLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void initialize() {
+        if (isEmpty()) {
+            addPrimaryStock();
+        }
+    }
+
+    private boolean isEmpty() {
+        catalogLock.readLock().lock();
+        try {
+            return products.isEmpty();
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Product getProduct(int id) {
+        catalogLock.readLock().lock();
+        try {
+            int row = products.rowOf(id);
+            return row < 0 ? null : products.toProduct(row);
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Product getLastProduct() {
+        catalogLock.readLock().lock();
+        try {
+            int last = -1;
+            for (int row = 0; row < products.size(); row++) {
+                if (last < 0 || products.productId(row) > products.productId(last)) {
+                    last = row;
+                }
+            }
+            return last < 0 ? null : products.toProduct(last);
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Product> getAllProducts() {
+        Map<ProductType, List<Product>> byType = new EnumMap<>(ProductType.class);
+        for (ProductType type : ProductType.values()) {
+            byType.put(type, new ArrayList<>());
+        }
+        for (Product product : getProductsAfter(0, Integer.MAX_VALUE)) {
+            byType.get(product.getType()).add(product);
+        }
+        List<Product> products = new ArrayList<>();
+        for (ProductType type : DISPLAY_ORDER) {
+            products.addAll(byType.get(type));
+        }
+        return products;
+    }
+
+    @Override
+    public Stream<Product> streamAllProducts() {
+        return getProductsAfter(0, Integer.MAX_VALUE).stream();
+    }
+
+    @Override
+    public List<Product> getProductsAfter(int lastId, int pageSize) {
+        List<Product> page = new ArrayList<>(Math.min(pageSize, 1024));
+        catalogLock.readLock().lock();
+        try {
+            int[] ids = sortedIds(lastId, null);
+            for (int i = 0; i < ids.length && page.size() < pageSize; i++) {
+                page.add(products.toProduct(products.rowOf(ids[i])));
+            }
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+        return page;
+    }
+
+    @Override
+    public List<Product> getFlowers() {
+        return getProductsByType(ProductType.FLOWER);
+    }
+
+    @Override
+    public List<Product> getTrees() {
+        return getProductsByType(ProductType.TREE);
+    }
+
+    @Override
+    public List<Product> getDecorations() {
+        return getProductsByType(ProductType.DECORATION);
+    }
+
+    @Override
+    public List<Product> getProductsByType(ProductType type) {
+        List<Product> matching = new ArrayList<>();
+        catalogLock.readLock().lock();
+        try {
+            for (int id : sortedIds(0, type)) {
+                matching.add(products.toProduct(products.rowOf(id)));
+            }
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+        return matching;
+    }
+
+    // Ids above afterId, of the given type or of any type when it is null, in ascending order. Callers hold
+    // the read lock.
+    private int[] sortedIds(int afterId, ProductType type) {
+        int[] ids = new int[products.size()];
+        int count = 0;
+        for (int row = 0; row < products.size(); row++) {
+            int id = products.productId(row);
+            if (id > afterId && (type == null || products.type(row) == type)) {
+                ids[count++] = id;
+            }
+        }
+        Arrays.sort(ids, 0, count);
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    // A single pass over the quantity and price columns; prices are summed in cents.
+    @Override
+    public Map<ProductType, StockValuation> getStockValuationByType() {
+        ProductType[] types = ProductType.values();
+        long[] count = new long[types.length];
+        long[] units = new long[types.length];
+        long[] valueInCents = new long[types.length];
+        catalogLock.readLock().lock();
+        try {
+            products.valuation(count, units, valueInCents);
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+        Map<ProductType, StockValuation> valuation = new EnumMap<>(ProductType.class);
+        for (ProductType type : types) {
+            if (count[type.ordinal()] > 0) {
+                valuation.put(type, new StockValuation(type, units[type.ordinal()], Cents.toEuros(valueInCents[type.ordinal()])));
+            }
+        }
+        return valuation;
+    }
+
+    @Override
+    public void addPrimaryStock() {
+        addProducts(Arrays.asList(
+                new Tree<>("manzano", 50, 20.5, 1.5),
+                new Tree<>("olivo", 50, 11.99, 2.0),
+                new Tree<>("pino", 50, 8.50, 3.0),
+                new Tree<>("rosal", 50, 6.50, 0.5),
+                new Flower<>("rosa", 50, 4.0, "roja"),
+                new Flower<>("girasol", 50, 3.50, "blanca"),
+                new Flower<>("amapola", 50, 2.75, "roja"),
+                new Flower<>("lirio", 50, 1.5, "naranja"),
+                new Flower<>("clavel", 50, 9.50, "amarillo"),
+                new Decoration<>("jarron", 50, 20.50, "madera"),
+                new Decoration<>("tiesto", 50, 13.50, "plastico"),
+                new Decoration<>("jarron", 50, 9.99, "plastico"),
+                new Decoration<>("tiesto", 50, 10.0, "madera")));
+        System.out.println("Primary Stock was added successfully.");
+    }
+
+    @Override
+    public void updateProduct(Product product) {
+        updateProducts(Collections.singletonList(product));
+    }
+
+    @Override
+    public void updateProducts(Collection<Product> updated) {
+        catalogLock.writeLock().lock();
+        try {
+            for (Product product : updated) {
+                if (products.rowOf(product.getProductId()) >= 0) {
+                    products.put(product);
+                }
+            }
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteProduct(Product product) {
+        deleteProduct(product.getProductId());
+    }
+
+    public void deleteProduct(int productId) {
+        catalogLock.writeLock().lock();
+        try {
+            products.remove(productId);
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean reserveStock(int productId, int quantity) {
+        return reserveStock(Collections.singletonMap(productId, quantity));
+    }
+
+    // Stripes are locked in ascending order so two tickets sharing products can't deadlock.
+    @Override
+    public boolean reserveStock(Map<Integer, Integer> quantities) {
+        int[] stripes = stripesOf(quantities.keySet());
+        catalogLock.readLock().lock();
+        try {
+            for (int stripe : stripes) {
+                stockLocks[stripe].lock();
+            }
+            try {
+                for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+                    int row = products.rowOf(line.getKey());
+                    if (row < 0 || products.quantity(row) < line.getValue()) {
+                        return false;
+                    }
+                }
+                for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+                    products.addQuantity(products.rowOf(line.getKey()), -line.getValue());
+                }
+                return true;
+            } finally {
+                for (int i = stripes.length - 1; i >= 0; i--) {
+                    stockLocks[stripes[i]].unlock();
+                }
+            }
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void releaseStock(Map<Integer, Integer> quantities) {
+        adjustStock(quantities);
+    }
+
+    // Adds signed deltas without checking stock, for replaying changes that were already checked elsewhere.
+    public void adjustStock(Map<Integer, Integer> deltas) {
+        catalogLock.readLock().lock();
+        try {
+            for (Map.Entry<Integer, Integer> line : deltas.entrySet()) {
+                ReentrantLock lock = stockLocks[stripeOf(line.getKey())];
+                lock.lock();
+                try {
+                    int row = products.rowOf(line.getKey());
+                    if (row >= 0) {
+                        products.addQuantity(row, line.getValue());
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addProduct(Product product) {
+        addProducts(Collections.singletonList(product));
+    }
+
+    // Like the database backends, sets the generated id on the products passed in.
+    @Override
+    public void addProducts(Collection<Product> added) {
+        catalogLock.writeLock().lock();
+        try {
+            for (Product product : added) {
+                product.setProductId(lastId.incrementAndGet());
+                products.put(product);
+            }
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+
+    // Inserts or replaces products keeping the ids they already have, e.g. when loading a copy of another catalog.
+    public void putProducts(Collection<Product> loaded) {
+        catalogLock.writeLock().lock();
+        try {
+            for (Product product : loaded) {
+                products.put(product);
+                lastId.accumulateAndGet(product.getProductId(), Math::max);
+            }
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+
+    private static int[] stripesOf(Set<Integer> productIds) {
+        return productIds.stream().mapToInt(ProductRepositoryMemory::stripeOf).distinct().sorted().toArray();
+    }
+
+    private static int stripeOf(int productId) {
+        return (productId * 0x9E3779B9 >>> 16) & (STOCK_STRIPES - 1);
+    }
+}
@@ -3,39 +3,82 @@ package Contexts.Product.Infrastructure.MongoDB;
 import Contexts.Product.Domain.*;
 import Contexts.Product.Infrastructure.MongoDB.Stock.PrimaryStock;
 import Infrastructure.Connections.MongoDBConnection;
+import Infrastructure.Indexes.HotQuery;
+import Infrastructure.Indexes.IndexDefinition;
+import Infrastructure.Indexes.MongoIndexRegistry;
+import Infrastructure.Indexes.QueryPlan;
+import Infrastructure.Sequences.MongoSequence;
+import com.mongodb.MongoException;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class ProductRepositoryMongoDB<T> implements ProductsRepository {
 
+    private static final int STREAM_BATCH_SIZE = 1000;
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final String COLLECTION = "products";
+    private static final MongoIndexRegistry INDEXES = new MongoIndexRegistry()
+            .index(COLLECTION, IndexDefinition.uniqueAscending("productId_1", "productId"))
+            .index(COLLECTION, IndexDefinition.ascending("type_1_productId_1", "type", "productId"))
+            .hotQuery(COLLECTION, new HotQuery("getProduct", Filters.eq("productId", 1)))
+            .hotQuery(COLLECTION, new HotQuery("getLastProduct", new Document(), Sorts.descending("productId")))
+            .hotQuery(COLLECTION, new HotQuery("getProductsByType", Filters.eq("type", ProductType.FLOWER.toString()),
+                    Sorts.ascending("productId")));
+
     private MongoDBConnection mongoDBConnection;
     private MongoCollection<Document> collection;
+    private final MongoSequence productIds;
 
     public ProductRepositoryMongoDB(MongoDBConnection mongoDBConnection) {
         this.mongoDBConnection = mongoDBConnection;
-        this.collection = mongoDBConnection.mongoDatabase.getCollection("products");
-
+        this.collection = mongoDBConnection.mongoDatabase.getCollection(COLLECTION);
+        this.productIds = new MongoSequence(mongoDBConnection.mongoDatabase.getCollection("counters"),
+                "productId", ID_BLOCK_SIZE, this::maxProductId);
     }
 
     public void initialize() {
         if (collection != null) {
+            INDEXES.ensureIndexes(collection);
             addPrimaryStock();
+            explainHotQueries();
         }
     }
 
-    private int nextProductId() {
-        Product lastProduct = getLastProduct();
-        if (lastProduct == null) {
-            return 1;
-        } else {
-            return lastProduct.getProductId() + 1;
-        }
+    public List<QueryPlan> explainHotQueries() {
+        return INDEXES.explainHotQueries(collection);
+    }
+
+    private int maxProductId() {
+        Document document = collection.find()
+                .sort(Sorts.descending("productId"))
+                .projection(Projections.include("productId"))
+                .first();
+        return document == null ? 0 : document.getInteger("productId");
     }
 
     @Override
@@ -43,7 +86,7 @@ public class ProductRepositoryMongoDB<T> implements ProductsRepository {
 
         Document query = new Document("productId", productId);
         Document document = collection.find(query).first();
-        return documentToProduct(document);
+        return document == null ? null : documentToProduct(document);
     }
 
 
@@ -60,6 +103,32 @@ public class ProductRepositoryMongoDB<T> implements ProductsRepository {
         return products;
     }
 
+    @Override
+    public Stream<Product> streamAllProducts() {
+        MongoCursor<Document> cursor = collection.find()
+                .sort(Sorts.ascending("productId"))
+                .batchSize(STREAM_BATCH_SIZE)
+                .cursor();
+        Spliterator<Document> documents = Spliterators.spliteratorUnknownSize(cursor,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(documents, false)
+                .map(this::documentToProduct)
+                .onClose(cursor::close);
+    }
+
+    @Override
+    public List<Product> getProductsAfter(int lastId, int pageSize) {
+        List<Product> products = new ArrayList<>(pageSize);
+        FindIterable<Document> cursor = collection.find(Filters.gt("productId", lastId))
+                .sort(Sorts.ascending("productId"))
+                .limit(pageSize)
+                .batchSize(pageSize);
+        for (Document document : cursor) {
+            products.add(documentToProduct(document));
+        }
+        return products;
+    }
+
     @Override
     public Product getLastProduct() {
         Document document = collection.find().sort(new Document("productId", -1)).first();
@@ -72,26 +141,42 @@ public class ProductRepositoryMongoDB<T> implements ProductsRepository {
     }
 
     public List<Product> getFlowers() {
-        List<Product> allProducts = getAllProducts();
-        return allProducts.stream()
-                .filter(product -> product.getType() == ProductType.FLOWER)
-                .collect(Collectors.toList());
+        return getProductsByType(ProductType.FLOWER);
     }
 
     public List<Product> getTrees() {
-        List<Product> allProducts = getAllProducts();
-        return allProducts.stream()
-                .filter(product -> product.getType() == ProductType.TREE)
-                .collect(Collectors.toList());
+        return getProductsByType(ProductType.TREE);
     }
 
     public List<Product> getDecorations() {
-        List<Product> allProducts = getAllProducts();
-        return allProducts.stream()
-                .filter(product -> product.getType() == ProductType.DECORATION)
-                .collect(Collectors.toList());
+        return getProductsByType(ProductType.DECORATION);
     }
 
+    @Override
+    public List<Product> getProductsByType(ProductType type) {
+        List<Product> products = new ArrayList<>();
+        FindIterable<Document> cursor = collection.find(Filters.eq("type", type.toString()))
+                .sort(Sorts.ascending("productId"));
+        for (Document document : cursor) {
+            products.add(documentToProduct(document));
+        }
+        return products;
+    }
+
+
+    @Override
+    public Map<ProductType, StockValuation> getStockValuationByType() {
+        Map<ProductType, StockValuation> valuation = new EnumMap<>(ProductType.class);
+        List<Bson> pipeline = Arrays.asList(Aggregates.group("$type",
+                Accumulators.sum("units", "$quantity"),
+                Accumulators.sum("value", new Document("$multiply", Arrays.asList("$price", "$quantity")))));
+        for (Document document : collection.aggregate(pipeline)) {
+            ProductType type = ProductType.valueOf(document.getString("_id").toUpperCase());
+            valuation.put(type, new StockValuation(type, ((Number) document.get("units")).longValue(),
+                    ((Number) document.get("value")).doubleValue()));
+        }
+        return valuation;
+    }
 
     @Override
     public void addPrimaryStock() {
@@ -102,31 +187,108 @@ public class ProductRepositoryMongoDB<T> implements ProductsRepository {
 
     @Override
     public void addProduct(Product product) {
-        Document productDocument = new Document("name", product.getName())
-                .append("productId", nextProductId())
+        product.setProductId(productIds.next());
+        collection.insertOne(productToDocument(product));
+    }
+
+    @Override
+    public void addProducts(Collection<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        int firstId = productIds.allocate(products.size());
+        int productId = firstId;
+        List<Document> documents = new ArrayList<>(products.size());
+        for (Product product : products) {
+            product.setProductId(productId++);
+            documents.add(productToDocument(product));
+        }
+        try {
+            collection.insertMany(documents);
+        } catch (MongoException e) {
+            // An ordered insert keeps the documents before the failing one; remove them so the batch is all or
+            // nothing, as it is with SQL.
+            try {
+                collection.deleteMany(Filters.and(Filters.gte("productId", firstId), Filters.lt("productId", productId)));
+            } catch (MongoException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            for (Product product : products) {
+                product.setProductId(0);
+            }
+            throw new IllegalStateException("The products could not be added: " + e.getMessage(), e);
+        }
+    }
+
+    private Document productToDocument(Product product) {
+        return new Document("name", product.getName())
+                .append("productId", product.getProductId())
                 .append("quantity", product.getQuantity())
                 .append("price", product.getPrice())
                 .append("type", product.getType().toString())
                 .append("attribute", product.getAttributes());
-        collection.insertOne(productDocument);
     }
 
     @Override
     public void updateProduct(Product product) {
-        Document query = new Document("name", product.getName()).append("attribute", product.getAttributes());
-        Document update = new Document("$set", new Document("quantity", product.getQuantity())
-                .append("price", product.getPrice()));
+        collection.updateOne(Filters.eq("productId", product.getProductId()), stockUpdate(product));
+    }
+
+    // Lines are independent, so the unordered bulk lets the server apply them in any order in one round trip.
+    @Override
+    public void updateProducts(Collection<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        List<WriteModel<Document>> updates = new ArrayList<>(products.size());
+        for (Product product : products) {
+            updates.add(new UpdateOneModel<>(Filters.eq("productId", product.getProductId()), stockUpdate(product)));
+        }
+        collection.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+    }
 
-        collection.updateOne(query, update);
-        System.out.println("Stock updated from " + product.getName());
+    private Bson stockUpdate(Product product) {
+        return Updates.combine(Updates.set("quantity", product.getQuantity()), Updates.set("price", product.getPrice()));
+    }
+
+    // The filter only matches while enough stock is left, so the check and the $inc are one atomic update.
+    @Override
+    public boolean reserveStock(int productId, int quantity) {
+        return collection.updateOne(
+                Filters.and(Filters.eq("productId", productId), Filters.gte("quantity", quantity)),
+                Updates.inc("quantity", -quantity)).getModifiedCount() == 1;
+    }
+
+    // Lines are reserved one by one in ascending id order. If one fails, the lines already taken are given
+    // back, so the ticket takes either all its stock or none.
+    @Override
+    public boolean reserveStock(Map<Integer, Integer> quantities) {
+        Map<Integer, Integer> reserved = new TreeMap<>();
+        for (Map.Entry<Integer, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            if (!reserveStock(entry.getKey(), entry.getValue())) {
+                releaseStock(reserved);
+                return false;
+            }
+            reserved.put(entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+
+    @Override
+    public void releaseStock(Map<Integer, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        List<WriteModel<Document>> updates = new ArrayList<>(quantities.size());
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            updates.add(new UpdateOneModel<>(Filters.eq("productId", entry.getKey()), Updates.inc("quantity", entry.getValue())));
+        }
+        collection.bulkWrite(updates, new BulkWriteOptions().ordered(false));
     }
 
     @Override
     public void deleteProduct(Product product) {
-        Document query = new Document("name", product.getName())
-                .append("attribute", product.getAttributes());
-        collection.deleteOne(query);
-        System.out.println("Product: " + product.getName() + " deleted from DataBase");
+        collection.deleteOne(Filters.eq("productId", product.getProductId()));
     }
 
 
@@ -62,8 +62,52 @@ public class DBLoader {
                 createTreeTableStatement.executeUpdate();
             }
 
+            for (String createRollupTableQuery : new String[]{QueriesSQLDB.createSalesDailyTableQuery(),
+                    QueriesSQLDB.createSalesDailyProductTableQuery(), QueriesSQLDB.createSalesDailyTypeTableQuery()}) {
+                try (PreparedStatement createRollupTableStatement = connection.prepareStatement(createRollupTableQuery)) {
+                    createRollupTableStatement.executeUpdate();
+                }
+            }
+
         } catch (SQLException e) {
             e.printStackTrace(System.out);
         }
     }
+
+    // Tables created before the indexes existed don't get them from CREATE TABLE IF NOT EXISTS.
+    public static void createIndexes(Connection connection) {
+        executeIgnoring(connection, QueriesSQLDB.createProductTypeIndexQuery(), QueriesSQLDB.ER_DUP_KEYNAME);
+        executeIgnoring(connection, QueriesSQLDB.createTicketDateIndexQuery(), QueriesSQLDB.ER_DUP_KEYNAME);
+    }
+
+    // Brings tables created by earlier releases up to the current schema.
+    public static void upgradeTables(Connection connection) {
+        executeIgnoring(connection, QueriesSQLDB.addUnitPriceColumnQuery(), QueriesSQLDB.ER_DUP_FIELDNAME);
+        executeIgnoring(connection, QueriesSQLDB.addLineNameColumnQuery(), QueriesSQLDB.ER_DUP_FIELDNAME);
+        executeIgnoring(connection, QueriesSQLDB.addLineTypeColumnQuery(), QueriesSQLDB.ER_DUP_FIELDNAME);
+        // Without the backfill, deleting a product would leave its old lines with no name, type or price.
+        if (execute(connection, QueriesSQLDB.backfillLineSnapshotQuery())) {
+            executeIgnoring(connection, QueriesSQLDB.dropLineProductForeignKeyQuery(), QueriesSQLDB.ER_CANT_DROP_FIELD_OR_KEY);
+        }
+    }
+
+    private static boolean execute(Connection connection, String query) {
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
+            return false;
+        }
+    }
+
+    private static void executeIgnoring(Connection connection, String query, int ignoredErrorCode) {
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            if (e.getErrorCode() != ignoredErrorCode) {
+                e.printStackTrace(System.out);
+            }
+        }
+    }
 }
@@ -5,8 +5,19 @@ import Infrastructure.Connections.MySQLConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static Contexts.Product.Infrastructure.SQL.DBLoader.createTables;
 import static Infrastructure.Connections.MySQLConnection.getMySQLDatabase;
@@ -23,25 +34,29 @@ public class ProductRepositorySQL implements ProductsRepository {
 
     @Override
     public void initialize() {
-        try {
-            Connection connection = getMySQLDatabase();
+        boolean productsExist = true;
+        try (Connection connection = getMySQLDatabase()) {
 
             DBLoader.createAndUseDB(dataBaseName, connection);
+            mySQLConnection.useDatabase(dataBaseName);
             DBLoader.createTables(connection);
+            DBLoader.upgradeTables(connection);
+            DBLoader.createIndexes(connection);
 
-            if (!productsExist(connection)) {
-                addPrimaryStock();
-            }
+            productsExist = productsExist(connection);
 
         } catch (SQLException e) {
             e.printStackTrace(System.out);
         }
+        if (!productsExist) {
+            addPrimaryStock();
+        }
     }
 
     private boolean productsExist(Connection connection) throws SQLException {
         String selectQuery = QueriesSQLDB.COUNT_PRODUCTS;
-        try (PreparedStatement statement = connection.prepareStatement(selectQuery)) {
-            ResultSet resultSet = statement.executeQuery();
+        try (PreparedStatement statement = connection.prepareStatement(selectQuery);
+             ResultSet resultSet = statement.executeQuery()) {
             if (resultSet.next()) {
                 int productCount = resultSet.getInt(1);
                 return productCount > 0;
@@ -53,13 +68,13 @@ public class ProductRepositorySQL implements ProductsRepository {
     @Override
     public Product getProduct(int id) {
         Product product = null;
-        try {
-            Connection connection = getMySQLDatabase();
-            PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_SELECT_PRODUCT);
+        try (Connection connection = getMySQLDatabase();
+             PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_SELECT_PRODUCT)) {
             statement.setInt(1, id);
-            ResultSet rs = statement.executeQuery();
-            if (rs.next()) {
-                product = resultSetToProduct(rs);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (rs.next()) {
+                    product = resultSetToProduct(rs);
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace(System.out);
@@ -70,10 +85,9 @@ public class ProductRepositorySQL implements ProductsRepository {
     @Override
     public Product getLastProduct() {
         Product lastProduct = null;
-        try {
-            Connection connection = getMySQLDatabase();
-            PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_SELECT_LAST_PRODUCT);
-            ResultSet rs = statement.executeQuery();
+        try (Connection connection = getMySQLDatabase();
+             PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_SELECT_LAST_PRODUCT);
+             ResultSet rs = statement.executeQuery()) {
             if (rs.next()) {
                 lastProduct = resultSetToProduct(rs);
             }
@@ -111,10 +125,9 @@ public class ProductRepositorySQL implements ProductsRepository {
     public List<Product> getAllProducts() {
         List<Product> products = new ArrayList<>();
 
-        try {
-            Connection connection = getMySQLDatabase();
-            PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_SELECT);
-            ResultSet rs = statement.executeQuery();
+        try (Connection connection = getMySQLDatabase();
+             PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_SELECT);
+             ResultSet rs = statement.executeQuery()) {
             while (rs.next()) {
                 Product product = resultSetToProduct(rs);
                 products.add(product);
@@ -125,94 +138,164 @@ public class ProductRepositorySQL implements ProductsRepository {
         return products;
     }
 
+    // Rows are streamed from the server one by one (Connector/J streaming mode). The stream holds its
+    // pooled connection until it is closed.
+    @Override
+    public Stream<Product> streamAllProducts() {
+        Connection connection = null;
+        try {
+            connection = getMySQLDatabase();
+            PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_SELECT_ALL_BY_ID,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            ResultSet rs = statement.executeQuery();
+            Connection streamConnection = connection;
+            return StreamSupport.stream(new ResultSetSpliterator(rs), false)
+                    .onClose(() -> closeQuietly(rs, statement, streamConnection));
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
+            closeQuietly(connection);
+            return Stream.empty();
+        }
+    }
+
+    @Override
+    public List<Product> getProductsAfter(int lastId, int pageSize) {
+        List<Product> products = new ArrayList<>(pageSize);
+        try (Connection connection = getMySQLDatabase();
+             PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_SELECT_PAGE)) {
+            statement.setInt(1, lastId);
+            statement.setInt(2, pageSize);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    products.add(resultSetToProduct(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
+        }
+        return products;
+    }
+
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            try {
+                if (resource != null) {
+                    resource.close();
+                }
+            } catch (Exception e) {
+                e.printStackTrace(System.out);
+            }
+        }
+    }
+
+    private class ResultSetSpliterator extends Spliterators.AbstractSpliterator<Product> {
+        private final ResultSet rs;
+
+        private ResultSetSpliterator(ResultSet rs) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.rs = rs;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Product> action) {
+            try {
+                if (!rs.next()) {
+                    return false;
+                }
+                action.accept(resultSetToProduct(rs));
+                return true;
+            } catch (SQLException e) {
+                e.printStackTrace(System.out);
+                return false;
+            }
+        }
+    }
 
     @Override
     public List<Product> getFlowers() {
-        List<Product> allProducts = getAllProducts();
-        return allProducts.stream()
-                .filter(product -> product.getType() == ProductType.FLOWER)
-                .collect(Collectors.toList());
+        return getProductsByType(ProductType.FLOWER);
     }
 
     @Override
     public List<Product> getTrees() {
-        List<Product> allProducts = getAllProducts();
-        return allProducts.stream()
-                .filter(product -> product.getType() == ProductType.TREE)
-                .collect(Collectors.toList());
+        return getProductsByType(ProductType.TREE);
     }
 
     @Override
     public List<Product> getDecorations() {
-        List<Product> allProducts = getAllProducts();
-        return allProducts.stream()
-                .filter(product -> product.getType() == ProductType.DECORATION)
-                .collect(Collectors.toList());
+        return getProductsByType(ProductType.DECORATION);
     }
 
     @Override
-    public void addPrimaryStock() {
-        Object[][] allData = {
-                {"manzano", 1.5, 50, 20.5, ProductType.TREE},
-                {"olivo", 2.0, 50, 11.99, ProductType.TREE},
-                {"pino", 3.0, 50, 8.50, ProductType.TREE},
-                {"rosal", 0.5, 50, 6.50, ProductType.TREE},
-                {"rosa", "roja", 50, 4.0, ProductType.FLOWER},
-                {"girasol", "blanca", 50, 3.50, ProductType.FLOWER},
-                {"amapola", "roja", 50, 2.75, ProductType.FLOWER},
-                {"lirio", "aaranja", 50, 1.5, ProductType.FLOWER},
-                {"clavel", "amarillo", 50, 9.50, ProductType.FLOWER},
-                {"jarron", "madera", 50, 20.50, ProductType.DECORATION},
-                {"tiesto", "plastico", 50, 13.50, ProductType.DECORATION},
-                {"jarron", "plastico", 50, 9.99, ProductType.DECORATION},
-                {"tiesto", "madera", 50, 10.0, ProductType.DECORATION}
-        };
+    public List<Product> getProductsByType(ProductType type) {
+        List<Product> products = new ArrayList<>();
+        String attributeTable = type.name().toLowerCase();
+        String formattedQuery = String.format(QueriesSQLCRUD.SQL_SELECT_BY_TYPE, attributeColumn(type), attributeTable);
+
+        try (Connection connection = getMySQLDatabase();
+             PreparedStatement statement = connection.prepareStatement(formattedQuery)) {
+            statement.setString(1, type.name());
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    products.add(resultSetToProduct(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
+        }
+        return products;
+    }
 
-        try {
-            Connection connection = getMySQLDatabase();
-            PreparedStatement productStatement = connection.prepareStatement(QueriesSQLCRUD.SQL_INSERT, Statement.RETURN_GENERATED_KEYS);
-
-            for (Object[] rowData : allData) {
-                String name = (String) rowData[0];
-                int quantity = (int) rowData[2];
-                double price = (double) rowData[3];
-                ProductType productType = (ProductType) rowData[4];
-
-                productStatement.setString(1, name);
-                productStatement.setInt(2, quantity);
-                productStatement.setDouble(3, price);
-                productStatement.setString(4, productType.name());
-                productStatement.executeUpdate();
-
-                ResultSet generatedKeys = productStatement.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    int productId = generatedKeys.getInt(1);
-                    String specificAttribute = (productType == ProductType.TREE) ? "height" :
-                            ((productType == ProductType.FLOWER) ? "color" : "material");
-
-                    String formattedQuery = String.format(QueriesSQLCRUD.SQL_INSERT_ATTRIBUTE, productType.name().toLowerCase(), specificAttribute);
-                    try (PreparedStatement specificDataStatement = connection.prepareStatement(formattedQuery)) {
-                        specificDataStatement.setInt(1, productId);
-                        if (rowData[1] instanceof Double) {
-                            specificDataStatement.setDouble(2, (Double) rowData[1]);
-                        } else {
-                            specificDataStatement.setString(2, (String) rowData[1]);
-                        }
-                        specificDataStatement.executeUpdate();
-                    }
+    private static String attributeColumn(ProductType type) {
+        return (type == ProductType.TREE) ? "height" :
+                ((type == ProductType.FLOWER) ? "color" : "material");
+    }
+
+    @Override
+    public Map<ProductType, StockValuation> getStockValuationByType() {
+        Map<ProductType, StockValuation> valuation = new EnumMap<>(ProductType.class);
+        try (Connection connection = getMySQLDatabase();
+             PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_STOCK_VALUATION_BY_TYPE);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                String type = rs.getString("type");
+                if (type != null) {
+                    ProductType productType = ProductType.valueOf(type);
+                    valuation.put(productType, new StockValuation(productType, rs.getLong("units"), rs.getDouble("value")));
                 }
             }
-            System.out.println("Primary Stock was added successfully.");
         } catch (SQLException e) {
-            e.printStackTrace();
+            e.printStackTrace(System.out);
         }
+        return valuation;
+    }
+
+    @Override
+    public void addPrimaryStock() {
+        List<Product> primaryStock = Arrays.asList(
+                new Tree<>("manzano", 50, 20.5, 1.5),
+                new Tree<>("olivo", 50, 11.99, 2.0),
+                new Tree<>("pino", 50, 8.50, 3.0),
+                new Tree<>("rosal", 50, 6.50, 0.5),
+                new Flower<>("rosa", 50, 4.0, "roja"),
+                new Flower<>("girasol", 50, 3.50, "blanca"),
+                new Flower<>("amapola", 50, 2.75, "roja"),
+                new Flower<>("lirio", 50, 1.5, "aaranja"),
+                new Flower<>("clavel", 50, 9.50, "amarillo"),
+                new Decoration<>("jarron", 50, 20.50, "madera"),
+                new Decoration<>("tiesto", 50, 13.50, "plastico"),
+                new Decoration<>("jarron", 50, 9.99, "plastico"),
+                new Decoration<>("tiesto", 50, 10.0, "madera"));
+
+        addProducts(primaryStock);
+        System.out.println("Primary Stock was added successfully.");
     }
 
     @Override
     public void updateProduct(Product product) {
-        try {
-            Connection connection = getMySQLDatabase();
-            PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_UPDATE);
+        try (Connection connection = getMySQLDatabase();
+             PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_UPDATE)) {
             statement.setString(1, product.getName());
             statement.setInt(2, product.getQuantity());
             statement.setDouble(3, product.getPrice());
@@ -224,11 +307,103 @@ public class ProductRepositorySQL implements ProductsRepository {
         }
     }
 
+    @Override
+    public void updateProducts(Collection<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        try (Connection connection = getMySQLDatabase()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_UPDATE)) {
+                for (Product product : products) {
+                    statement.setString(1, product.getName());
+                    statement.setInt(2, product.getQuantity());
+                    statement.setDouble(3, product.getPrice());
+                    statement.setString(4, product.getType().toString());
+                    statement.setInt(5, product.getProductId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
+        }
+    }
+
+    @Override
+    public boolean reserveStock(int productId, int quantity) {
+        return reserveStock(Collections.singletonMap(productId, quantity));
+    }
+
+    // The check and the decrement are one statement, so concurrent checkouts can't oversell. Rows are locked
+    // in ascending id order, which keeps two multi-line tickets from deadlocking on each other.
+    @Override
+    public boolean reserveStock(Map<Integer, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return true;
+        }
+        try (Connection connection = getMySQLDatabase()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_RESERVE_STOCK)) {
+                for (Map.Entry<Integer, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+                    statement.setInt(1, entry.getValue());
+                    statement.setInt(2, entry.getKey());
+                    statement.setInt(3, entry.getValue());
+                    if (statement.executeUpdate() == 0) {
+                        connection.rollback();
+                        return false;
+                    }
+                }
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
+        }
+        return false;
+    }
+
+    @Override
+    public void releaseStock(Map<Integer, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        try (Connection connection = getMySQLDatabase()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_RELEASE_STOCK)) {
+                for (Map.Entry<Integer, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+                    statement.setInt(1, entry.getValue());
+                    statement.setInt(2, entry.getKey());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
+        }
+    }
+
     @Override
     public void deleteProduct(Product product) {
-        try {
-            Connection connection = getMySQLDatabase();
-            PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_DELETE);
+        try (Connection connection = getMySQLDatabase();
+             PreparedStatement statement = connection.prepareStatement(QueriesSQLCRUD.SQL_DELETE)) {
             statement.setInt(1, product.getProductId());
             statement.executeUpdate();
         } catch (SQLException e) {
@@ -238,35 +413,78 @@ public class ProductRepositorySQL implements ProductsRepository {
 
     @Override
     public void addProduct(Product product) {
-        try {
-            Connection connection = getMySQLDatabase();
-            PreparedStatement productStatement = connection.prepareStatement(QueriesSQLCRUD.SQL_INSERT, Statement.RETURN_GENERATED_KEYS);
-
-            productStatement.setString(1, product.getName());
-            productStatement.setInt(2, product.getQuantity());
-            productStatement.setDouble(3, product.getPrice());
-            productStatement.setString(4, product.getType().name());
-            productStatement.executeUpdate();
-
-            ResultSet generatedKeys = productStatement.getGeneratedKeys();
-            int productId = -1;
-            if (generatedKeys.next()) {
-                productId = generatedKeys.getInt(1);
+        addProducts(Collections.singletonList(product));
+        System.out.println("Product was added successfully.");
+    }
+
+    // One transaction: a batched insert into product, whose generated keys come back in insertion order,
+    // then one batch per attribute table. With rewriteBatchedStatements each batch is a multi-row INSERT.
+    // On failure the ids set by the rolled back insert are cleared and IllegalStateException is thrown.
+    @Override
+    public void addProducts(Collection<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        try (Connection connection = getMySQLDatabase()) {
+            connection.setAutoCommit(false);
+            try {
+                insertProducts(connection, products);
+                insertAttributes(connection, products);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                for (Product product : products) {
+                    product.setProductId(0);
+                }
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("The products could not be added: " + e.getMessage(), e);
+        }
+    }
+
+    private void insertProducts(Connection connection, Collection<Product> products) throws SQLException {
+        try (PreparedStatement productStatement = connection.prepareStatement(QueriesSQLCRUD.SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            for (Product product : products) {
+                productStatement.setString(1, product.getName());
+                productStatement.setInt(2, product.getQuantity());
+                productStatement.setDouble(3, product.getPrice());
+                productStatement.setString(4, product.getType().name());
+                productStatement.addBatch();
+            }
+            productStatement.executeBatch();
+
+            Iterator<Product> iterator = products.iterator();
+            try (ResultSet generatedKeys = productStatement.getGeneratedKeys()) {
+                while (generatedKeys.next() && iterator.hasNext()) {
+                    iterator.next().setProductId(generatedKeys.getInt(1));
+                }
             }
+            if (iterator.hasNext()) {
+                throw new SQLException("The creation of the products failed, failed to obtain the generated IDs.");
+            }
+        }
+    }
 
-            String specificAttribute = (product.getType() == ProductType.TREE) ? "height" :
-                    ((product.getType() == ProductType.FLOWER) ? "color" : "material");
+    private void insertAttributes(Connection connection, Collection<Product> products) throws SQLException {
+        Map<ProductType, List<Product>> productsByType = new EnumMap<>(ProductType.class);
+        for (Product product : products) {
+            productsByType.computeIfAbsent(product.getType(), type -> new ArrayList<>()).add(product);
+        }
 
-            String formattedQuery = String.format(QueriesSQLCRUD.SQL_INSERT_ATTRIBUTE, product.getType().name().toLowerCase(), specificAttribute);
+        for (Map.Entry<ProductType, List<Product>> entry : productsByType.entrySet()) {
+            ProductType type = entry.getKey();
+            String formattedQuery = String.format(QueriesSQLCRUD.SQL_INSERT_ATTRIBUTE, type.name().toLowerCase(), attributeColumn(type));
             try (PreparedStatement specificDataStatement = connection.prepareStatement(formattedQuery)) {
-                specificDataStatement.setInt(1, productId);
-                specificDataStatement.setString(2, product.getAttributes().toString());
-                specificDataStatement.executeUpdate();
+                for (Product product : entry.getValue()) {
+                    specificDataStatement.setInt(1, product.getProductId());
+                    specificDataStatement.setObject(2, product.getAttributes());
+                    specificDataStatement.addBatch();
+                }
+                specificDataStatement.executeBatch();
             }
-
-            System.out.println("Product was added successfully.");
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
     }
 }
@@ -26,9 +26,38 @@ public class QueriesSQLCRUD {
             "LEFT JOIN decoration d ON p.idproduct = d.product_idproduct " +
             "LEFT JOIN tree t ON p.idproduct = t.product_idproduct " +
             "WHERE idproduct = ?";
+    public static final String SQL_SELECT_ALL_BY_ID = "SELECT p.idproduct, p.name, p.quantity, p.price, p.type, " +
+            "COALESCE(f.color, t.height, d.material) AS attribute " +
+            "FROM product p " +
+            "LEFT JOIN flower f ON p.idproduct = f.product_idproduct " +
+            "LEFT JOIN decoration d ON p.idproduct = d.product_idproduct " +
+            "LEFT JOIN tree t ON p.idproduct = t.product_idproduct " +
+            "ORDER BY p.idproduct ASC";
+    public static final String SQL_SELECT_PAGE = "SELECT p.idproduct, p.name, p.quantity, p.price, p.type, " +
+            "COALESCE(f.color, t.height, d.material) AS attribute " +
+            "FROM product p " +
+            "LEFT JOIN flower f ON p.idproduct = f.product_idproduct " +
+            "LEFT JOIN decoration d ON p.idproduct = d.product_idproduct " +
+            "LEFT JOIN tree t ON p.idproduct = t.product_idproduct " +
+            "WHERE p.idproduct > ? " +
+            "ORDER BY p.idproduct ASC " +
+            "LIMIT ?";
+    public static final String SQL_SELECT_BY_TYPE = "SELECT p.idproduct, p.name, p.quantity, p.price, p.type, " +
+            "a.%s AS attribute " +
+            "FROM product p " +
+            "INNER JOIN %s a ON p.idproduct = a.product_idproduct " +
+            "WHERE p.type = ? " +
+            "ORDER BY p.idproduct ASC";
     public static final String SQL_INSERT = "INSERT INTO product(name, quantity, price, type) VALUES(?, ?, ?, ?)";
     public static final String SQL_INSERT_ATTRIBUTE = "INSERT INTO %s (product_idproduct, %s) VALUES (?, ?)";
 
+    public static final String SQL_STOCK_VALUATION_BY_TYPE = "SELECT type, SUM(quantity) AS units, " +
+            "SUM(price * quantity) AS value FROM product GROUP BY type";
+
+    public static final String SQL_RESERVE_STOCK = "UPDATE product SET quantity = quantity - ? WHERE idproduct = ? AND quantity >= ?";
+
+    public static final String SQL_RELEASE_STOCK = "UPDATE product SET quantity = quantity + ? WHERE idproduct = ?";
+
     public static final String SQL_UPDATE = "UPDATE product SET name = ?, quantity = ?, price = ?, type = ? WHERE idproduct = ?";
 
     public static final String SQL_DELETE = "DELETE product, flower, decoration, tree " +
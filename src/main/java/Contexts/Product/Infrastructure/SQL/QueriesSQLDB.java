@@ -23,10 +23,15 @@ public class QueriesSQLDB {
                 + "`quantity` INT NOT NULL, "
                 + "`price` DOUBLE NOT NULL, "
                 + "`type` ENUM('FLOWER', 'TREE', 'DECORATION') NULL DEFAULT NULL, "
-                + "PRIMARY KEY (`idproduct`)) ENGINE = InnoDB "
+                + "PRIMARY KEY (`idproduct`), "
+                + "INDEX `idx_product_type` (`type` ASC, `idproduct` ASC) VISIBLE) ENGINE = InnoDB "
                 + "AUTO_INCREMENT = 1 DEFAULT CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci";
     }
 
+    public static String createProductTypeIndexQuery() {
+        return "CREATE INDEX `idx_product_type` ON `" + DATABASE_NAME + "`.`product` (`type` ASC, `idproduct` ASC)";
+    }
+
     public static String createDecorationTableQuery() {
         return "CREATE TABLE IF NOT EXISTS `" + DATABASE_NAME + "`.`decoration` ("
                 + "`material` VARCHAR(45) NOT NULL, "
@@ -52,21 +57,25 @@ public class QueriesSQLDB {
                 + "`idticket` INT NOT NULL AUTO_INCREMENT, "
                 + "`date` DATETIME NULL, "
                 + "`totalPrice` FLOAT NULL, "
-                + "PRIMARY KEY (`idticket`)) ENGINE = InnoDB "
+                + "PRIMARY KEY (`idticket`), "
+                + "INDEX `idx_ticket_date` (`date` ASC)) ENGINE = InnoDB "
                 + "DEFAULT CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci";
     }
 
+    // Lines keep the product's name, type and price at the time of sale and, like the rollups, have no foreign
+    // key to product, so renaming or deleting a product doesn't change its ticket history.
     public static String createProductTicketTableQuery() {
         return "CREATE TABLE IF NOT EXISTS `" + DATABASE_NAME + "`.`product_ticket` ("
                 + "`idproduct_ticket` INT NOT NULL AUTO_INCREMENT, "
                 + "`amount` SMALLINT(10) NULL, "
+                + "`unit_price` DOUBLE NULL, "
+                + "`name` VARCHAR(45) NULL, "
+                + "`type` ENUM('FLOWER', 'TREE', 'DECORATION') NULL, "
                 + "`product_idproduct` INT NOT NULL, "
                 + "`ticket_idticket` INT NOT NULL, "
                 + "PRIMARY KEY (`idproduct_ticket`), "
                 + "INDEX `fk_product_ticket_product1_idx` (`product_idproduct` ASC) VISIBLE, "
                 + "INDEX `fk_product_ticket_ticket1_idx` (`ticket_idticket` ASC) VISIBLE, "
-                + "FOREIGN KEY (`product_idproduct`) "
-                + "REFERENCES `" + DATABASE_NAME + "`.`product` (`idproduct`) ON DELETE CASCADE, "
                 + "FOREIGN KEY (`ticket_idticket`) "
                 + "REFERENCES `" + DATABASE_NAME + "`.`ticket` (`idticket`) ON DELETE CASCADE) "
                 + "ENGINE = InnoDB DEFAULT CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci";
@@ -82,5 +91,72 @@ public class QueriesSQLDB {
                 + "ENGINE = InnoDB DEFAULT CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci";
     }
 
+    // Sales rollups, maintained by newTicket. They have no foreign keys so deleting a product keeps its history.
+    public static String createSalesDailyTableQuery() {
+        return "CREATE TABLE IF NOT EXISTS `" + DATABASE_NAME + "`.`sales_daily` ("
+                + "`day` DATE NOT NULL, "
+                + "`tickets` INT NOT NULL, "
+                + "`revenue` DOUBLE NOT NULL, "
+                + "PRIMARY KEY (`day`)) "
+                + "ENGINE = InnoDB DEFAULT CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci";
+    }
+
+    public static String createSalesDailyProductTableQuery() {
+        return "CREATE TABLE IF NOT EXISTS `" + DATABASE_NAME + "`.`sales_daily_product` ("
+                + "`day` DATE NOT NULL, "
+                + "`product_idproduct` INT NOT NULL, "
+                + "`units` INT NOT NULL, "
+                + "`revenue` DOUBLE NOT NULL, "
+                + "PRIMARY KEY (`day`, `product_idproduct`)) "
+                + "ENGINE = InnoDB DEFAULT CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci";
+    }
+
+    public static String createSalesDailyTypeTableQuery() {
+        return "CREATE TABLE IF NOT EXISTS `" + DATABASE_NAME + "`.`sales_daily_type` ("
+                + "`day` DATE NOT NULL, "
+                + "`type` ENUM('FLOWER', 'TREE', 'DECORATION') NOT NULL, "
+                + "`units` INT NOT NULL, "
+                + "`revenue` DOUBLE NOT NULL, "
+                + "PRIMARY KEY (`day`, `type`)) "
+                + "ENGINE = InnoDB DEFAULT CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci";
+    }
+
+    public static String createTicketDateIndexQuery() {
+        return "CREATE INDEX `idx_ticket_date` ON `" + DATABASE_NAME + "`.`ticket` (`date` ASC)";
+    }
+
+    // Price of each ticket line at the time of sale, so revenue doesn't change when a product is repriced.
+    public static String addUnitPriceColumnQuery() {
+        return "ALTER TABLE `" + DATABASE_NAME + "`.`product_ticket` ADD COLUMN `unit_price` DOUBLE NULL AFTER `amount`";
+    }
+
+    public static String addLineNameColumnQuery() {
+        return "ALTER TABLE `" + DATABASE_NAME + "`.`product_ticket` ADD COLUMN `name` VARCHAR(45) NULL AFTER `unit_price`";
+    }
+
+    public static String addLineTypeColumnQuery() {
+        return "ALTER TABLE `" + DATABASE_NAME + "`.`product_ticket` "
+                + "ADD COLUMN `type` ENUM('FLOWER', 'TREE', 'DECORATION') NULL AFTER `name`";
+    }
+
+    // Copies name, type and price from the product into lines written before the lines kept their own, while
+    // the foreign key still guarantees every line has its product.
+    public static String backfillLineSnapshotQuery() {
+        return "UPDATE `" + DATABASE_NAME + "`.`product_ticket` pt "
+                + "JOIN `" + DATABASE_NAME + "`.`product` p ON pt.product_idproduct = p.idproduct "
+                + "SET pt.name = p.name, pt.type = p.type, pt.unit_price = COALESCE(pt.unit_price, p.price) "
+                + "WHERE pt.type IS NULL";
+    }
+
+    // The product foreign key of tables created before the lines kept their own name and type. MySQL named
+    // it after the table, and it was the first one declared.
+    public static String dropLineProductForeignKeyQuery() {
+        return "ALTER TABLE `" + DATABASE_NAME + "`.`product_ticket` DROP FOREIGN KEY `product_ticket_ibfk_1`";
+    }
+
+    public static final int ER_DUP_FIELDNAME = 1060;
+    public static final int ER_CANT_DROP_FIELD_OR_KEY = 1091;
+    public static final int ER_DUP_KEYNAME = 1061;
+
     public static final String COUNT_PRODUCTS = "SELECT COUNT(*) FROM product";
 }
@@ -0,0 +1,115 @@
+package Contexts.Product.Infrastructure.Snapshot;
+
+import Contexts.Product.Domain.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// The whole catalog in one file: magic int, version int, WAL generation long, product count int, the products
+// (see ProductCodec) and a trailing CRC32 of everything before it. The WAL generation is the first WAL file
+// whose records are not already in the snapshot.
+// A snapshot is written to a temporary file, forced and renamed over the previous one, so a crash leaves
+// either the old snapshot or the new one.
+public class CatalogSnapshot {
+
+    static final String FILE_NAME = "catalog.snapshot";
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshot.class);
+    private static final int MAGIC = 0x46534E50;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+    private final long walGeneration;
+    private final List<Product> products;
+
+    private CatalogSnapshot(long walGeneration, List<Product> products) {
+        this.walGeneration = walGeneration;
+        this.products = products;
+    }
+
+    public long getWalGeneration() {
+        return walGeneration;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    // Returns null when there is no snapshot yet or it can't be trusted; the WAL and the database cover both cases.
+    public static CatalogSnapshot read(Path directory) throws IOException {
+        Path path = directory.resolve(FILE_NAME);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + 8 || size > Integer.MAX_VALUE) {
+                logger.warn("Ignoring catalog snapshot {} with invalid size {}", path, size);
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().limit((int) size - 8));
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getLong((int) size - 8) != crc.getValue()) {
+                logger.warn("Ignoring corrupt catalog snapshot {}", path);
+                return null;
+            }
+            buffer.position(8);
+            long walGeneration = buffer.getLong();
+            int count = buffer.getInt();
+            List<Product> products = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                products.add(ProductCodec.decode(buffer));
+            }
+            return new CatalogSnapshot(walGeneration, products);
+        }
+    }
+
+    public static void write(Path directory, long walGeneration, Collection<Product> products) throws IOException {
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(walGeneration).putInt(products.size());
+            for (Product product : products) {
+                int size = ProductCodec.size(product);
+                if (buffer.remaining() < size) {
+                    flush(channel, buffer, crc);
+                }
+                if (buffer.capacity() < size) {
+                    buffer = ByteBuffer.allocateDirect(size);
+                }
+                ProductCodec.encode(product, buffer);
+            }
+            flush(channel, buffer, crc);
+            buffer.putLong(crc.getValue()).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
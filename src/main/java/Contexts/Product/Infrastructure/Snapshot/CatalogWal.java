@@ -0,0 +1,209 @@
+package Contexts.Product.Infrastructure.Snapshot;
+
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Infrastructure.Memory.ProductRepositoryMemory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Catalog mutations since the last snapshot, one file per generation (catalog-NNNNNNNNNN.wal). Each record is
+// [length int][crc32 int][payload]; the payload starts with the operation:
+// PUT count int + products, DELETE productId int, STOCK count int + (productId int, delta int) pairs.
+// Appends reach the page cache but are only forced on close and before a snapshot: the database stays the
+// source of truth, and whatever an OS crash loses is put back by the next reconciliation.
+public class CatalogWal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogWal.class);
+    private static final String PREFIX = "catalog-";
+    private static final String SUFFIX = ".wal";
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte STOCK = 3;
+    private static final int RECORD_HEADER = 8;
+
+    private final FileChannel channel;
+    private final long generation;
+    private long records;
+
+    private CatalogWal(FileChannel channel, long generation) {
+        this.channel = channel;
+        this.generation = generation;
+    }
+
+    public static CatalogWal open(Path directory, long generation) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(fileName(generation)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new CatalogWal(channel, generation);
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    public void appendPut(Collection<Product> products) throws IOException {
+        int size = 1 + 4;
+        for (Product product : products) {
+            size += ProductCodec.size(product);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(size);
+        payload.put(PUT).putInt(products.size());
+        for (Product product : products) {
+            ProductCodec.encode(product, payload);
+        }
+        append(payload);
+    }
+
+    public void appendDelete(int productId) throws IOException {
+        append(ByteBuffer.allocate(1 + 4).put(DELETE).putInt(productId));
+    }
+
+    // Quantities are written as signed deltas: sign -1 for a reservation, +1 for a release.
+    public void appendStock(Map<Integer, Integer> quantities, int sign) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(1 + 4 + quantities.size() * 8);
+        payload.put(STOCK).putInt(quantities.size());
+        for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+            payload.putInt(line.getKey()).putInt(sign * line.getValue());
+        }
+        append(payload);
+    }
+
+    private synchronized void append(ByteBuffer payload) throws IOException {
+        payload.flip();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER).putInt(payload.remaining()).putInt((int) crc.getValue());
+        header.flip();
+        ByteBuffer[] record = {header, payload};
+        while (payload.hasRemaining()) {
+            channel.write(record);
+        }
+        records++;
+    }
+
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    // Applies every WAL file from the given generation on, oldest first. A torn or corrupt record ends its file
+    // (nothing after it can have been acknowledged) and is cut off; later files are still replayed.
+    public static long replay(Path directory, long fromGeneration, ProductRepositoryMemory catalog) throws IOException {
+        long replayed = 0;
+        for (long generation : generations(directory)) {
+            if (generation >= fromGeneration) {
+                replayed += replayFile(directory.resolve(fileName(generation)), catalog);
+            }
+        }
+        return replayed;
+    }
+
+    private static long replayFile(Path path, ProductRepositoryMemory catalog) throws IOException {
+        long replayed = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Catalog WAL " + path + " is too large to replay");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            buffer.flip();
+            int position = 0;
+            while (position + RECORD_HEADER <= size) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + RECORD_HEADER + (long) length > size) {
+                    break;
+                }
+                ByteBuffer payload = buffer.duplicate().position(position + RECORD_HEADER).limit(position + RECORD_HEADER + length);
+                CRC32 crc = new CRC32();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    break;
+                }
+                apply(payload, catalog);
+                replayed++;
+                position += RECORD_HEADER + length;
+            }
+            if (position < size) {
+                logger.warn("Discarding {} bytes of torn catalog WAL at the end of {}", size - position, path);
+                channel.truncate(position);
+            }
+        }
+        return replayed;
+    }
+
+    private static void apply(ByteBuffer payload, ProductRepositoryMemory catalog) {
+        byte operation = payload.get();
+        switch (operation) {
+            case PUT:
+                int count = payload.getInt();
+                List<Product> products = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    products.add(ProductCodec.decode(payload));
+                }
+                catalog.putProducts(products);
+                break;
+            case DELETE:
+                catalog.deleteProduct(payload.getInt());
+                break;
+            case STOCK:
+                int lines = payload.getInt();
+                Map<Integer, Integer> deltas = new HashMap<>();
+                for (int i = 0; i < lines; i++) {
+                    deltas.merge(payload.getInt(), payload.getInt(), Integer::sum);
+                }
+                catalog.adjustStock(deltas);
+                break;
+            default:
+                throw new IllegalStateException("Unknown catalog WAL operation " + operation);
+        }
+    }
+
+    public static long lastGeneration(Path directory) throws IOException {
+        List<Long> generations = generations(directory);
+        return generations.isEmpty() ? 0 : generations.get(generations.size() - 1);
+    }
+
+    // Called once a snapshot covering everything before the given generation is on disk.
+    public static void deleteBefore(Path directory, long generation) throws IOException {
+        for (long older : generations(directory)) {
+            if (older < generation) {
+                Files.deleteIfExists(directory.resolve(fileName(older)));
+            }
+        }
+    }
+
+    private static List<Long> generations(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String fileName(long generation) {
+        return String.format("%s%010d%s", PREFIX, generation, SUFFIX);
+    }
+}
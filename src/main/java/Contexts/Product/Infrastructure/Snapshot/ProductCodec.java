@@ -0,0 +1,68 @@
+package Contexts.Product.Infrastructure.Snapshot;
+
+import Contexts.Product.Domain.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Binary layout of a product in the snapshot and the WAL:
+// productId int, type byte, quantity int, price double, name and attribute as short length + UTF-8 bytes.
+public class ProductCodec {
+
+    private static final ProductType[] TYPES = ProductType.values();
+
+    private ProductCodec() {
+    }
+
+    public static int size(Product product) {
+        return 4 + 1 + 4 + 8 + 2 + utf8(product.getName()).length + 2 + utf8(attribute(product)).length;
+    }
+
+    public static void encode(Product product, ByteBuffer buffer) {
+        byte[] name = utf8(product.getName());
+        byte[] attribute = utf8(attribute(product));
+        buffer.putInt(product.getProductId())
+                .put((byte) product.getType().ordinal())
+                .putInt(product.getQuantity())
+                .putDouble(product.getPrice());
+        buffer.putShort((short) name.length).put(name);
+        buffer.putShort((short) attribute.length).put(attribute);
+    }
+
+    public static Product decode(ByteBuffer buffer) {
+        int productId = buffer.getInt();
+        ProductType type = TYPES[buffer.get()];
+        int quantity = buffer.getInt();
+        double price = buffer.getDouble();
+        String name = readString(buffer);
+        String attribute = readString(buffer);
+        switch (type) {
+            case TREE:
+                return new Tree<>(productId, name, quantity, price, Double.parseDouble(attribute));
+            case FLOWER:
+                return new Flower<>(productId, name, quantity, price, attribute);
+            case DECORATION:
+                return new Decoration<>(productId, name, quantity, price, attribute);
+            default:
+                throw new IllegalArgumentException("Invalid product type : " + type);
+        }
+    }
+
+    private static String attribute(Product product) {
+        return String.valueOf(product.getAttributes());
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Product text too long: " + value.substring(0, 32) + "...");
+        }
+        return bytes;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,372 @@
+package Contexts.Product.Infrastructure.Snapshot;
+
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductType;
+import Contexts.Product.Domain.ProductsRepository;
+import Contexts.Product.Domain.StockValuation;
+import Contexts.Product.Infrastructure.Memory.ProductRepositoryMemory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Keeps the catalog in memory and on local disk as a snapshot plus a WAL of the mutations made since.
+// On startup the catalog is rebuilt from those files and served at once, while a background thread initializes
+// the database and replaces the local copy with what it holds. Writes wait for that reconciliation, then go to
+// the database first and to the WAL and the in-memory catalog after it.
+// A snapshot is taken after reconciliation, periodically while the WAL has records, and on close.
+public class ProductRepositorySnapshot implements ProductsRepository, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductRepositorySnapshot.class);
+
+    private final ProductsRepository delegate;
+    private final Path directory;
+    private final Duration snapshotInterval;
+    private final CompletableFuture<Void> reconciled = new CompletableFuture<>();
+    // Writers hold the read lock while they log and apply a change; a snapshot holds the write lock while it
+    // switches to a new WAL generation and copies the catalog, so the copy matches exactly the older generations.
+    private final ReentrantReadWriteLock walLock = new ReentrantReadWriteLock();
+    private final Object structureLock = new Object();
+    private volatile ProductRepositoryMemory catalog = new ProductRepositoryMemory();
+    private CatalogWal wal;
+    private ScheduledExecutorService snapshotScheduler;
+
+    public ProductRepositorySnapshot(ProductsRepository delegate, Path directory, Duration snapshotInterval) {
+        if (snapshotInterval == null || snapshotInterval.isZero() || snapshotInterval.isNegative()) {
+            throw new IllegalArgumentException("Invalid snapshot interval: " + snapshotInterval);
+        }
+        this.delegate = delegate;
+        this.directory = directory;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    // Without local files there's nothing to serve early, so the first start reconciles before returning.
+    @Override
+    public void initialize() {
+        long startedAt = System.nanoTime();
+        boolean warm;
+        try {
+            Files.createDirectories(directory);
+            CatalogSnapshot snapshot = CatalogSnapshot.read(directory);
+            ProductRepositoryMemory recovered = new ProductRepositoryMemory();
+            long generation = 0;
+            if (snapshot != null) {
+                recovered.putProducts(snapshot.getProducts());
+                generation = snapshot.getWalGeneration();
+            }
+            long replayed = CatalogWal.replay(directory, generation, recovered);
+            wal = CatalogWal.open(directory, Math.max(generation, CatalogWal.lastGeneration(directory) + 1));
+            catalog = recovered;
+            warm = snapshot != null || replayed > 0;
+            logger.info("Catalog recovered from {} in {} ms: {} products from the snapshot, {} WAL records replayed",
+                    directory, (System.nanoTime() - startedAt) / 1_000_000,
+                    snapshot == null ? 0 : snapshot.getProducts().size(), replayed);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the catalog snapshot in " + directory, e);
+        }
+
+        if (warm) {
+            Thread reconciler = new Thread(this::reconcile, "catalog-reconciler");
+            reconciler.setDaemon(true);
+            reconciler.start();
+        } else {
+            reconcile();
+        }
+    }
+
+    public CompletableFuture<Void> reconciled() {
+        return reconciled;
+    }
+
+    private void reconcile() {
+        try {
+            delegate.initialize();
+            List<Product> products = delegate.getAllProducts();
+            // The database backends report failures and return nothing; after initialize() an empty catalog
+            // can only mean the read failed, and replacing the local copy with it would lose the catalog.
+            if (products.isEmpty()) {
+                throw new IllegalStateException("The database returned no products");
+            }
+            int differences = replaceCatalog(products);
+            snapshotQuietly();
+            logger.info("Catalog reconciled with the database: {} products, {} differed from the local copy",
+                    products.size(), differences);
+            startSnapshots();
+            reconciled.complete(null);
+        } catch (RuntimeException e) {
+            logger.error("Catalog reconciliation failed; serving the local copy without writes", e);
+            reconciled.completeExceptionally(e);
+        }
+    }
+
+    private int replaceCatalog(List<Product> products) {
+        ProductRepositoryMemory loaded = new ProductRepositoryMemory();
+        loaded.putProducts(products);
+        walLock.writeLock().lock();
+        try {
+            int differences = differences(catalog, products);
+            catalog = loaded;
+            return differences;
+        } finally {
+            walLock.writeLock().unlock();
+        }
+    }
+
+    private static int differences(ProductRepositoryMemory local, List<Product> products) {
+        Map<Integer, Product> remaining = new HashMap<>();
+        for (Product product : local.getProductsAfter(0, Integer.MAX_VALUE)) {
+            remaining.put(product.getProductId(), product);
+        }
+        int differences = 0;
+        for (Product product : products) {
+            Product previous = remaining.remove(product.getProductId());
+            if (previous == null || !sameProduct(previous, product)) {
+                differences++;
+            }
+        }
+        return differences + remaining.size();
+    }
+
+    private static boolean sameProduct(Product a, Product b) {
+        return a.getType() == b.getType() && a.getQuantity() == b.getQuantity() && a.getPrice() == b.getPrice()
+                && a.getName().equals(b.getName()) && String.valueOf(a.getAttributes()).equals(String.valueOf(b.getAttributes()));
+    }
+
+    private void startSnapshots() {
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = snapshotInterval.toMillis();
+        snapshotScheduler.scheduleAtFixedRate(this::snapshotIfChanged, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void snapshotIfChanged() {
+        if (currentWal().getRecords() > 0) {
+            snapshotQuietly();
+        }
+    }
+
+    // The WAL still holds every change, so a failed snapshot only makes the next recovery replay more.
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            logger.error("Could not write the catalog snapshot", e);
+        }
+    }
+
+    private CatalogWal currentWal() {
+        walLock.readLock().lock();
+        try {
+            return wal;
+        } finally {
+            walLock.readLock().unlock();
+        }
+    }
+
+    public synchronized void snapshot() throws IOException {
+        List<Product> products;
+        long generation;
+        walLock.writeLock().lock();
+        try {
+            CatalogWal next = CatalogWal.open(directory, wal.getGeneration() + 1);
+            wal.close();
+            wal = next;
+            generation = next.getGeneration();
+            products = catalog.getProductsAfter(0, Integer.MAX_VALUE);
+        } finally {
+            walLock.writeLock().unlock();
+        }
+        CatalogSnapshot.write(directory, generation, products);
+        CatalogWal.deleteBefore(directory, generation);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+        }
+        if (wal == null) {
+            return;
+        }
+        if (reconciled.isDone() && !reconciled.isCompletedExceptionally()) {
+            snapshot();
+        }
+        currentWal().close();
+    }
+
+    private void awaitReconciled() {
+        try {
+            reconciled.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while the catalog was being reconciled", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The catalog database is unavailable", e.getCause());
+        }
+    }
+
+    // A change the database accepted but the WAL couldn't record is still applied in memory; the next
+    // reconciliation puts it back into the local files.
+    private void record(WalWrite write, Runnable apply) {
+        walLock.readLock().lock();
+        try {
+            write.to(wal);
+        } catch (IOException e) {
+            logger.error("Could not write the catalog WAL", e);
+        } finally {
+            try {
+                apply.run();
+            } finally {
+                walLock.readLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public Product getProduct(int id) {
+        return catalog.getProduct(id);
+    }
+
+    @Override
+    public Product getLastProduct() {
+        return catalog.getLastProduct();
+    }
+
+    @Override
+    public List<Product> getAllProducts() {
+        return catalog.getAllProducts();
+    }
+
+    @Override
+    public Stream<Product> streamAllProducts() {
+        return catalog.streamAllProducts();
+    }
+
+    @Override
+    public List<Product> getProductsAfter(int lastId, int pageSize) {
+        return catalog.getProductsAfter(lastId, pageSize);
+    }
+
+    @Override
+    public List<Product> getFlowers() {
+        return catalog.getFlowers();
+    }
+
+    @Override
+    public List<Product> getTrees() {
+        return catalog.getTrees();
+    }
+
+    @Override
+    public List<Product> getDecorations() {
+        return catalog.getDecorations();
+    }
+
+    @Override
+    public List<Product> getProductsByType(ProductType type) {
+        return catalog.getProductsByType(type);
+    }
+
+    @Override
+    public Map<ProductType, StockValuation> getStockValuationByType() {
+        return catalog.getStockValuationByType();
+    }
+
+    @Override
+    public void addPrimaryStock() {
+        awaitReconciled();
+        synchronized (structureLock) {
+            delegate.addPrimaryStock();
+            replaceCatalog(delegate.getAllProducts());
+        }
+        snapshotQuietly();
+    }
+
+    @Override
+    public void updateProduct(Product product) {
+        updateProducts(Collections.singletonList(product));
+    }
+
+    @Override
+    public void updateProducts(Collection<Product> products) {
+        awaitReconciled();
+        synchronized (structureLock) {
+            delegate.updateProducts(products);
+            record(wal -> wal.appendPut(products), () -> catalog.updateProducts(products));
+        }
+    }
+
+    @Override
+    public void deleteProduct(Product product) {
+        awaitReconciled();
+        synchronized (structureLock) {
+            delegate.deleteProduct(product);
+            record(wal -> wal.appendDelete(product.getProductId()), () -> catalog.deleteProduct(product.getProductId()));
+        }
+    }
+
+    @Override
+    public boolean reserveStock(int productId, int quantity) {
+        return reserveStock(Collections.singletonMap(productId, quantity));
+    }
+
+    // Stock deltas commute, so unlike structural changes they don't need to reach the WAL in database order.
+    @Override
+    public boolean reserveStock(Map<Integer, Integer> quantities) {
+        awaitReconciled();
+        if (!delegate.reserveStock(quantities)) {
+            return false;
+        }
+        Map<Integer, Integer> deltas = new HashMap<>();
+        quantities.forEach((productId, quantity) -> deltas.put(productId, -quantity));
+        record(wal -> wal.appendStock(quantities, -1), () -> catalog.adjustStock(deltas));
+        return true;
+    }
+
+    @Override
+    public void releaseStock(Map<Integer, Integer> quantities) {
+        awaitReconciled();
+        delegate.releaseStock(quantities);
+        record(wal -> wal.appendStock(quantities, 1), () -> catalog.adjustStock(quantities));
+    }
+
+    @Override
+    public void addProduct(Product product) {
+        addProducts(Collections.singletonList(product));
+    }
+
+    // The backends set the generated id on the products they insert.
+    @Override
+    public void addProducts(Collection<Product> products) {
+        awaitReconciled();
+        synchronized (structureLock) {
+            delegate.addProducts(products);
+            List<Product> added = new ArrayList<>(products.size());
+            for (Product product : products) {
+                if (product.getProductId() > 0) {
+                    added.add(product);
+                }
+            }
+            record(wal -> wal.appendPut(added), () -> catalog.putProducts(added));
+        }
+    }
+
+    private interface WalWrite {
+        void to(CatalogWal wal) throws IOException;
+    }
+}
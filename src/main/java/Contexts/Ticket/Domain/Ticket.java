@@ -1,37 +1,39 @@
 package Contexts.Ticket.Domain;
 
-import Contexts.Product.Domain.Product;
+import Utils.Primitive.Cents;
 
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Locale;
-import java.util.Map;
 
 public class Ticket {
 
 
     private int ticketID;
     private Date date;
-    private Map<Product, Integer> products;
-    private double total;
+    private TicketLines lines;
+    private long totalInCents;
 
     public Ticket(Date date) {
-        this.date = date;
-        this.products = new HashMap<>();
+        this(date, new TicketLines(0));
     }
 
-    public Ticket(Date date, Map<Product, Integer> products, double total) {
+    // The total is the exact sum of the lines.
+    public Ticket(Date date, TicketLines lines) {
         this.date = date;
-        this.products = products;
-        this.total = total;
+        this.lines = lines;
+        this.totalInCents = lines.totalInCents();
     }
 
-    public Ticket(int ticketID, Date date, Map<Product, Integer> products, double total) {
+    // For tickets read back from storage, which keep the total they were saved with.
+    public Ticket(int ticketID, Date date, TicketLines lines, long totalInCents) {
         this.ticketID = ticketID;
         this.date = date;
-        this.products = products;
-        this.total = total;
+        this.lines = lines;
+        this.totalInCents = totalInCents;
     }
 
     public int getTicketID() {
@@ -42,21 +44,25 @@ public class Ticket {
         return date;
     }
 
-    public Map<Product, Integer> getProducts() {
-        return this.products;
+    public TicketLines getLines() {
+        return lines;
     }
 
     public double getTotal() {
-        return total;
+        return Cents.toEuros(totalInCents);
     }
 
-    public void setTicketID(int id) {
-        this.ticketID = id;
+    public long getTotalInCents() {
+        return totalInCents;
     }
 
-    public static Product updateStockStore(Product product, int quantity) {
-        product.setQuantity(product.getQuantity() - quantity);
-        return product;
+    // Calendar day of the sale in the JVM time zone, used to key the daily sales rollups.
+    public LocalDate getDay() {
+        return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    public void setTicketID(int id) {
+        this.ticketID = id;
     }
 
     public void showTicket() {
@@ -72,11 +78,9 @@ public class Ticket {
         }
         System.out.println();
 
-        for (Map.Entry<Product, Integer> entry : products.entrySet()) {
-            Product product = entry.getKey();
-            int quantity = entry.getValue();
+        for (int line = 0; line < lines.size(); line++) {
             System.out.printf("%-" + nameWidth + "s %-" + quantityWidth + "d%n",
-                    product.getName(), quantity);
+                    lines.name(line), lines.quantity(line));
         }
         System.out.printf("%-" + nameWidth + "s %-" + quantityWidth + ".2f€%n",
                 "TOTAL:", getTotal());
@@ -0,0 +1,93 @@
+package Contexts.Ticket.Domain;
+
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductType;
+import Utils.Kernels.AggregationKernels;
+import Utils.Primitive.Cents;
+
+import java.util.Arrays;
+
+// The lines of a ticket in parallel arrays: product id, type, units and unit price in cents, plus the product
+// name at the time of the sale. A line costs a few primitives instead of a map entry, a boxed quantity and a
+// whole product, and totals are exact sums of cents.
+public class TicketLines {
+
+    private static final ProductType[] TYPES = ProductType.values();
+
+    private int size;
+    private int[] productIds;
+    private byte[] types;
+    private int[] quantities;
+    private long[] pricesInCents;
+    private String[] names;
+
+    public TicketLines(int capacity) {
+        productIds = new int[capacity];
+        types = new byte[capacity];
+        quantities = new int[capacity];
+        pricesInCents = new long[capacity];
+        names = new String[capacity];
+    }
+
+    public void add(Product product, int quantity) {
+        add(product.getProductId(), product.getType(), product.getName(), quantity, Cents.fromEuros(product.getPrice()));
+    }
+
+    public void add(int productId, ProductType type, String name, int quantity, long priceInCents) {
+        if (size == productIds.length) {
+            grow();
+        }
+        productIds[size] = productId;
+        types[size] = (byte) type.ordinal();
+        quantities[size] = quantity;
+        pricesInCents[size] = priceInCents;
+        names[size] = name;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int productId(int line) {
+        return productIds[line];
+    }
+
+    public ProductType type(int line) {
+        return TYPES[types[line]];
+    }
+
+    public String name(int line) {
+        return names[line];
+    }
+
+    public int quantity(int line) {
+        return quantities[line];
+    }
+
+    public long priceInCents(int line) {
+        return pricesInCents[line];
+    }
+
+    public long revenueInCents(int line) {
+        return quantities[line] * pricesInCents[line];
+    }
+
+    public long totalInCents() {
+        return AggregationKernels.getInstance().dot(quantities, pricesInCents, size);
+    }
+
+    // Lines, units and revenue per product type, added into arrays indexed by ProductType ordinal.
+    public void sumByType(long[] count, long[] units, long[] valueInCents) {
+        AggregationKernels.getInstance().sumByType(types, quantities, pricesInCents, size, count, units, valueInCents);
+    }
+
+    private void grow() {
+        int capacity = Math.max(4, productIds.length * 2);
+        productIds = Arrays.copyOf(productIds, capacity);
+        types = Arrays.copyOf(types, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        pricesInCents = Arrays.copyOf(pricesInCents, capacity);
+        names = Arrays.copyOf(names, capacity);
+    }
+}
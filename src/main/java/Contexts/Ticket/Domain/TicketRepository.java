@@ -1,17 +1,40 @@
 package Contexts.Ticket.Domain;
 
+import Contexts.Product.Domain.ProductType;
 import Contexts.Ticket.Infrastructure.Exceptions.NoTicketsFoundException;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.stream.Stream;
 
 public interface TicketRepository {
-    void newTicket(Ticket ticket);
+    void initialize();
+
+    Ticket newTicket(Ticket ticket);
 
     List<Ticket> getAllTickets() throws NoTicketsFoundException;
 
+    Stream<Ticket> streamAllTickets();
+
     Ticket getLastTicket();
 
     int nextTicketID();
 
-    void getAllSales(List<Ticket> tickets);
+    double getTotalRevenue();
+
+    double getRevenueBetween(LocalDate from, LocalDate to);
+
+    SortedMap<LocalDate, Double> getRevenueByDay(LocalDate from, LocalDate to);
+
+    Map<ProductType, Double> getRevenueByType();
+
+    Map<ProductType, Double> getRevenueByType(LocalDate from, LocalDate to);
+
+    Map<Integer, Double> getRevenueByProduct();
+
+    Map<Integer, Double> getRevenueByProduct(LocalDate from, LocalDate to);
+
+    void rebuildSalesRollups();
 }
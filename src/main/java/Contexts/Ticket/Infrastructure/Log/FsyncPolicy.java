@@ -0,0 +1,44 @@
+package Contexts.Ticket.Infrastructure.Log;
+
+import java.time.Duration;
+
+public class FsyncPolicy {
+
+    public enum Mode {EVERY_WRITE, GROUP_COMMIT, INTERVAL}
+
+    private final Mode mode;
+    private final Duration interval;
+
+    private FsyncPolicy(Mode mode, Duration interval) {
+        this.mode = mode;
+        this.interval = interval;
+    }
+
+    // Each ticket is on disk before newTicket returns, and writers queue behind each other's fsync.
+    public static FsyncPolicy everyWrite() {
+        return new FsyncPolicy(Mode.EVERY_WRITE, Duration.ZERO);
+    }
+
+    // Each ticket is on disk before newTicket returns, but one fsync covers every ticket appended while the
+    // previous one was running, so concurrent tills share the cost.
+    public static FsyncPolicy groupCommit() {
+        return new FsyncPolicy(Mode.GROUP_COMMIT, Duration.ZERO);
+    }
+
+    // newTicket returns once the ticket is in the page cache; a background thread forces the log every
+    // interval, so a power cut can lose up to that much of the latest sales.
+    public static FsyncPolicy interval(Duration interval) {
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Invalid fsync interval: " + interval);
+        }
+        return new FsyncPolicy(Mode.INTERVAL, interval);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+}
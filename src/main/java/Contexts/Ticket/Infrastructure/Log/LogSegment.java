@@ -0,0 +1,144 @@
+package Contexts.Ticket.Infrastructure.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// One fixed-size file mapped in full. Records are [length int][crc32 int][payload]; a zero length marks the
+// end of the written data, which the sparse file gives for free. Only TicketLog appends, under its lock;
+// readers take a snapshot of the volatile limit and only read below it.
+class LogSegment implements Closeable {
+
+    static final int HEADER_SIZE = 8;
+
+    private final Path path;
+    private final int firstTicketId;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private volatile int limit;
+    private int forcedUpTo;
+
+    private LogSegment(Path path, int firstTicketId, int size) throws IOException {
+        this.path = path;
+        this.firstTicketId = firstTicketId;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+    }
+
+    static LogSegment create(Path path, int firstTicketId, int size) throws IOException {
+        return new LogSegment(path, firstTicketId, size);
+    }
+
+    // Finds the end of the valid records. A torn or corrupt record at the tail (a crash mid-write) is
+    // zeroed so later appends can't be mistaken for its continuation.
+    static LogSegment open(Path path, int firstTicketId, int size, RecordVisitor visitor) throws IOException {
+        LogSegment segment = new LogSegment(path, firstTicketId, size);
+        int position = 0;
+        while (true) {
+            ByteBuffer payload = segment.validRecordAt(position);
+            if (payload == null) {
+                break;
+            }
+            visitor.visit(segment, position, payload);
+            position += HEADER_SIZE + payload.remaining();
+        }
+        segment.zeroFrom(position);
+        segment.limit = position;
+        segment.forcedUpTo = position;
+        return segment;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int getFirstTicketId() {
+        return firstTicketId;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    boolean hasRoomFor(int payloadLength) {
+        return limit + HEADER_SIZE + payloadLength + 4 <= buffer.capacity();
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    // Returns the record's offset. Callers check hasRoomFor first.
+    int append(byte[] payload) {
+        int offset = limit;
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.put(offset + HEADER_SIZE, payload);
+        buffer.putInt(offset + 4, (int) crc.getValue());
+        // The length goes last: a reader or a recovery scan that sees it also sees the payload.
+        buffer.putInt(offset, payload.length);
+        limit = offset + HEADER_SIZE + payload.length;
+        return offset;
+    }
+
+    // The payload at offset, positioned at its start, or null past the limit.
+    ByteBuffer read(int offset, int snapshotLimit) {
+        if (offset + HEADER_SIZE > snapshotLimit) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        return buffer.slice(offset + HEADER_SIZE, length);
+    }
+
+    // Forces the bytes appended since the last force.
+    synchronized void force() {
+        int upTo = limit;
+        if (upTo > forcedUpTo) {
+            buffer.force(forcedUpTo, upTo - forcedUpTo);
+            forcedUpTo = upTo;
+        }
+    }
+
+    private ByteBuffer validRecordAt(int position) {
+        if (position + HEADER_SIZE > buffer.capacity()) {
+            return null;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || position + HEADER_SIZE + length > buffer.capacity()) {
+            return null;
+        }
+        ByteBuffer payload = buffer.slice(position + HEADER_SIZE, length);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue() == buffer.getInt(position + 4) ? payload : null;
+    }
+
+    private void zeroFrom(int position) {
+        int end = position;
+        while (end + 4 <= buffer.capacity() && buffer.getInt(end) != 0) {
+            end += 4;
+        }
+        for (int i = position; i < end; i += 4) {
+            buffer.putInt(i, 0);
+        }
+        if (end > position) {
+            buffer.force(position, end - position);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    interface RecordVisitor {
+        void visit(LogSegment segment, int offset, ByteBuffer payload);
+    }
+}
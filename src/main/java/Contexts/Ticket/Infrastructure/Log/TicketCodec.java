@@ -0,0 +1,79 @@
+package Contexts.Ticket.Infrastructure.Log;
+
+import Contexts.Product.Domain.ProductType;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketLines;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+// Binary layout of a ticket in the log:
+// ticketID int, date long (epoch millis), total long (cents), line count int, then per line
+// productId int, type byte, units int, price long (cents), name as short length + UTF-8 bytes.
+public class TicketCodec {
+
+    private static final ProductType[] TYPES = ProductType.values();
+
+    private TicketCodec() {
+    }
+
+    public static byte[] encode(Ticket ticket) {
+        TicketLines lines = ticket.getLines();
+        byte[][] names = new byte[lines.size()][];
+        int size = 4 + 8 + 8 + 4;
+        for (int line = 0; line < lines.size(); line++) {
+            names[line] = utf8(lines.name(line));
+            size += 4 + 1 + 4 + 8 + 2 + names[line].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(ticket.getTicketID())
+                .putLong(ticket.getDate().getTime())
+                .putLong(ticket.getTotalInCents())
+                .putInt(lines.size());
+        for (int line = 0; line < lines.size(); line++) {
+            buffer.putInt(lines.productId(line))
+                    .put((byte) lines.type(line).ordinal())
+                    .putInt(lines.quantity(line))
+                    .putLong(lines.priceInCents(line));
+            buffer.putShort((short) names[line].length).put(names[line]);
+        }
+        return buffer.array();
+    }
+
+    public static int ticketId(ByteBuffer payload) {
+        return payload.getInt(payload.position());
+    }
+
+    public static Ticket decode(ByteBuffer payload) {
+        int ticketID = payload.getInt();
+        Date date = new Date(payload.getLong());
+        long totalInCents = payload.getLong();
+        int lineCount = payload.getInt();
+        TicketLines lines = new TicketLines(lineCount);
+        for (int line = 0; line < lineCount; line++) {
+            int productId = payload.getInt();
+            ProductType type = TYPES[payload.get()];
+            int units = payload.getInt();
+            long priceInCents = payload.getLong();
+            String name = readString(payload);
+            lines.add(productId, type, name, units, priceInCents);
+        }
+        return new Ticket(ticketID, date, lines, totalInCents);
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Ticket text too long: " + value.substring(0, 32) + "...");
+        }
+        return bytes;
+    }
+
+    private static String readString(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.getShort()];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,277 @@
+package Contexts.Ticket.Infrastructure.Log;
+
+import Contexts.Ticket.Domain.Ticket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Append-only ticket storage in memory-mapped segment files named after their first ticket id. Appends are
+// serialised by the log's monitor, which also hands out ticket ids, so the files are always in id order.
+// A sparse index keeps the position of every INDEX_INTERVAL-th ticket; lookups scan forward from there.
+public class TicketLog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketLog.class);
+    private static final int INDEX_INTERVAL = 64;
+    private static final String PREFIX = "tickets-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy policy;
+    private final List<LogSegment> segments = new ArrayList<>();
+    private final ConcurrentSkipListMap<Integer, Position> index = new ConcurrentSkipListMap<>();
+    private final Object forceLock = new Object();
+    private final ScheduledExecutorService flusher;
+    private volatile LogSegment active;
+    private volatile Position lastPosition;
+    private int lastTicketId;
+    private volatile long appended;
+    private volatile long forced;
+
+    public TicketLog(Path directory, int segmentSize, FsyncPolicy policy) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.policy = policy;
+        Files.createDirectories(directory);
+        recover();
+        if (policy.getMode() == FsyncPolicy.Mode.INTERVAL) {
+            long millis = policy.getInterval().toMillis();
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ticket-log-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::forceQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    // Gives the ticket the next id and appends it. Returns once the ticket is as durable as the policy asks.
+    public Ticket append(Ticket ticket) {
+        long sequence;
+        synchronized (this) {
+            ticket.setTicketID(lastTicketId + 1);
+            byte[] payload = TicketCodec.encode(ticket);
+            LogSegment segment = active;
+            if (segment == null || !segment.hasRoomFor(payload.length)) {
+                segment = roll(ticket.getTicketID(), payload.length);
+            }
+            int offset = segment.append(payload);
+            Position position = new Position(segment, offset);
+            if (offset == 0 || ticket.getTicketID() % INDEX_INTERVAL == 0) {
+                index.put(ticket.getTicketID(), position);
+            }
+            lastTicketId = ticket.getTicketID();
+            lastPosition = position;
+            sequence = ++appended;
+            if (policy.getMode() == FsyncPolicy.Mode.EVERY_WRITE) {
+                synchronized (forceLock) {
+                    segment.force();
+                    forced = sequence;
+                }
+            }
+        }
+        if (policy.getMode() == FsyncPolicy.Mode.GROUP_COMMIT) {
+            awaitForced(sequence);
+        }
+        return ticket;
+    }
+
+    public synchronized int getLastTicketId() {
+        return lastTicketId;
+    }
+
+    public Ticket getLastTicket() {
+        Position position = lastPosition;
+        return position == null ? null : position.decode();
+    }
+
+    public Ticket getTicket(int ticketId) {
+        Map.Entry<Integer, Position> start = index.floorEntry(ticketId);
+        if (start == null) {
+            return null;
+        }
+        try (Stream<Ticket> tickets = stream(start.getValue())) {
+            return tickets.filter(ticket -> ticket.getTicketID() >= ticketId)
+                    .findFirst()
+                    .filter(ticket -> ticket.getTicketID() == ticketId)
+                    .orElse(null);
+        }
+    }
+
+    // Reads the mapped segments in order, decoding one ticket at a time.
+    public Stream<Ticket> stream() {
+        Map.Entry<Integer, Position> first = index.firstEntry();
+        return first == null ? Stream.empty() : stream(first.getValue());
+    }
+
+    public void force() {
+        awaitForced(appended);
+    }
+
+    // Leader/follower group commit: whoever gets the lock forces everything appended so far, and the threads
+    // that queued meanwhile find their records already covered. Lock order is the log's monitor, then
+    // forceLock, so this never takes the monitor. appended is read before active: if a roll happens in
+    // between, the records counted were in the old segment, which the roll forced.
+    private void awaitForced(long sequence) {
+        if (forced >= sequence) {
+            return;
+        }
+        synchronized (forceLock) {
+            if (forced >= sequence) {
+                return;
+            }
+            long upTo = appended;
+            LogSegment segment = active;
+            if (segment != null) {
+                segment.force();
+            }
+            forced = Math.max(forced, upTo);
+        }
+    }
+
+    private void forceQuietly() {
+        try {
+            force();
+        } catch (RuntimeException e) {
+            logger.error("Ticket log fsync failed", e);
+        }
+    }
+
+    // Called with the monitor held. The full segment is forced before the new one takes writes, so a force of
+    // the active segment always covers every earlier record.
+    private LogSegment roll(int firstTicketId, int payloadLength) {
+        int size = Math.max(segmentSize, LogSegment.HEADER_SIZE + payloadLength + 4);
+        try {
+            synchronized (forceLock) {
+                if (active != null) {
+                    active.force();
+                }
+            }
+            LogSegment segment = LogSegment.create(segmentPath(firstTicketId), firstTicketId, size);
+            segments.add(segment);
+            active = segment;
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create a ticket log segment in " + directory, e);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            files.forEach(paths::add);
+        }
+        paths.sort(Comparator.comparingInt(TicketLog::firstTicketId));
+        for (Path path : paths) {
+            LogSegment segment = LogSegment.open(path, firstTicketId(path), segmentSize, (opened, offset, payload) -> {
+                int ticketId = TicketCodec.ticketId(payload);
+                Position position = new Position(opened, offset);
+                if (offset == 0 || ticketId % INDEX_INTERVAL == 0) {
+                    index.put(ticketId, position);
+                }
+                lastTicketId = ticketId;
+                lastPosition = position;
+            });
+            segments.add(segment);
+            active = segment;
+        }
+        logger.info("Ticket log " + directory + ": " + segments.size() + " segments, last ticket " + lastTicketId);
+    }
+
+    private Stream<Ticket> stream(Position start) {
+        List<LogSegment> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(segments);
+        }
+        int first = snapshot.indexOf(start.segment);
+        return StreamSupport.stream(new TicketSpliterator(snapshot.subList(first, snapshot.size()), start.offset), false);
+    }
+
+    private Path segmentPath(int firstTicketId) {
+        return directory.resolve(String.format("%s%010d%s", PREFIX, firstTicketId, SUFFIX));
+    }
+
+    private static int firstTicketId(Path path) {
+        String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        synchronized (this) {
+            for (LogSegment segment : segments) {
+                segment.close();
+            }
+            segments.clear();
+            active = null;
+        }
+    }
+
+    private static class Position {
+        private final LogSegment segment;
+        private final int offset;
+
+        private Position(LogSegment segment, int offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        private Ticket decode() {
+            return TicketCodec.decode(segment.read(offset, segment.getLimit()));
+        }
+    }
+
+    // Each segment's limit is read when the scan reaches it, so tickets appended during the scan may or may
+    // not be included, but a partially written one never is.
+    private static class TicketSpliterator extends Spliterators.AbstractSpliterator<Ticket> {
+        private final Iterator<LogSegment> segments;
+        private LogSegment segment;
+        private int offset;
+        private int limit;
+
+        private TicketSpliterator(List<LogSegment> segments, int startOffset) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.segments = segments.iterator();
+            this.segment = this.segments.next();
+            this.offset = startOffset;
+            this.limit = segment.getLimit();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Ticket> action) {
+            while (true) {
+                ByteBuffer payload = segment.read(offset, limit);
+                if (payload != null) {
+                    offset += LogSegment.HEADER_SIZE + payload.remaining();
+                    action.accept(TicketCodec.decode(payload));
+                    return true;
+                }
+                if (!segments.hasNext()) {
+                    return false;
+                }
+                segment = segments.next();
+                offset = 0;
+                limit = segment.getLimit();
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package Contexts.Ticket.Infrastructure.Log;
+
+import Contexts.Product.Domain.ProductType;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketRepository;
+import Contexts.Ticket.Infrastructure.Exceptions.NoTicketsFoundException;
+import Contexts.Ticket.Infrastructure.Memory.SalesRollupMemory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Tickets in a local append-only log instead of a database. Sales rollups are kept in memory and rebuilt
+// from the log by initialize, so reports cost the same as with the database backends.
+public class TicketRepositoryLog implements TicketRepository, AutoCloseable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final TicketLog log;
+    private final SalesRollupMemory salesRollup = new SalesRollupMemory();
+
+    public TicketRepositoryLog(Path directory, FsyncPolicy policy) {
+        this(directory, DEFAULT_SEGMENT_SIZE, policy);
+    }
+
+    public TicketRepositoryLog(Path directory, int segmentSize, FsyncPolicy policy) {
+        try {
+            this.log = new TicketLog(directory, segmentSize, policy);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the ticket log in " + directory, e);
+        }
+    }
+
+    @Override
+    public void initialize() {
+        rebuildSalesRollups();
+    }
+
+    // The rollups are recorded before the ticket is on disk, so with the interval policy a crash can leave
+    // reports ahead of the log until the next initialize.
+    @Override
+    public Ticket newTicket(Ticket ticket) {
+        try {
+            Ticket saved = log.append(ticket);
+            salesRollup.record(saved);
+            return saved;
+        } catch (RuntimeException e) {
+            e.printStackTrace(System.out);
+            return null;
+        }
+    }
+
+    @Override
+    public List<Ticket> getAllTickets() throws NoTicketsFoundException {
+        List<Ticket> tickets;
+        try (Stream<Ticket> stream = log.stream()) {
+            tickets = stream.collect(Collectors.toList());
+        }
+        if (tickets.isEmpty()) {
+            throw new NoTicketsFoundException("No tickets found in the database.");
+        }
+        return tickets;
+    }
+
+    @Override
+    public Stream<Ticket> streamAllTickets() {
+        return log.stream();
+    }
+
+    public Ticket getTicket(int ticketId) {
+        return log.getTicket(ticketId);
+    }
+
+    @Override
+    public Ticket getLastTicket() {
+        return log.getLastTicket();
+    }
+
+    // Ids are given by the log as tickets are appended; this only reports the next one.
+    @Override
+    public int nextTicketID() {
+        return log.getLastTicketId() + 1;
+    }
+
+    @Override
+    public double getTotalRevenue() {
+        return salesRollup.revenueBetween(null, null);
+    }
+
+    @Override
+    public double getRevenueBetween(LocalDate from, LocalDate to) {
+        return salesRollup.revenueBetween(from, to);
+    }
+
+    @Override
+    public SortedMap<LocalDate, Double> getRevenueByDay(LocalDate from, LocalDate to) {
+        return salesRollup.revenueByDay(from, to);
+    }
+
+    @Override
+    public Map<ProductType, Double> getRevenueByType() {
+        return salesRollup.revenueByType(null, null);
+    }
+
+    @Override
+    public Map<ProductType, Double> getRevenueByType(LocalDate from, LocalDate to) {
+        return salesRollup.revenueByType(from, to);
+    }
+
+    @Override
+    public Map<Integer, Double> getRevenueByProduct() {
+        return salesRollup.revenueByProduct(null, null);
+    }
+
+    @Override
+    public Map<Integer, Double> getRevenueByProduct(LocalDate from, LocalDate to) {
+        return salesRollup.revenueByProduct(from, to);
+    }
+
+    @Override
+    public void rebuildSalesRollups() {
+        salesRollup.clear();
+        try (Stream<Ticket> tickets = log.stream()) {
+            tickets.forEach(salesRollup::record);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+}
@@ -0,0 +1,94 @@
+package Contexts.Ticket.Infrastructure.Memory;
+
+import Contexts.Product.Domain.ProductType;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketLines;
+import Utils.Primitive.Cents;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Daily sales kept in adders of cents, so the in-process backends answer reports without scanning tickets
+// and the sums are exact.
+// A null bound leaves that side of the window open.
+public class SalesRollupMemory {
+
+    private final ConcurrentNavigableMap<LocalDate, DailySales> salesByDay = new ConcurrentSkipListMap<>();
+
+    public void record(Ticket ticket) {
+        DailySales day = salesByDay.computeIfAbsent(ticket.getDay(), key -> new DailySales());
+        day.revenue.add(ticket.getTotalInCents());
+        TicketLines lines = ticket.getLines();
+        for (int line = 0; line < lines.size(); line++) {
+            long revenue = lines.revenueInCents(line);
+            day.revenueByType.computeIfAbsent(lines.type(line), type -> new LongAdder()).add(revenue);
+            day.revenueByProduct.computeIfAbsent(lines.productId(line), id -> new LongAdder()).add(revenue);
+        }
+    }
+
+    public void clear() {
+        salesByDay.clear();
+    }
+
+    public double revenueBetween(LocalDate from, LocalDate to) {
+        long revenue = 0;
+        for (DailySales day : days(from, to).values()) {
+            revenue += day.revenue.sum();
+        }
+        return Cents.toEuros(revenue);
+    }
+
+    public SortedMap<LocalDate, Double> revenueByDay(LocalDate from, LocalDate to) {
+        SortedMap<LocalDate, Double> revenue = new TreeMap<>();
+        for (Map.Entry<LocalDate, DailySales> day : days(from, to).entrySet()) {
+            revenue.put(day.getKey(), Cents.toEuros(day.getValue().revenue.sum()));
+        }
+        return revenue;
+    }
+
+    public Map<ProductType, Double> revenueByType(LocalDate from, LocalDate to) {
+        Map<ProductType, Long> revenue = new EnumMap<>(ProductType.class);
+        for (DailySales day : days(from, to).values()) {
+            day.revenueByType.forEach((type, adder) -> revenue.merge(type, adder.sum(), Long::sum));
+        }
+        Map<ProductType, Double> euros = new EnumMap<>(ProductType.class);
+        revenue.forEach((type, cents) -> euros.put(type, Cents.toEuros(cents)));
+        return euros;
+    }
+
+    // Highest revenue first, like the database backends.
+    public Map<Integer, Double> revenueByProduct(LocalDate from, LocalDate to) {
+        Map<Integer, Long> revenue = new HashMap<>();
+        for (DailySales day : days(from, to).values()) {
+            day.revenueByProduct.forEach((productId, adder) -> revenue.merge(productId, adder.sum(), Long::sum));
+        }
+        return revenue.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> Cents.toEuros(entry.getValue()),
+                        (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private NavigableMap<LocalDate, DailySales> days(LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return salesByDay;
+        }
+        if (from == null) {
+            return salesByDay.headMap(to, true);
+        }
+        if (to == null) {
+            return salesByDay.tailMap(from, true);
+        }
+        return salesByDay.subMap(from, true, to, true);
+    }
+
+    private static class DailySales {
+        private final LongAdder revenue = new LongAdder();
+        private final Map<ProductType, LongAdder> revenueByType = new ConcurrentHashMap<>();
+        private final Map<Integer, LongAdder> revenueByProduct = new ConcurrentHashMap<>();
+    }
+}
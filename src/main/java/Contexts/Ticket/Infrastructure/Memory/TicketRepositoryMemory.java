@@ -0,0 +1,104 @@
+package Contexts.Ticket.Infrastructure.Memory;
+
+import Contexts.Product.Domain.ProductType;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketRepository;
+import Contexts.Ticket.Infrastructure.Exceptions.NoTicketsFoundException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Tickets in a concurrent sorted map keyed by id, with daily rollups kept in adders like the database
+// backends keep them in tables, so reports never scan the tickets.
+public class TicketRepositoryMemory implements TicketRepository {
+
+    private final ConcurrentNavigableMap<Integer, Ticket> tickets = new ConcurrentSkipListMap<>();
+    private final SalesRollupMemory salesRollup = new SalesRollupMemory();
+    private final AtomicInteger lastTicketId = new AtomicInteger();
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public Ticket newTicket(Ticket ticket) {
+        ticket.setTicketID(nextTicketID());
+        tickets.put(ticket.getTicketID(), ticket);
+        salesRollup.record(ticket);
+        return ticket;
+    }
+
+    @Override
+    public List<Ticket> getAllTickets() throws NoTicketsFoundException {
+        if (tickets.isEmpty()) {
+            throw new NoTicketsFoundException("No tickets found in the database.");
+        }
+        return new ArrayList<>(tickets.values());
+    }
+
+    @Override
+    public Stream<Ticket> streamAllTickets() {
+        return tickets.values().stream();
+    }
+
+    @Override
+    public Ticket getLastTicket() {
+        Map.Entry<Integer, Ticket> last = tickets.lastEntry();
+        return last == null ? null : last.getValue();
+    }
+
+    @Override
+    public int nextTicketID() {
+        return lastTicketId.incrementAndGet();
+    }
+
+    @Override
+    public double getTotalRevenue() {
+        return salesRollup.revenueBetween(null, null);
+    }
+
+    @Override
+    public double getRevenueBetween(LocalDate from, LocalDate to) {
+        return salesRollup.revenueBetween(from, to);
+    }
+
+    @Override
+    public SortedMap<LocalDate, Double> getRevenueByDay(LocalDate from, LocalDate to) {
+        return salesRollup.revenueByDay(from, to);
+    }
+
+    @Override
+    public Map<ProductType, Double> getRevenueByType() {
+        return salesRollup.revenueByType(null, null);
+    }
+
+    @Override
+    public Map<ProductType, Double> getRevenueByType(LocalDate from, LocalDate to) {
+        return salesRollup.revenueByType(from, to);
+    }
+
+    @Override
+    public Map<Integer, Double> getRevenueByProduct() {
+        return salesRollup.revenueByProduct(null, null);
+    }
+
+    @Override
+    public Map<Integer, Double> getRevenueByProduct(LocalDate from, LocalDate to) {
+        return salesRollup.revenueByProduct(from, to);
+    }
+
+    @Override
+    public void rebuildSalesRollups() {
+        salesRollup.clear();
+        for (Ticket ticket : tickets.values()) {
+            salesRollup.record(ticket);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package Contexts.Ticket.Infrastructure.MongoDB;
+
+import Contexts.Product.Domain.ProductType;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketLines;
+import Utils.Primitive.Cents;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Field;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// Daily sales rollups kept next to the tickets collection. Days are stored as yyyy-MM-dd strings, which sort
+// in date order. Each ticket adds to its day with upserts and $inc, so reports never scan the tickets.
+public class SalesRollupMongoDB {
+
+    public static final String DAILY = "sales_daily";
+    public static final String DAILY_PRODUCT = "sales_daily_product";
+    public static final String DAILY_TYPE = "sales_daily_type";
+
+    private static final UpdateOptions UPSERT = new UpdateOptions().upsert(true);
+    private static final ProductType[] TYPES = ProductType.values();
+
+    private final MongoCollection<Document> tickets;
+    private final MongoCollection<Document> daily;
+    private final MongoCollection<Document> dailyProduct;
+    private final MongoCollection<Document> dailyType;
+
+    public SalesRollupMongoDB(MongoDatabase database, MongoCollection<Document> tickets) {
+        this.tickets = tickets;
+        this.daily = database.getCollection(DAILY);
+        this.dailyProduct = database.getCollection(DAILY_PRODUCT);
+        this.dailyType = database.getCollection(DAILY_TYPE);
+    }
+
+    public List<MongoCollection<Document>> getCollections() {
+        return Arrays.asList(daily, dailyProduct, dailyType);
+    }
+
+    public void record(Ticket ticket) {
+        String day = ticket.getDay().toString();
+        daily.updateOne(Filters.eq("_id", day),
+                Updates.combine(Updates.setOnInsert("day", day), Updates.inc("tickets", 1),
+                        Updates.inc("revenue", ticket.getTotal())), UPSERT);
+
+        List<WriteModel<Document>> productUpdates = new ArrayList<>();
+        TicketLines lines = ticket.getLines();
+        for (int line = 0; line < lines.size(); line++) {
+            int productId = lines.productId(line);
+            Document id = new Document("day", day).append("productId", productId);
+            productUpdates.add(new UpdateOneModel<>(Filters.eq("_id", id), Updates.combine(
+                    Updates.setOnInsert("day", day), Updates.setOnInsert("productId", productId),
+                    Updates.inc("units", lines.quantity(line)),
+                    Updates.inc("revenue", Cents.toEuros(lines.revenueInCents(line)))), UPSERT));
+        }
+
+        long[] count = new long[TYPES.length];
+        long[] units = new long[TYPES.length];
+        long[] revenue = new long[TYPES.length];
+        lines.sumByType(count, units, revenue);
+        List<WriteModel<Document>> typeUpdates = new ArrayList<>();
+        for (ProductType productType : TYPES) {
+            if (count[productType.ordinal()] == 0) {
+                continue;
+            }
+            String type = productType.toString();
+            Document id = new Document("day", day).append("type", type);
+            typeUpdates.add(new UpdateOneModel<>(Filters.eq("_id", id), Updates.combine(
+                    Updates.setOnInsert("day", day), Updates.setOnInsert("type", type),
+                    Updates.inc("units", (int) units[productType.ordinal()]),
+                    Updates.inc("revenue", Cents.toEuros(revenue[productType.ordinal()]))), UPSERT));
+        }
+
+        BulkWriteOptions unordered = new BulkWriteOptions().ordered(false);
+        if (!productUpdates.isEmpty()) {
+            dailyProduct.bulkWrite(productUpdates, unordered);
+        }
+        if (!typeUpdates.isEmpty()) {
+            dailyType.bulkWrite(typeUpdates, unordered);
+        }
+    }
+
+    public boolean needsBackfill() {
+        return tickets.find().first() != null && (daily.find().first() == null
+                || dailyProduct.find().first() == null || dailyType.find().first() == null);
+    }
+
+    // Recomputes the rollups from the ticket history; $out replaces each collection in one step.
+    public void rebuild() {
+        Document day = new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                .append("date", "$date")
+                .append("timezone", ZoneId.systemDefault().getId()));
+        Bson hasDate = Aggregates.match(Filters.ne("date", null));
+        Document lineRevenue = new Document("$multiply", Arrays.asList("$products.Price", "$products.Quantity"));
+
+        tickets.aggregate(Arrays.asList(hasDate,
+                Aggregates.group(day, Accumulators.sum("tickets", 1), Accumulators.sum("revenue", "$totalPrice")),
+                Aggregates.addFields(new Field<>("day", "$_id")),
+                Aggregates.out(DAILY))).toCollection();
+
+        tickets.aggregate(Arrays.asList(hasDate, Aggregates.unwind("$products"),
+                Aggregates.match(Filters.exists("products.ProductId")),
+                Aggregates.group(new Document("day", day).append("productId", "$products.ProductId"),
+                        Accumulators.sum("units", "$products.Quantity"), Accumulators.sum("revenue", lineRevenue)),
+                Aggregates.addFields(new Field<>("day", "$_id.day"),
+                        new Field<>("productId", "$_id.productId")),
+                Aggregates.out(DAILY_PRODUCT))).toCollection();
+
+        tickets.aggregate(Arrays.asList(hasDate, Aggregates.unwind("$products"),
+                Aggregates.group(new Document("day", day).append("type", "$products.Type"),
+                        Accumulators.sum("units", "$products.Quantity"), Accumulators.sum("revenue", lineRevenue)),
+                Aggregates.addFields(new Field<>("day", "$_id.day"),
+                        new Field<>("type", "$_id.type")),
+                Aggregates.out(DAILY_TYPE))).toCollection();
+    }
+
+    public double revenueBetween(LocalDate from, LocalDate to) {
+        Document result = daily.aggregate(Arrays.asList(
+                Aggregates.match(dayFilter(from, to)),
+                Aggregates.group(null, Accumulators.sum("revenue", "$revenue")))).first();
+        return result == null ? 0 : ((Number) result.get("revenue")).doubleValue();
+    }
+
+    public SortedMap<LocalDate, Double> revenueByDay(LocalDate from, LocalDate to) {
+        SortedMap<LocalDate, Double> revenue = new TreeMap<>();
+        for (Document document : daily.find(dayFilter(from, to)).sort(Sorts.ascending("day"))) {
+            revenue.put(LocalDate.parse(document.getString("day")), ((Number) document.get("revenue")).doubleValue());
+        }
+        return revenue;
+    }
+
+    public Map<ProductType, Double> revenueByType(LocalDate from, LocalDate to) {
+        Map<ProductType, Double> revenue = new EnumMap<>(ProductType.class);
+        for (Document document : dailyType.aggregate(Arrays.asList(
+                Aggregates.match(dayFilter(from, to)),
+                Aggregates.group("$type", Accumulators.sum("revenue", "$revenue"))))) {
+            revenue.put(ProductType.valueOf(document.getString("_id")), ((Number) document.get("revenue")).doubleValue());
+        }
+        return revenue;
+    }
+
+    public Map<Integer, Double> revenueByProduct(LocalDate from, LocalDate to) {
+        Map<Integer, Double> revenue = new LinkedHashMap<>();
+        for (Document document : dailyProduct.aggregate(Arrays.asList(
+                Aggregates.match(dayFilter(from, to)),
+                Aggregates.group("$productId", Accumulators.sum("revenue", "$revenue")),
+                Aggregates.sort(Sorts.descending("revenue"))))) {
+            revenue.put(((Number) document.get("_id")).intValue(), ((Number) document.get("revenue")).doubleValue());
+        }
+        return revenue;
+    }
+
+    // A null bound leaves that side of the window open.
+    private Bson dayFilter(LocalDate from, LocalDate to) {
+        List<Bson> filters = new ArrayList<>(2);
+        if (from != null) {
+            filters.add(Filters.gte("day", from.toString()));
+        }
+        if (to != null) {
+            filters.add(Filters.lte("day", to.toString()));
+        }
+        return filters.isEmpty() ? new Document() : Filters.and(filters);
+    }
+}
@@ -1,24 +1,75 @@
 package Contexts.Ticket.Infrastructure.MongoDB;
 
-import Contexts.Product.Domain.*;
+import Contexts.Product.Domain.ProductType;
 import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketLines;
 import Contexts.Ticket.Domain.TicketRepository;
 import Contexts.Ticket.Infrastructure.Exceptions.NoTicketsFoundException;
 import FlowerStore.FlowerStore;
 import Infrastructure.Connections.MongoDBConnection;
-import com.mongodb.client.FindIterable;
+import Infrastructure.Indexes.HotQuery;
+import Infrastructure.Indexes.IndexDefinition;
+import Infrastructure.Indexes.MongoIndexRegistry;
+import Infrastructure.Indexes.QueryPlan;
+import Infrastructure.Sequences.MongoSequence;
+import Utils.Primitive.Cents;
+import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
 import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class TicketRepositoryMongoDB implements TicketRepository {
+    private static final Logger logger = LoggerFactory.getLogger(TicketRepositoryMongoDB.class);
+    private static final int ID_BLOCK_SIZE = 20;
+    private static final int STREAM_BATCH_SIZE = 1000;
+    private static final String COLLECTION = "tickets";
+    private static final MongoIndexRegistry INDEXES = new MongoIndexRegistry()
+            .index(COLLECTION, IndexDefinition.uniqueAscending("ticketID_1", "ticketID"))
+            .index(COLLECTION, IndexDefinition.ascending("date_1", "date"))
+            .hotQuery(COLLECTION, new HotQuery("getLastTicket", new Document(), Sorts.descending("ticketID")))
+            .hotQuery(COLLECTION, new HotQuery("ticketsByDate", Filters.gte("date", new Date(0))))
+            .index(SalesRollupMongoDB.DAILY, IndexDefinition.ascending("day_1", "day"))
+            .index(SalesRollupMongoDB.DAILY_PRODUCT, IndexDefinition.ascending("day_1", "day"))
+            .index(SalesRollupMongoDB.DAILY_TYPE, IndexDefinition.ascending("day_1", "day"));
+
     private MongoCollection<Document> ticketCollection;
     private FlowerStore flowerStore;
+    private final MongoSequence ticketIds;
+    private final SalesRollupMongoDB salesRollup;
 
     public TicketRepositoryMongoDB(MongoDBConnection mongoDBConnection, FlowerStore flowerStore) {
-        this.ticketCollection = mongoDBConnection.mongoDatabase.getCollection("tickets");
+        this.ticketCollection = mongoDBConnection.mongoDatabase.getCollection(COLLECTION);
         this.flowerStore = flowerStore;
+        this.ticketIds = new MongoSequence(mongoDBConnection.mongoDatabase.getCollection("counters"),
+                "ticketID", ID_BLOCK_SIZE, this::maxTicketID);
+        this.salesRollup = new SalesRollupMongoDB(mongoDBConnection.mongoDatabase, ticketCollection);
+    }
+
+    @Override
+    public void initialize() {
+        INDEXES.ensureIndexes(ticketCollection);
+        for (MongoCollection<Document> rollup : salesRollup.getCollections()) {
+            INDEXES.ensureIndexes(rollup);
+        }
+        if (salesRollup.needsBackfill()) {
+            salesRollup.rebuild();
+        }
+        explainHotQueries();
+    }
+
+    public List<QueryPlan> explainHotQueries() {
+        return INDEXES.explainHotQueries(ticketCollection);
     }
 
     @Override
@@ -29,104 +80,137 @@ public class TicketRepositoryMongoDB implements TicketRepository {
     }
 
     public int nextTicketID() {
-        Document document = ticketCollection.find().sort(new Document("ticketID", -1)).first();
-        Ticket lastTicket = getLastTicket();
-        if (document == null) {
-            return 1;
-        } else {
-            return document.getInteger("ticketID") + 1;
-        }
+        return ticketIds.next();
     }
 
+    private int maxTicketID() {
+        Document document = ticketCollection.find()
+                .sort(Sorts.descending("ticketID"))
+                .projection(Projections.include("ticketID"))
+                .first();
+        return document == null ? 0 : document.getInteger("ticketID");
+    }
+
+    // Lines saved before ProductId was stored read back with id 0.
     private Ticket documentToTicket(Document document) {
         if (document == null) {
 
-            return new Ticket(0, new Date(), new HashMap<>(), 0.0);
+            return new Ticket(0, new Date(), new TicketLines(0), 0);
         }
         Integer ticketID = document.getInteger("ticketID");
         if (ticketID == null) {
             ticketID = 1;
         }
         Date date = document.getDate("date");
-        double totalPrice = document.getDouble("totalPrice");
+        long totalInCents = Cents.fromEuros(document.getDouble("totalPrice"));
 
-        Map<Product, Integer> products = new HashMap<>();
         List<Document> productsInfo = (List<Document>) document.get("products");
+        TicketLines lines = new TicketLines(productsInfo.size());
         for (Document productInfo : productsInfo) {
-            String name = productInfo.getString("Name");
             String type = productInfo.getString("Type");
-            String features = productInfo.getString("Features");
-            int quantity = productInfo.getInteger("Quantity");
-            double price = productInfo.getDouble("Price");
-
-            Product product;
-            if (type.equals(ProductType.FLOWER.toString())) {
-                product = new Flower<>(name, quantity, price, features);
-            } else if (type.equals(ProductType.DECORATION.toString())) {
-                product = new Decoration<>(name, quantity, price, features);
-            } else if (type.equals(ProductType.TREE.toString())) {
-                product = new Tree<>(name, quantity, price, Double.parseDouble(features));
-            } else {
+            try {
+                lines.add(productInfo.getInteger("ProductId", 0), ProductType.valueOf(type), productInfo.getString("Name"),
+                        productInfo.getInteger("Quantity"), Cents.fromEuros(productInfo.getDouble("Price")));
+            } catch (IllegalArgumentException e) {
                 throw new IllegalArgumentException("Invalid product type : " + type);
             }
-
-            products.put(product, quantity);
         }
-        return new Ticket(ticketID, date, products, totalPrice);
+        return new Ticket(ticketID, date, lines, totalInCents);
     }
 
     @Override
-    public void newTicket(Ticket ticket) {
+    public Ticket newTicket(Ticket ticket) {
 
         List<Document> productList = new ArrayList<>();
-        Map<Product, Integer> ticketInfo = ticket.getProducts();
-
-        for (Map.Entry<Product, Integer> entry : ticketInfo.entrySet()) {
-            Product product = entry.getKey();
-            int quantity = entry.getValue();
-
-            productList.add(new Document("Name", product.getName())
-                    .append("Type", product.getType().toString())
-                    .append("Features", product.getAttributes().toString())
-                    .append("Quantity", quantity)
-                    .append("Price", product.getPrice()));
+        TicketLines lines = ticket.getLines();
+
+        for (int line = 0; line < lines.size(); line++) {
+            productList.add(new Document("ProductId", lines.productId(line))
+                    .append("Name", lines.name(line))
+                    .append("Type", lines.type(line).toString())
+                    .append("Quantity", lines.quantity(line))
+                    .append("Price", Cents.toEuros(lines.priceInCents(line))));
         }
 
-        Document newTicket = new Document("ticketID", nextTicketID())
+        ticket.setTicketID(nextTicketID());
+        Document newTicket = new Document("ticketID", ticket.getTicketID())
                 .append("date", ticket.getDate())
                 .append("products", productList)
                 .append("totalPrice", ticket.getTotal());
 
         ticketCollection.insertOne(newTicket);
+        // Without a replica set there is no multi-document transaction. The ticket is already saved at this
+        // point, so a failed rollup must not fail the sale; "Rebuild sales reports" in the menu repairs it.
+        try {
+            salesRollup.record(ticket);
+        } catch (MongoException e) {
+            logger.error("Sales rollups not updated for ticket " + ticket.getTicketID(), e);
+        }
+        return ticket;
     }
 
     @Override
     public List<Ticket> getAllTickets() throws NoTicketsFoundException {
-        List<Ticket> tickets = new ArrayList<>();
-        FindIterable<Document> cursor = ticketCollection.find();
-        boolean flagTickets = false;
-
-        for (Document document : cursor) {
-            Ticket ticket = documentToTicket(document);
-            tickets.add(ticket);
-            flagTickets = true;
+        List<Ticket> tickets;
+        try (Stream<Ticket> stream = streamAllTickets()) {
+            tickets = stream.collect(Collectors.toList());
         }
-
-        if (!flagTickets) {
+        if (tickets.isEmpty()) {
             throw new NoTicketsFoundException("No tickets found in the database.");
         }
         return tickets;
     }
 
     @Override
-    public void getAllSales(List<Ticket> tickets) {
+    public Stream<Ticket> streamAllTickets() {
+        MongoCursor<Document> cursor = ticketCollection.find()
+                .sort(Sorts.ascending("ticketID"))
+                .batchSize(STREAM_BATCH_SIZE)
+                .cursor();
+        Spliterator<Document> documents = Spliterators.spliteratorUnknownSize(cursor,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(documents, false)
+                .map(this::documentToTicket)
+                .onClose(cursor::close);
+    }
 
-        double totalSales = 0;
-        for (Ticket ticket : tickets) {
-            totalSales += ticket.getTotal();
-        }
+    @Override
+    public double getTotalRevenue() {
+        return salesRollup.revenueBetween(null, null);
+    }
+
+    @Override
+    public double getRevenueBetween(LocalDate from, LocalDate to) {
+        return salesRollup.revenueBetween(from, to);
+    }
+
+    @Override
+    public SortedMap<LocalDate, Double> getRevenueByDay(LocalDate from, LocalDate to) {
+        return salesRollup.revenueByDay(from, to);
+    }
+
+    @Override
+    public Map<ProductType, Double> getRevenueByType() {
+        return salesRollup.revenueByType(null, null);
+    }
 
-        System.out.println("The total sales of the FlowerShop "
-                + FlowerStore.getNameStore() + " have a value of: " + totalSales + "€.");
+    @Override
+    public Map<ProductType, Double> getRevenueByType(LocalDate from, LocalDate to) {
+        return salesRollup.revenueByType(from, to);
+    }
+
+    @Override
+    public Map<Integer, Double> getRevenueByProduct() {
+        return salesRollup.revenueByProduct(null, null);
+    }
+
+    @Override
+    public Map<Integer, Double> getRevenueByProduct(LocalDate from, LocalDate to) {
+        return salesRollup.revenueByProduct(from, to);
+    }
+
+    @Override
+    public void rebuildSalesRollups() {
+        salesRollup.rebuild();
     }
 }
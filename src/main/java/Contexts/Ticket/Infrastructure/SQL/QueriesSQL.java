@@ -2,31 +2,74 @@ package Contexts.Ticket.Infrastructure.SQL;
 
 public class QueriesSQL {
 
-    public static final String SQL_SELECT_DISTINCT_TICKETS = "SELECT DISTINCT t.idticket, t.date, t.totalPrice " +
+    public static final String SQL_INSERT_TICKET = "INSERT INTO ticket(date, totalPrice) VALUES(?, ?)";
+
+    public static final String SQL_INSERT_PRODUCT_TICKET = "INSERT INTO product_ticket(ticket_idticket, product_idproduct, amount, unit_price, name, type) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Reports read the daily rollups, whose size depends on the number of days and products sold, not tickets.
+    public static final String SQL_REVENUE_BETWEEN = "SELECT COALESCE(SUM(revenue), 0) AS revenue FROM sales_daily " +
+            "WHERE day BETWEEN ? AND ?";
+
+    public static final String SQL_REVENUE_BY_DAY = "SELECT day, revenue FROM sales_daily " +
+            "WHERE day BETWEEN ? AND ? ORDER BY day";
+
+    public static final String SQL_REVENUE_BY_TYPE = "SELECT type, SUM(revenue) AS revenue FROM sales_daily_type " +
+            "WHERE day BETWEEN ? AND ? GROUP BY type";
+
+    public static final String SQL_REVENUE_BY_PRODUCT = "SELECT product_idproduct AS idproduct, SUM(revenue) AS revenue " +
+            "FROM sales_daily_product WHERE day BETWEEN ? AND ? GROUP BY product_idproduct ORDER BY revenue DESC";
+
+    public static final String SQL_UPSERT_SALES_DAILY = "INSERT INTO sales_daily(day, tickets, revenue) VALUES (?, 1, ?) " +
+            "ON DUPLICATE KEY UPDATE tickets = tickets + 1, revenue = revenue + VALUES(revenue)";
+
+    public static final String SQL_UPSERT_SALES_DAILY_PRODUCT = "INSERT INTO sales_daily_product(day, product_idproduct, units, revenue) " +
+            "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE units = units + VALUES(units), revenue = revenue + VALUES(revenue)";
+
+    public static final String SQL_UPSERT_SALES_DAILY_TYPE = "INSERT INTO sales_daily_type(day, type, units, revenue) " +
+            "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE units = units + VALUES(units), revenue = revenue + VALUES(revenue)";
+
+    public static final String SQL_ROLLUPS_NEED_BACKFILL = "SELECT EXISTS(SELECT 1 FROM ticket) " +
+            "AND (NOT EXISTS(SELECT 1 FROM sales_daily) OR NOT EXISTS(SELECT 1 FROM sales_daily_product) " +
+            "OR NOT EXISTS(SELECT 1 FROM sales_daily_type)) AS backfill";
+
+    public static final String[] SQL_CLEAR_ROLLUPS = {
+            "DELETE FROM sales_daily",
+            "DELETE FROM sales_daily_product",
+            "DELETE FROM sales_daily_type"};
+
+    // Lines written before they stored their own price and type fall back to the current product.
+    private static final String LINE_UNITS_AND_REVENUE = "SUM(pt.amount), SUM(pt.amount * COALESCE(pt.unit_price, p.price)) " +
             "FROM ticket t " +
             "INNER JOIN product_ticket pt ON t.idticket = pt.ticket_idticket " +
-            "INNER JOIN product p ON pt.product_idproduct = p.idproduct;";
-    public static final String SQL_INSERT_TICKET = "INSERT INTO ticket(date, totalPrice) VALUES(?, ?)";
+            "LEFT JOIN product p ON pt.product_idproduct = p.idproduct " +
+            "WHERE t.date IS NOT NULL ";
 
-    public static final String SQL_INSERT_PRODUCT_TICKET = "INSERT INTO product_ticket(ticket_idticket, product_idproduct, amount) VALUES (?, ?, ?)";
+    // A line with no type left can't be filed under one; it still counts towards its day and product.
+    public static final String[] SQL_REBUILD_ROLLUPS = {
+            "INSERT INTO sales_daily(day, tickets, revenue) " +
+                    "SELECT DATE(date), COUNT(*), SUM(totalPrice) FROM ticket WHERE date IS NOT NULL GROUP BY DATE(date)",
+            "INSERT INTO sales_daily_product(day, product_idproduct, units, revenue) " +
+                    "SELECT DATE(t.date), pt.product_idproduct, " + LINE_UNITS_AND_REVENUE +
+                    "GROUP BY DATE(t.date), pt.product_idproduct",
+            "INSERT INTO sales_daily_type(day, type, units, revenue) " +
+                    "SELECT DATE(t.date), COALESCE(pt.type, p.type), " + LINE_UNITS_AND_REVENUE +
+                    "AND COALESCE(pt.type, p.type) IS NOT NULL GROUP BY DATE(t.date), COALESCE(pt.type, p.type)"};
 
-    public static final String SQL_SELECT_LAST_TICKET = "SELECT t.idticket, t.date, t.totalPrice, p.idproduct, p.name, p.quantity, p.price, p.type, " +
-            "COALESCE(f.color, tr.height, d.material) AS attribute, pt.amount " +
+    // Every line of every ticket, ordered so the lines of a ticket are contiguous and can be grouped while reading.
+    // The price, name and type stored with the line, or the current product's for lines written before the
+    // line kept them.
+    private static final String SQL_SELECT_TICKET_LINES = "SELECT t.idticket, t.date, t.totalPrice, pt.idproduct_ticket, pt.amount, " +
+            "pt.product_idproduct, COALESCE(pt.unit_price, p.price) AS unit_price, " +
+            "COALESCE(pt.name, p.name) AS name, COALESCE(pt.type, p.type) AS type " +
             "FROM ticket t " +
             "INNER JOIN product_ticket pt ON t.idticket = pt.ticket_idticket " +
-            "INNER JOIN product p ON pt.product_idproduct = p.idproduct " +
-            "LEFT JOIN flower f ON p.idproduct = f.product_idproduct " +
-            "LEFT JOIN decoration d ON p.idproduct = d.product_idproduct " +
-            "LEFT JOIN tree tr ON p.idproduct = tr.product_idproduct " +
-            "ORDER BY idticket DESC LIMIT 1";
-
-    public static final String SQL_SELECT_PRODUCT_TICKET = "SELECT pt.idproduct_ticket, pt.amount, p.idproduct, p.name, p.quantity, p.price, p.type, pt.ticket_idticket, " +
-            "COALESCE(f.color, tr.height, d.material) AS attribute " +
-            "FROM product_ticket pt " +
-            "INNER JOIN ticket t ON pt.ticket_idticket = t.idticket " +
-            "INNER JOIN product p ON pt.product_idproduct = p.idproduct " +
-            "LEFT JOIN flower f ON p.idproduct = f.product_idproduct " +
-            "LEFT JOIN decoration d ON p.idproduct = d.product_idproduct " +
-            "LEFT JOIN tree tr ON p.idproduct = tr.product_idproduct " +
-            "WHERE t.idticket = ?";
+            "LEFT JOIN product p ON pt.product_idproduct = p.idproduct ";
+
+    public static final String SQL_SELECT_ALL_TICKET_LINES = SQL_SELECT_TICKET_LINES +
+            "ORDER BY t.idticket, pt.idproduct_ticket";
+
+    public static final String SQL_SELECT_LAST_TICKET = SQL_SELECT_TICKET_LINES +
+            "WHERE t.idticket = (SELECT MAX(idticket) FROM ticket) " +
+            "ORDER BY pt.idproduct_ticket";
 }
@@ -0,0 +1,90 @@
+package Contexts.Ticket.Infrastructure.SQL;
+
+import Contexts.Product.Domain.ProductType;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketLines;
+import Utils.Primitive.Cents;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Keeps sales_daily, sales_daily_product and sales_daily_type up to date. All methods run on the caller's
+// connection, so every rollup row commits or rolls back together with the ticket. The day rows are the last
+// statements of the checkout, which keeps their locks as short as the transaction allows.
+public class SalesRollupSQL {
+
+    private static final ProductType[] TYPES = ProductType.values();
+
+    public static void record(Connection connection, Ticket ticket) throws SQLException {
+        Date day = Date.valueOf(ticket.getDay());
+
+        TicketLines lines = ticket.getLines();
+        try (PreparedStatement statement = connection.prepareStatement(QueriesSQL.SQL_UPSERT_SALES_DAILY_PRODUCT)) {
+            for (int line = 0; line < lines.size(); line++) {
+                statement.setDate(1, day);
+                statement.setInt(2, lines.productId(line));
+                statement.setInt(3, lines.quantity(line));
+                statement.setDouble(4, Cents.toEuros(lines.revenueInCents(line)));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+
+        long[] count = new long[TYPES.length];
+        long[] units = new long[TYPES.length];
+        long[] revenue = new long[TYPES.length];
+        lines.sumByType(count, units, revenue);
+        try (PreparedStatement statement = connection.prepareStatement(QueriesSQL.SQL_UPSERT_SALES_DAILY_TYPE)) {
+            for (ProductType type : TYPES) {
+                if (count[type.ordinal()] == 0) {
+                    continue;
+                }
+                statement.setDate(1, day);
+                statement.setString(2, type.name());
+                statement.setInt(3, (int) units[type.ordinal()]);
+                statement.setDouble(4, Cents.toEuros(revenue[type.ordinal()]));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(QueriesSQL.SQL_UPSERT_SALES_DAILY)) {
+            statement.setDate(1, day);
+            statement.setDouble(2, ticket.getTotal());
+            statement.executeUpdate();
+        }
+    }
+
+    public static boolean needsBackfill(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(QueriesSQL.SQL_ROLLUPS_NEED_BACKFILL);
+             ResultSet rs = statement.executeQuery()) {
+            return rs.next() && rs.getBoolean("backfill");
+        }
+    }
+
+    // Recomputes every rollup from the ticket history. Runs in its own transaction.
+    public static void rebuild(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            for (String query : QueriesSQL.SQL_CLEAR_ROLLUPS) {
+                try (PreparedStatement statement = connection.prepareStatement(query)) {
+                    statement.executeUpdate();
+                }
+            }
+            for (String query : QueriesSQL.SQL_REBUILD_ROLLUPS) {
+                try (PreparedStatement statement = connection.prepareStatement(query)) {
+                    statement.executeUpdate();
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+}
@@ -1,175 +1,317 @@
 package Contexts.Ticket.Infrastructure.SQL;
 
-import Contexts.Product.Domain.*;
+import Contexts.Product.Domain.ProductType;
 import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketLines;
 import Contexts.Ticket.Domain.TicketRepository;
 import Contexts.Ticket.Infrastructure.Exceptions.NoTicketsFoundException;
-import FlowerStore.FlowerStore;
 import Infrastructure.Connections.MySQLConnection;
+import Utils.Primitive.Cents;
 
 import java.sql.*;
 import java.sql.Date;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static Infrastructure.Connections.MySQLConnection.getMySQLDatabase;
 
 public class TicketRepositorySQL implements TicketRepository {
 
+    // Bounds of the MySQL DATE type, used for reports over the whole history.
+    private static final LocalDate FIRST_DAY = LocalDate.of(1000, 1, 1);
+    private static final LocalDate LAST_DAY = LocalDate.of(9999, 12, 31);
+    private static final String MYSQL = "MySQL";
+
     private MySQLConnection mySQLConnection;
 
     public TicketRepositorySQL(MySQLConnection mySQLConnection) {
         this.mySQLConnection = mySQLConnection;
     }
 
+    // The ticket and rollup tables are created by ProductRepositorySQL.initialize(). Rollups are backfilled when
+    // a database with ticket history has any of them empty.
     @Override
-    public void newTicket(Ticket newTicket) {
-        try {
-            Connection connection = getMySQLDatabase();
-            PreparedStatement statement = connection.prepareStatement(QueriesSQL.SQL_INSERT_TICKET, Statement.RETURN_GENERATED_KEYS);
-            java.util.Date utilDate = newTicket.getDate();
-
-            statement.setTimestamp(1, new java.sql.Timestamp(utilDate.getTime()));
-            statement.setDouble(2, newTicket.getTotal());
-            statement.executeUpdate();
-            ResultSet generateKey = statement.getGeneratedKeys();
+    public void initialize() {
+        try (Connection connection = getMySQLDatabase()) {
+            if (SalesRollupSQL.needsBackfill(connection)) {
+                SalesRollupSQL.rebuild(connection);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
+        }
+    }
 
-            if (generateKey.next()) {
-                int ticketId = generateKey.getInt(1);
+    // One transaction: the header insert, every line in a single batch and the rollups. Returns the ticket with
+    // its generated id, or null if nothing was written.
+    @Override
+    public Ticket newTicket(Ticket newTicket) {
+        try (Connection connection = getMySQLDatabase()) {
+            connection.setAutoCommit(false);
+            try {
+                int ticketId = insertTicket(connection, newTicket);
+                insertTicketLines(connection, ticketId, newTicket.getLines());
+                SalesRollupSQL.record(connection, newTicket);
+                connection.commit();
                 newTicket.setTicketID(ticketId);
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            return newTicket;
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
+        }
+        return null;
+    }
 
-                Map<Product, Integer> products = newTicket.getProducts();
-                for (Map.Entry<Product, Integer> entry : products.entrySet()) {
-                    Product product = entry.getKey();
-                    Integer quantity = entry.getValue();
+    private int insertTicket(Connection connection, Ticket ticket) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(QueriesSQL.SQL_INSERT_TICKET, Statement.RETURN_GENERATED_KEYS)) {
+            statement.setTimestamp(1, new Timestamp(ticket.getDate().getTime()));
+            statement.setDouble(2, ticket.getTotal());
+            statement.executeUpdate();
 
-                    PreparedStatement statementProductTicket = connection.prepareStatement(QueriesSQL.SQL_INSERT_PRODUCT_TICKET);
-                    statementProductTicket.setInt(1, ticketId);
-                    statementProductTicket.setInt(2, product.getProductId());
-                    statementProductTicket.setInt(3, quantity);
-                    statementProductTicket.executeUpdate();
+            try (ResultSet generateKey = statement.getGeneratedKeys()) {
+                if (!generateKey.next()) {
+                    throw new SQLException("The creation of the ticket failed, failed to obtain the generated ID.");
                 }
-            } else {
-                throw new SQLException("The creation of the ticket failed, failed to obtain the generated ID.");
+                return generateKey.getInt(1);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        }
+    }
+
+    private void insertTicketLines(Connection connection, int ticketId, TicketLines lines) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(QueriesSQL.SQL_INSERT_PRODUCT_TICKET)) {
+            for (int line = 0; line < lines.size(); line++) {
+                statement.setInt(1, ticketId);
+                statement.setInt(2, lines.productId(line));
+                statement.setInt(3, lines.quantity(line));
+                statement.setDouble(4, Cents.toEuros(lines.priceInCents(line)));
+                statement.setString(5, lines.name(line));
+                statement.setString(6, lines.type(line).name());
+                statement.addBatch();
+            }
+            statement.executeBatch();
         }
     }
 
     @Override
     public List<Ticket> getAllTickets() throws NoTicketsFoundException {
-        List<Ticket> tickets = new ArrayList<>();
+        List<Ticket> tickets;
+        try (Stream<Ticket> stream = streamAllTickets()) {
+            tickets = stream.collect(Collectors.toList());
+        }
+        if (tickets.isEmpty()) {
+            throw new NoTicketsFoundException("No tickets found in the database.");
+        }
+        return tickets;
+    }
+
+    // A single query for the whole history. Rows are streamed from the server and grouped into tickets as
+    // they arrive, so only the ticket being built is held in memory. The stream must be closed to release
+    // its connection.
+    @Override
+    public Stream<Ticket> streamAllTickets() {
+        Connection connection = null;
         try {
-            Connection connection = getMySQLDatabase();
-            PreparedStatement statement = connection.prepareStatement(QueriesSQL.SQL_SELECT_DISTINCT_TICKETS);
-            ResultSet resultSet = statement.executeQuery();
-            boolean flagTickets = false;
-
-            while (resultSet.next()) {
-                Ticket ticket = resultSetToTicket(resultSet);
-                tickets.add(ticket);
-                flagTickets = true;
-            }
-            if (!flagTickets) {
-                throw new NoTicketsFoundException("No tickets found in the database.");
+            connection = getMySQLDatabase();
+            PreparedStatement statement = connection.prepareStatement(QueriesSQL.SQL_SELECT_ALL_TICKET_LINES,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J's hint to stream rows one at a time; other drivers reject a negative fetch size.
+            if (MYSQL.equals(connection.getMetaData().getDatabaseProductName())) {
+                statement.setFetchSize(Integer.MIN_VALUE);
             }
+            ResultSet rs = statement.executeQuery();
+            Connection streamConnection = connection;
+            return StreamSupport.stream(new TicketSpliterator(rs), false)
+                    .onClose(() -> closeQuietly(rs, statement, streamConnection));
         } catch (SQLException e) {
             e.printStackTrace(System.out);
+            closeQuietly(connection);
+            return Stream.empty();
         }
-        return tickets;
     }
 
     @Override
     public Ticket getLastTicket() {
         Ticket lastTicket = null;
-        try {
-            Connection connection = getMySQLDatabase();
-            PreparedStatement statement = connection.prepareStatement(QueriesSQL.SQL_SELECT_LAST_TICKET);
-            ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                lastTicket = resultSetToTicket(resultSet);
-            }
+        try (Connection connection = getMySQLDatabase();
+             PreparedStatement statement = connection.prepareStatement(QueriesSQL.SQL_SELECT_LAST_TICKET);
+             ResultSet resultSet = statement.executeQuery()) {
+            TicketSpliterator tickets = new TicketSpliterator(resultSet);
+            tickets.tryAdvance(ticket -> {});
+            lastTicket = tickets.last;
         } catch (SQLException e) {
             e.printStackTrace(System.out);
         }
         return lastTicket;
     }
 
-    private Ticket resultSetToTicket(ResultSet resultSet) {
-        Ticket ticket = null;
-        try {
-            ticket = createTicketFromResultSet(resultSet);
-        } catch (SQLException e) {
-            e.printStackTrace(System.out);
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            try {
+                if (resource != null) {
+                    resource.close();
+                }
+            } catch (Exception e) {
+                e.printStackTrace(System.out);
+            }
         }
-        return ticket;
     }
 
-    private Ticket createTicketFromResultSet(ResultSet resultSet) throws SQLException {
-        int ticketID = resultSet.getInt("idticket");
-        Timestamp timestamp = resultSet.getTimestamp("date");
-        Date date = new Date(timestamp.getTime());
-        double total = resultSet.getDouble("totalPrice");
-        Map<Product, Integer> products = getProductsFromResultSet(ticketID);
-        return new Ticket(ticketID, date, products, total);
-    }
+    // Groups consecutive rows with the same idticket into one Ticket. The first row of the next ticket has
+    // already been read when a ticket is emitted, so it is kept as the start of the following one.
+    private class TicketSpliterator extends Spliterators.AbstractSpliterator<Ticket> {
+        private final ResultSet rs;
+        private boolean started;
+        private boolean hasRow;
+        private Ticket last;
 
-    private Map<Product, Integer> getProductsFromResultSet(int ticketID) throws SQLException {
-        Map<Product, Integer> products = new HashMap<>();
-        try (Connection connection = getMySQLDatabase();
-             PreparedStatement productStatement = connection.prepareStatement(QueriesSQL.SQL_SELECT_PRODUCT_TICKET)) {
-            productStatement.setInt(1, ticketID);
-            try (ResultSet productRs = productStatement.executeQuery()) {
-                while (productRs.next()) {
-                    Product product = createProductFromResultSet(productRs);
-                    int quantity = productRs.getInt("amount");
-                    products.put(product, quantity);
+        private TicketSpliterator(ResultSet rs) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.rs = rs;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Ticket> action) {
+            try {
+                if (!started) {
+                    started = true;
+                    hasRow = rs.next();
+                }
+                if (!hasRow) {
+                    return false;
                 }
+                int ticketID = rs.getInt("idticket");
+                Date date = new Date(rs.getTimestamp("date").getTime());
+                long totalInCents = Cents.fromEuros(rs.getDouble("totalPrice"));
+                TicketLines lines = new TicketLines(4);
+                do {
+                    ProductType type = productType(rs.getString("type"));
+                    if (type != null) {
+                        lines.add(rs.getInt("product_idproduct"), type, rs.getString("name"),
+                                rs.getInt("amount"), Cents.fromEuros(rs.getDouble("unit_price")));
+                    }
+                    hasRow = rs.next();
+                } while (hasRow && rs.getInt("idticket") == ticketID);
+
+                last = new Ticket(ticketID, date, lines, totalInCents);
+                action.accept(last);
+                return true;
+            } catch (SQLException e) {
+                e.printStackTrace(System.out);
+                return false;
             }
         }
-        return products;
     }
 
-    private Product createProductFromResultSet(ResultSet productRs) throws SQLException {
-        int productId = productRs.getInt("idproduct");
-        String name = productRs.getString("name");
-        int quantity = productRs.getInt("quantity");
-        double price = productRs.getDouble("price");
-        String typeString = productRs.getString("type");
-        String attribute = productRs.getString("attribute");
+    // Null for a line that has neither its own type nor a product to take it from, which only a line whose
+    // product was deleted before the upgrade backfill could be. Such lines are skipped.
+    private static ProductType productType(String type) {
+        return type == null ? null : ProductType.valueOf(type);
+    }
+
+    @Override
+    public int nextTicketID() {
+        return 0;
+    }
 
-        ProductType type = ProductType.valueOf(typeString);
+    @Override
+    public double getTotalRevenue() {
+        return getRevenueBetween(FIRST_DAY, LAST_DAY);
+    }
+
+    @Override
+    public double getRevenueBetween(LocalDate from, LocalDate to) {
+        try (Connection connection = getMySQLDatabase();
+             PreparedStatement statement = windowStatement(connection, QueriesSQL.SQL_REVENUE_BETWEEN, from, to);
+             ResultSet rs = statement.executeQuery()) {
+            if (rs.next()) {
+                return rs.getDouble("revenue");
+            }
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
+        }
+        return 0;
+    }
 
-        Product product;
-        if (type == ProductType.FLOWER) {
-            product = new Flower<>(productId, name, quantity, price, attribute);
-        } else if (type == ProductType.DECORATION) {
-            product = new Decoration<>(productId, name, quantity, price, attribute);
-        } else if (type == ProductType.TREE) {
-            product = new Tree<>(productId, name, quantity, price, Double.parseDouble(attribute));
-        } else {
-            throw new IllegalArgumentException("Invalid product type : " + typeString);
+    @Override
+    public SortedMap<LocalDate, Double> getRevenueByDay(LocalDate from, LocalDate to) {
+        SortedMap<LocalDate, Double> revenue = new TreeMap<>();
+        try (Connection connection = getMySQLDatabase();
+             PreparedStatement statement = windowStatement(connection, QueriesSQL.SQL_REVENUE_BY_DAY, from, to);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                revenue.put(rs.getDate("day").toLocalDate(), rs.getDouble("revenue"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
         }
+        return revenue;
+    }
 
-        return product;
+    @Override
+    public Map<ProductType, Double> getRevenueByType() {
+        return getRevenueByType(FIRST_DAY, LAST_DAY);
     }
 
+    @Override
+    public Map<ProductType, Double> getRevenueByType(LocalDate from, LocalDate to) {
+        Map<ProductType, Double> revenue = new EnumMap<>(ProductType.class);
+        try (Connection connection = getMySQLDatabase();
+             PreparedStatement statement = windowStatement(connection, QueriesSQL.SQL_REVENUE_BY_TYPE, from, to);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                ProductType type = productType(rs.getString("type"));
+                if (type != null) {
+                    revenue.put(type, rs.getDouble("revenue"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
+        }
+        return revenue;
+    }
 
     @Override
-    public int nextTicketID() {
-        return 0;
+    public Map<Integer, Double> getRevenueByProduct() {
+        return getRevenueByProduct(FIRST_DAY, LAST_DAY);
     }
 
     @Override
-    public void getAllSales(List<Ticket> tickets) {
-        double totalSales = 0;
-        for (Ticket ticket : tickets) {
-            totalSales += ticket.getTotal();
+    public Map<Integer, Double> getRevenueByProduct(LocalDate from, LocalDate to) {
+        Map<Integer, Double> revenue = new LinkedHashMap<>();
+        try (Connection connection = getMySQLDatabase();
+             PreparedStatement statement = windowStatement(connection, QueriesSQL.SQL_REVENUE_BY_PRODUCT, from, to);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                revenue.put(rs.getInt("idproduct"), rs.getDouble("revenue"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
         }
+        return revenue;
+    }
 
-        System.out.println("The total sales of the FlowerShop "
-                + FlowerStore.getNameStore() + " have a value of: " + totalSales + "€.");
+    private PreparedStatement windowStatement(Connection connection, String query, LocalDate from, LocalDate to)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(query);
+        statement.setDate(1, Date.valueOf(from));
+        statement.setDate(2, Date.valueOf(to));
+        return statement;
     }
 
+    @Override
+    public void rebuildSalesRollups() {
+        try (Connection connection = getMySQLDatabase()) {
+            SalesRollupSQL.rebuild(connection);
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
+        }
+    }
 }
-
@@ -1,7 +1,14 @@
 import Contexts.Product.Domain.ProductsRepository;
+import Contexts.Product.Infrastructure.Cache.CachePolicy;
+import Contexts.Product.Infrastructure.Cache.ProductRepositoryCache;
+import Contexts.Product.Infrastructure.Memory.ProductRepositoryMemory;
 import Contexts.Product.Infrastructure.MongoDB.ProductRepositoryMongoDB;
 import Contexts.Product.Infrastructure.SQL.ProductRepositorySQL;
+import Contexts.Product.Infrastructure.Snapshot.ProductRepositorySnapshot;
 import Contexts.Ticket.Domain.TicketRepository;
+import Contexts.Ticket.Infrastructure.Log.FsyncPolicy;
+import Contexts.Ticket.Infrastructure.Log.TicketRepositoryLog;
+import Contexts.Ticket.Infrastructure.Memory.TicketRepositoryMemory;
 import Contexts.Ticket.Infrastructure.MongoDB.TicketRepositoryMongoDB;
 import Contexts.Ticket.Infrastructure.SQL.TicketRepositorySQL;
 import FlowerStore.FlowerStore;
@@ -10,6 +17,9 @@ import Infrastructure.Connections.MySQLConnection;
 import Utils.InputControl.InputControl;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.nio.file.Paths;
+import java.time.Duration;
+
 public class Demo implements Runnable {
 
     private static FlowerStore flowerStore;
@@ -17,6 +27,8 @@ public class Demo implements Runnable {
     private MySQLConnection mySQLConnection;
     private static ProductsRepository productsRepository;
     private static TicketRepository ticketRepository;
+    private static final Duration CATALOG_REFRESH = Duration.ofMinutes(5);
+    private static final Duration CATALOG_SNAPSHOT = Duration.ofMinutes(1);
 
 
     public Demo() {
@@ -30,6 +42,18 @@ public class Demo implements Runnable {
     @Override
     public void run() {
         productsRepository.initialize();
+        if (productsRepository instanceof ProductRepositorySnapshot) {
+            // The ticket tables are set up with the catalog's, so they wait for the database to be reconciled.
+            // If that fails the tickets are initialized anyway and report their own errors.
+            ((ProductRepositorySnapshot) productsRepository).reconciled().whenComplete((ignored, failure) -> {
+                if (failure != null) {
+                    System.err.println("The catalog could not be reconciled with the database: " + failure.getMessage());
+                }
+                ticketRepository.initialize();
+            });
+        } else {
+            ticketRepository.initialize();
+        }
         menu();
     }
 
@@ -38,18 +62,28 @@ public class Demo implements Runnable {
     }
 
     public Pair<ProductsRepository, TicketRepository> configureRepository(String nameStore) {
-        String userDatabase = InputControl.readString("Select the database you would like to work with (MySQL or MongoDB)");
+        String userDatabase = InputControl.readString("Select the database you would like to work with (MySQL, MongoDB, Memory or File)");
         Pair<ProductsRepository, TicketRepository> repositories;
         if (userDatabase.equalsIgnoreCase("MongoDB")) {
             MongoDBConnection mongoDBConnection = new MongoDBConnection(nameStore);
-            productsRepository = new ProductRepositoryMongoDB(mongoDBConnection);
+            productsRepository = catalogFor(new ProductRepositoryMongoDB(mongoDBConnection), nameStore);
             ticketRepository = new TicketRepositoryMongoDB(mongoDBConnection, flowerStore);
             repositories = Pair.of(productsRepository, ticketRepository);
         } else if (userDatabase.equalsIgnoreCase("MySQL")) {
             MySQLConnection mySQLConnection = new MySQLConnection(nameStore);
-            productsRepository = new ProductRepositorySQL(mySQLConnection, nameStore);
+            productsRepository = catalogFor(new ProductRepositorySQL(mySQLConnection, nameStore), nameStore);
             ticketRepository = new TicketRepositorySQL(mySQLConnection);
             repositories = Pair.of(productsRepository, ticketRepository);
+        } else if (userDatabase.equalsIgnoreCase("Memory")) {
+            // Nothing is persisted: the store starts from the primary stock on every run.
+            productsRepository = new ProductRepositoryMemory();
+            ticketRepository = new TicketRepositoryMemory();
+            repositories = Pair.of(productsRepository, ticketRepository);
+        } else if (userDatabase.equalsIgnoreCase("File")) {
+            // Tickets are kept in a local log; the catalog starts from the primary stock like Memory.
+            productsRepository = new ProductRepositoryMemory();
+            ticketRepository = new TicketRepositoryLog(Paths.get("data", nameStore, "tickets"), FsyncPolicy.groupCommit());
+            repositories = Pair.of(productsRepository, ticketRepository);
         } else {
             System.err.println("This database type is not valid");
             repositories = configureRepository(nameStore);
@@ -57,9 +91,18 @@ public class Demo implements Runnable {
         return repositories;
     }
 
+    // With a local snapshot the catalog is served from disk at startup and reconciled with the database in the
+    // background; otherwise it's cached and reloaded from the database periodically.
+    private ProductsRepository catalogFor(ProductsRepository database, String nameStore) {
+        if (InputControl.readBoolean("Keep a local catalog snapshot for fast restarts? (yes or not) ")) {
+            return new ProductRepositorySnapshot(database, Paths.get("data", nameStore, "catalog"), CATALOG_SNAPSHOT);
+        }
+        return new ProductRepositoryCache(database, CachePolicy.refreshAfter(CATALOG_REFRESH));
+    }
+
 
     private int showMenu() {
-        final int MAX_OPTIONS = 10;
+        final int MAX_OPTIONS = 13;
 
         int selectAction = InputControl.readIntInRange(
                 "\nType of action \n" +
@@ -72,7 +115,10 @@ public class Demo implements Runnable {
                         "7. Create ticket. \n" +
                         "8. Show all tickets. \n" +
                         "9. Show flower shop benefits. \n" +
-                        "10. Exit flower shop.", MAX_OPTIONS);
+                        "10. Import catalog from file. \n" +
+                        "11. Start HTTP server. \n" +
+                        "12. Rebuild sales reports. \n" +
+                        "13. Exit flower shop.", MAX_OPTIONS);
 
         return selectAction;
     }
@@ -112,6 +158,15 @@ public class Demo implements Runnable {
                     flowerStore.shopBenefits();
                     break;
                 case 10:
+                    flowerStore.importCatalog();
+                    break;
+                case 11:
+                    flowerStore.startHttpServer();
+                    break;
+                case 12:
+                    flowerStore.rebuildSalesReports();
+                    break;
+                case 13:
                     exit();
                     break;
             }
@@ -119,9 +174,22 @@ public class Demo implements Runnable {
     }
     private void exit() {
         System.out.println("\n** GoodBye! **\n");
+        flowerStore.stopHttpServer();
+        close(productsRepository);
+        close(ticketRepository);
         System.exit(0);
         mongoDBConnection.disconnectMongo();
         mySQLConnection.disconnectMySQL();
     }
-}
 
+    // The file-backed repositories force their logs and take a last snapshot on close.
+    private static void close(Object repository) {
+        if (repository instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) repository).close();
+            } catch (Exception e) {
+                e.printStackTrace(System.out);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package FlowerStore.Checkout;
+
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductType;
+import Contexts.Product.Domain.ProductsRepository;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketLines;
+import Contexts.Ticket.Domain.TicketRepository;
+import FlowerStore.Manager.Exceptions.InsufficientStockException;
+import FlowerStore.Manager.Exceptions.ProductNotFoundException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Checkout without console prompts. The service keeps no mutable state of its own: stock is reserved with
+// the repository's atomic reserveStock, so any number of threads can sell the same products at once.
+public class CheckoutService {
+
+    private static CheckoutService instance;
+    private final ProductsRepository productsRepository;
+    private final TicketRepository ticketRepository;
+
+    public CheckoutService(ProductsRepository productsRepository, TicketRepository ticketRepository) {
+        this.productsRepository = productsRepository;
+        this.ticketRepository = ticketRepository;
+    }
+
+    public static synchronized CheckoutService getInstance(ProductsRepository productsRepository,
+                                                           TicketRepository ticketRepository) {
+        if (instance == null) {
+            instance = new CheckoutService(productsRepository, ticketRepository);
+        }
+        return instance;
+    }
+
+    // Quantities are keyed by productId. Either every line is sold and the persisted ticket is returned, or
+    // an exception is thrown and the reserved stock is released again.
+    public Ticket createTicket(Map<Integer, Integer> quantities)
+            throws ProductNotFoundException, InsufficientStockException {
+        if (quantities == null || quantities.isEmpty()) {
+            throw new IllegalArgumentException("A ticket needs at least one product");
+        }
+        Map<Integer, Integer> lines = new TreeMap<>(quantities);
+        TicketLines ticketLines = new TicketLines(lines.size());
+        for (Map.Entry<Integer, Integer> line : lines.entrySet()) {
+            Integer quantity = line.getValue();
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Quantity for product " + line.getKey() + " must be over 0");
+            }
+            ticketLines.add(getProduct(line.getKey()), quantity);
+        }
+
+        if (!productsRepository.reserveStock(lines)) {
+            throw new InsufficientStockException("Insufficient stock for " + describeShortLines(lines));
+        }
+        Ticket savedTicket;
+        try {
+            savedTicket = ticketRepository.newTicket(new Ticket(new Date(), ticketLines));
+        } catch (RuntimeException e) {
+            productsRepository.releaseStock(lines);
+            throw e;
+        }
+        if (savedTicket == null) {
+            productsRepository.releaseStock(lines);
+            throw new IllegalStateException("The ticket could not be saved");
+        }
+        return savedTicket;
+    }
+
+    public Product getProduct(int productId) throws ProductNotFoundException {
+        Product product = productsRepository.getProduct(productId);
+        if (product == null) {
+            throw new ProductNotFoundException("Product " + productId + " not found");
+        }
+        return product;
+    }
+
+    public List<Product> getAllProducts() {
+        return productsRepository.getAllProducts();
+    }
+
+    public List<Product> getProductsByType(ProductType type) {
+        return productsRepository.getProductsByType(type);
+    }
+
+    public List<Product> getProductsAfter(int lastId, int pageSize) {
+        return productsRepository.getProductsAfter(lastId, pageSize);
+    }
+
+    // Best effort: stock may have changed again since the reservation failed.
+    private String describeShortLines(Map<Integer, Integer> lines) {
+        List<String> shortLines = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> line : lines.entrySet()) {
+            Product product = productsRepository.getProduct(line.getKey());
+            if (product == null || product.getQuantity() < line.getValue()) {
+                shortLines.add(product == null ? "product " + line.getKey() : product.getName());
+            }
+        }
+        return shortLines.isEmpty() ? "the ticket" : String.join(", ", shortLines);
+    }
+}
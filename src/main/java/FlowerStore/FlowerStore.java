@@ -4,12 +4,14 @@ import Contexts.Product.Domain.Product;
 import Contexts.Product.Domain.ProductsRepository;
 import Contexts.Ticket.Domain.TicketRepository;
 import Contexts.Ticket.Infrastructure.Exceptions.NoTicketsFoundException;
+import FlowerStore.Http.FlowerStoreHttpServer;
 import FlowerStore.Manager.Exceptions.InsufficientStockException;
 import FlowerStore.Manager.ManagerProducts;
 import FlowerStore.Manager.ManagerTickets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.List;
 
 public class FlowerStore {
@@ -17,16 +19,21 @@ public class FlowerStore {
     private static FlowerStore instance;
     private ManagerProducts managerProducts;
     private ManagerTickets managerTickets;
+    private final ProductsRepository productsRepository;
+    private final TicketRepository ticketRepository;
+    private FlowerStoreHttpServer httpServer;
     private static final Logger logger = LoggerFactory.getLogger(FlowerStore.class);
 
 
     private FlowerStore(ProductsRepository productsRepository, TicketRepository ticketRepository, String nameStore) {
         this.nameStore = nameStore;
+        this.productsRepository = productsRepository;
+        this.ticketRepository = ticketRepository;
         this.managerProducts = ManagerProducts.getInstance(productsRepository);
         this.managerTickets = ManagerTickets.getInstance(ticketRepository, productsRepository);
     }
 
-    public static FlowerStore getInstance(ProductsRepository productsRepository, TicketRepository ticketRepository, String nameStore) {
+    public static synchronized FlowerStore getInstance(ProductsRepository productsRepository, TicketRepository ticketRepository, String nameStore) {
         if (instance == null) {
             instance = new FlowerStore(productsRepository, ticketRepository, nameStore);
         }
@@ -62,12 +69,11 @@ public class FlowerStore {
     }
 
     public void shopBenefits() {
-        try {
-            managerTickets.shopBenefits();
-        } catch (NoTicketsFoundException e) {
-            System.out.println(e);
-            logger.error("An error in addProductsToTicket" + e);
-        }
+        managerTickets.shopBenefits();
+    }
+
+    public void rebuildSalesReports() {
+        managerTickets.rebuildSalesReports();
     }
 
     public void updateStock() {
@@ -82,6 +88,31 @@ public class FlowerStore {
         managerProducts.addProduct();
     }
 
+    public void importCatalog() {
+        managerProducts.importCatalog();
+    }
+
+    public synchronized void startHttpServer() {
+        if (httpServer == null) {
+            try {
+                httpServer = new FlowerStoreHttpServer(productsRepository, ticketRepository);
+                httpServer.start();
+            } catch (IOException e) {
+                System.err.println("The HTTP server could not be started: " + e.getMessage());
+                logger.error("An error in startHttpServer" + e);
+                return;
+            }
+        }
+        System.out.println("HTTP server listening on port " + httpServer.getPort() + ".");
+    }
+
+    public synchronized void stopHttpServer() {
+        if (httpServer != null) {
+            httpServer.stop();
+            httpServer = null;
+        }
+    }
+
     public void getProduct() {
         managerProducts.getProduct();
     }
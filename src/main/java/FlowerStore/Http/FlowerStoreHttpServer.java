@@ -0,0 +1,104 @@
+package FlowerStore.Http;
+
+import Contexts.Product.Domain.ProductsRepository;
+import Contexts.Ticket.Domain.TicketRepository;
+import FlowerStore.Checkout.CheckoutService;
+import Infrastructure.Config.HttpConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Each request runs on its own virtual thread when the JDK has them, so a request blocked on the database
+// costs almost nothing. On older JDKs a fixed platform pool is used instead. Either way the shared semaphore
+// caps the requests that are actually working, and the rest wait up to acquireTimeoutMs before a 503.
+@HttpConfig(config = "http.properties")
+public class FlowerStoreHttpServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowerStoreHttpServer.class);
+
+    private final HttpServerConfig config;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public FlowerStoreHttpServer(ProductsRepository productsRepository, TicketRepository ticketRepository)
+            throws IOException {
+        this(loadConfig(), productsRepository, ticketRepository);
+    }
+
+    public FlowerStoreHttpServer(HttpServerConfig config, ProductsRepository productsRepository,
+                                 TicketRepository ticketRepository) throws IOException {
+        this.config = config;
+        CheckoutService checkoutService = new CheckoutService(productsRepository, ticketRepository);
+        Semaphore permits = new Semaphore(config.getMaxConcurrentRequests(), true);
+
+        server = HttpServer.create(new InetSocketAddress(config.getPort()), 0);
+        server.createContext("/products", new ProductsHandler(checkoutService, productsRepository, permits, config));
+        server.createContext("/tickets", new TicketsHandler(checkoutService, permits, config));
+        server.createContext("/reports", new ReportsHandler(ticketRepository, productsRepository, permits, config));
+        executor = newRequestExecutor(config);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        logger.info("HTTP server listening on port " + getPort());
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("HTTP server stopped");
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Looked up reflectively so the build keeps targeting JDK 17.
+    private static ExecutorService newRequestExecutor(HttpServerConfig config) {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            logger.info("HTTP requests run on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.min(config.getFallbackThreads(), config.getMaxConcurrentRequests());
+            logger.info("Virtual threads unavailable, HTTP requests run on " + threads + " platform threads");
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "http-request-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static HttpServerConfig loadConfig() {
+        String filename = FlowerStoreHttpServer.class.getAnnotation(HttpConfig.class).config();
+        try (InputStream inputStream = FlowerStoreHttpServer.class.getClassLoader().getResourceAsStream(filename)) {
+            if (inputStream == null) {
+                throw new IOException("Properties file '" + filename + "' not found.");
+            }
+            Properties properties = new Properties();
+            properties.load(inputStream);
+            return HttpServerConfig.fromProperties(properties);
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading HTTP properties file: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package FlowerStore.Http;
+
+// Thrown by handlers to answer with a specific status code and a JSON error body.
+public class HttpException extends RuntimeException {
+
+    private final int status;
+
+    public HttpException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
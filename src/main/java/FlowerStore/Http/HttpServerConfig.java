@@ -0,0 +1,53 @@
+package FlowerStore.Http;
+
+import java.util.Properties;
+
+public class HttpServerConfig {
+
+    private final int port;
+    private final int maxConcurrentRequests;
+    private final long acquireTimeoutMillis;
+    private final long slowRequestMillis;
+    private final int fallbackThreads;
+
+    public HttpServerConfig(int port, int maxConcurrentRequests, long acquireTimeoutMillis, long slowRequestMillis,
+                            int fallbackThreads) {
+        if (maxConcurrentRequests < 1 || fallbackThreads < 1) {
+            throw new IllegalArgumentException("Concurrency limits must be positive");
+        }
+        this.port = port;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.slowRequestMillis = slowRequestMillis;
+        this.fallbackThreads = fallbackThreads;
+    }
+
+    public static HttpServerConfig fromProperties(Properties properties) {
+        return new HttpServerConfig(
+                Integer.parseInt(properties.getProperty("http.port", "8080")),
+                Integer.parseInt(properties.getProperty("http.maxConcurrentRequests", "1000")),
+                Long.parseLong(properties.getProperty("http.acquireTimeoutMs", "2000")),
+                Long.parseLong(properties.getProperty("http.slowRequestMs", "500")),
+                Integer.parseInt(properties.getProperty("http.fallbackThreads", "200")));
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    public long getSlowRequestMillis() {
+        return slowRequestMillis;
+    }
+
+    public int getFallbackThreads() {
+        return fallbackThreads;
+    }
+}
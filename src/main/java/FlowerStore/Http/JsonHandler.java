@@ -0,0 +1,154 @@
+package FlowerStore.Http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Common request handling: admission against the shared concurrency limit, JSON bodies, error mapping and
+// latency logging. Subclasses only map a request to a response document.
+public abstract class JsonHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonHandler.class);
+
+    private final Semaphore permits;
+    private final HttpServerConfig config;
+
+    protected JsonHandler(Semaphore permits, HttpServerConfig config) {
+        this.permits = permits;
+        this.config = config;
+    }
+
+    protected abstract Response handle(String method, String[] path, Map<String, String> query, HttpExchange exchange)
+            throws Exception;
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = admitAndHandle(exchange);
+        } finally {
+            exchange.close();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        String line = exchange.getRequestMethod() + " " + exchange.getRequestURI() + " " + status + " " + elapsedMillis + " ms";
+        if (elapsedMillis >= config.getSlowRequestMillis()) {
+            logger.warn("Slow request " + line);
+        } else {
+            logger.info(line);
+        }
+    }
+
+    private int admitAndHandle(HttpExchange exchange) throws IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            return send(exchange, Response.error(503, "Server busy, try again later"));
+        }
+        try {
+            URI uri = exchange.getRequestURI();
+            String[] path = uri.getPath().replaceAll("^/+|/+$", "").split("/+");
+            return send(exchange, handle(exchange.getRequestMethod(), path, parseQuery(uri.getRawQuery()), exchange));
+        } catch (HttpException e) {
+            return send(exchange, Response.error(e.getStatus(), e.getMessage()));
+        } catch (JsonParseException | IllegalArgumentException e) {
+            return send(exchange, Response.error(400, e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error handling " + exchange.getRequestURI(), e);
+            return send(exchange, Response.error(500, "Internal server error"));
+        } finally {
+            permits.release();
+        }
+    }
+
+    private int send(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.body.toJson().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+        return response.status;
+    }
+
+    protected static Document readBody(HttpExchange exchange) throws IOException {
+        try (InputStream input = exchange.getRequestBody()) {
+            String body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            if (body.isBlank()) {
+                throw new HttpException(400, "Request body is required");
+            }
+            return Document.parse(body);
+        }
+    }
+
+    protected static int parseId(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new HttpException(400, "Invalid id " + value);
+        }
+    }
+
+    protected static HttpException methodNotAllowed(String method) {
+        return new HttpException(405, "Method " + method + " not allowed");
+    }
+
+    protected static HttpException notFound() {
+        return new HttpException(404, "Not found");
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(decode(key), decode(value));
+        }
+        return query;
+    }
+
+    private static String decode(String value) {
+        return java.net.URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    protected static class Response {
+        private final int status;
+        private final Document body;
+
+        protected Response(int status, Document body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        protected static Response ok(Document body) {
+            return new Response(200, body);
+        }
+
+        protected static Response error(int status, String message) {
+            return new Response(status, new Document("error", message));
+        }
+    }
+}
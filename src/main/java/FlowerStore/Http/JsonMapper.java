@@ -0,0 +1,62 @@
+package FlowerStore.Http;
+
+import Contexts.Product.Domain.*;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketLines;
+import Utils.Primitive.Cents;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class JsonMapper {
+
+    private JsonMapper() {
+    }
+
+    public static Document toDocument(Product product) {
+        return new Document("productId", product.getProductId())
+                .append("type", product.getType().name())
+                .append("name", product.getName())
+                .append("quantity", product.getQuantity())
+                .append("price", product.getPrice())
+                .append("attribute", String.valueOf(product.getAttributes()));
+    }
+
+    public static List<Document> toDocuments(List<Product> products) {
+        List<Document> documents = new ArrayList<>(products.size());
+        for (Product product : products) {
+            documents.add(toDocument(product));
+        }
+        return documents;
+    }
+
+    public static Document toDocument(Ticket ticket) {
+        TicketLines ticketLines = ticket.getLines();
+        List<Document> lines = new ArrayList<>(ticketLines.size());
+        for (int line = 0; line < ticketLines.size(); line++) {
+            lines.add(new Document("productId", ticketLines.productId(line))
+                    .append("name", ticketLines.name(line))
+                    .append("quantity", ticketLines.quantity(line))
+                    .append("price", Cents.toEuros(ticketLines.priceInCents(line))));
+        }
+        return new Document("ticketID", ticket.getTicketID())
+                .append("date", ticket.getDay().toString())
+                .append("total", ticket.getTotal())
+                .append("lines", lines);
+    }
+
+    // Repositories may hand out shared instances, so stock updates are applied to a copy.
+    public static Product withStock(Product product, int quantity, double price) {
+        switch (product.getType()) {
+            case TREE:
+                return new Tree<>(product.getProductId(), product.getName(), quantity, price, product.getAttributes());
+            case FLOWER:
+                return new Flower<>(product.getProductId(), product.getName(), quantity, price, product.getAttributes());
+            case DECORATION:
+                return new Decoration<>(product.getProductId(), product.getName(), quantity, price, product.getAttributes());
+            default:
+                throw new IllegalArgumentException("Unknown product type " + product.getType());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package FlowerStore.Http;
+
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductType;
+import Contexts.Product.Domain.ProductsRepository;
+import FlowerStore.Checkout.CheckoutService;
+import FlowerStore.Manager.Exceptions.ProductNotFoundException;
+import com.sun.net.httpserver.HttpExchange;
+import org.bson.Document;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+// GET /products?type=FLOWER, GET /products?after=0&limit=100, GET /products/{id}, PUT /products/{id}/stock
+public class ProductsHandler extends JsonHandler {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final CheckoutService checkoutService;
+    private final ProductsRepository productsRepository;
+
+    public ProductsHandler(CheckoutService checkoutService, ProductsRepository productsRepository, Semaphore permits,
+                           HttpServerConfig config) {
+        super(permits, config);
+        this.checkoutService = checkoutService;
+        this.productsRepository = productsRepository;
+    }
+
+    @Override
+    protected Response handle(String method, String[] path, Map<String, String> query, HttpExchange exchange)
+            throws Exception {
+        if (path.length == 1) {
+            if (!method.equals("GET")) {
+                throw methodNotAllowed(method);
+            }
+            return Response.ok(listProducts(query));
+        }
+        if (path.length == 2 && method.equals("GET")) {
+            return Response.ok(JsonMapper.toDocument(getProduct(parseId(path[1]))));
+        }
+        if (path.length == 3 && path[2].equals("stock")) {
+            if (!method.equals("PUT")) {
+                throw methodNotAllowed(method);
+            }
+            return Response.ok(JsonMapper.toDocument(updateStock(parseId(path[1]), readBody(exchange))));
+        }
+        throw notFound();
+    }
+
+    // Without a type the catalog is paged by id so a large store never serialises every product at once.
+    private Document listProducts(Map<String, String> query) {
+        List<Product> products;
+        String type = query.get("type");
+        if (type != null) {
+            products = checkoutService.getProductsByType(parseType(type));
+        } else {
+            int after = query.containsKey("after") ? parseId(query.get("after")) : 0;
+            int limit = query.containsKey("limit") ? parseId(query.get("limit")) : DEFAULT_PAGE_SIZE;
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                throw new HttpException(400, "limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            products = checkoutService.getProductsAfter(after, limit);
+        }
+        return new Document("products", JsonMapper.toDocuments(products));
+    }
+
+    private Product updateStock(int productId, Document body) {
+        Number quantity = body.get("quantity", Number.class);
+        if (quantity == null || quantity.intValue() < 0) {
+            throw new HttpException(400, "quantity is required and can't be negative");
+        }
+        Product product = getProduct(productId);
+        Number price = body.get("price", Number.class);
+        if (price != null && !(price.doubleValue() > 0)) {
+            throw new HttpException(400, "price must be over 0");
+        }
+        Product updated = JsonMapper.withStock(product, quantity.intValue(),
+                price == null ? product.getPrice() : price.doubleValue());
+        productsRepository.updateProduct(updated);
+        return updated;
+    }
+
+    private Product getProduct(int productId) {
+        try {
+            return checkoutService.getProduct(productId);
+        } catch (ProductNotFoundException e) {
+            throw new HttpException(404, e.getMessage());
+        }
+    }
+
+    private static ProductType parseType(String value) {
+        try {
+            return ProductType.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new HttpException(400, "Invalid product type " + value);
+        }
+    }
+}
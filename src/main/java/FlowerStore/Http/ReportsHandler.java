@@ -0,0 +1,89 @@
+package FlowerStore.Http;
+
+import Contexts.Product.Domain.ProductType;
+import Contexts.Product.Domain.ProductsRepository;
+import Contexts.Product.Domain.StockValuation;
+import Contexts.Ticket.Domain.TicketRepository;
+import com.sun.net.httpserver.HttpExchange;
+import org.bson.Document;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+// GET /reports/sales?from=2024-01-01&to=2024-01-31 (last 30 days by default), GET /reports/stock
+public class ReportsHandler extends JsonHandler {
+
+    private static final int DEFAULT_DAYS = 30;
+
+    private final TicketRepository ticketRepository;
+    private final ProductsRepository productsRepository;
+
+    public ReportsHandler(TicketRepository ticketRepository, ProductsRepository productsRepository, Semaphore permits,
+                          HttpServerConfig config) {
+        super(permits, config);
+        this.ticketRepository = ticketRepository;
+        this.productsRepository = productsRepository;
+    }
+
+    @Override
+    protected Response handle(String method, String[] path, Map<String, String> query, HttpExchange exchange) {
+        if (path.length != 2) {
+            throw notFound();
+        }
+        if (!method.equals("GET")) {
+            throw methodNotAllowed(method);
+        }
+        switch (path[1]) {
+            case "sales":
+                return Response.ok(salesReport(query));
+            case "stock":
+                return Response.ok(stockReport());
+            default:
+                throw notFound();
+        }
+    }
+
+    private Document salesReport(Map<String, String> query) {
+        LocalDate to = query.containsKey("to") ? parseDate(query.get("to")) : LocalDate.now();
+        LocalDate from = query.containsKey("from") ? parseDate(query.get("from")) : to.minusDays(DEFAULT_DAYS - 1);
+        if (from.isAfter(to)) {
+            throw new HttpException(400, "from can't be after to");
+        }
+        Document byDay = new Document();
+        for (Map.Entry<LocalDate, Double> entry : ticketRepository.getRevenueByDay(from, to).entrySet()) {
+            byDay.append(entry.getKey().toString(), entry.getValue());
+        }
+        Document byType = new Document();
+        for (Map.Entry<ProductType, Double> entry : ticketRepository.getRevenueByType(from, to).entrySet()) {
+            byType.append(entry.getKey().name(), entry.getValue());
+        }
+        return new Document("from", from.toString())
+                .append("to", to.toString())
+                .append("revenue", ticketRepository.getRevenueBetween(from, to))
+                .append("byDay", byDay)
+                .append("byType", byType);
+    }
+
+    private Document stockReport() {
+        Document byType = new Document();
+        long units = 0;
+        double value = 0;
+        for (StockValuation valuation : productsRepository.getStockValuationByType().values()) {
+            byType.append(valuation.getType().name(), new Document("units", valuation.getUnits())
+                    .append("value", valuation.getValue()));
+            units += valuation.getUnits();
+            value += valuation.getValue();
+        }
+        return new Document("units", units).append("value", value).append("byType", byType);
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new HttpException(400, "Invalid date " + value + ", expected yyyy-MM-dd");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package FlowerStore.Http;
+
+import FlowerStore.Checkout.CheckoutService;
+import FlowerStore.Manager.Exceptions.InsufficientStockException;
+import FlowerStore.Manager.Exceptions.ProductNotFoundException;
+import com.sun.net.httpserver.HttpExchange;
+import org.bson.Document;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+// POST /tickets with {"lines": [{"productId": 1, "quantity": 2}, ...]}
+public class TicketsHandler extends JsonHandler {
+
+    private final CheckoutService checkoutService;
+
+    public TicketsHandler(CheckoutService checkoutService, Semaphore permits, HttpServerConfig config) {
+        super(permits, config);
+        this.checkoutService = checkoutService;
+    }
+
+    @Override
+    protected Response handle(String method, String[] path, Map<String, String> query, HttpExchange exchange)
+            throws Exception {
+        if (path.length != 1) {
+            throw notFound();
+        }
+        if (!method.equals("POST")) {
+            throw methodNotAllowed(method);
+        }
+        Map<Integer, Integer> quantities = readLines(readBody(exchange));
+        try {
+            return new Response(201, JsonMapper.toDocument(checkoutService.createTicket(quantities)));
+        } catch (ProductNotFoundException e) {
+            throw new HttpException(404, e.getMessage());
+        } catch (InsufficientStockException e) {
+            throw new HttpException(409, e.getMessage());
+        }
+    }
+
+    private Map<Integer, Integer> readLines(Document body) {
+        List<Document> lines = body.getList("lines", Document.class);
+        if (lines == null || lines.isEmpty()) {
+            throw new HttpException(400, "lines is required");
+        }
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (Document line : lines) {
+            Number productId = line.get("productId", Number.class);
+            Number quantity = line.get("quantity", Number.class);
+            if (productId == null || quantity == null) {
+                throw new HttpException(400, "Every line needs productId and quantity");
+            }
+            quantities.merge(productId.intValue(), quantity.intValue(), Integer::sum);
+        }
+        return quantities;
+    }
+}
@@ -0,0 +1,55 @@
+package FlowerStore.LoadTest;
+
+import Contexts.Product.Domain.ProductsRepository;
+import Contexts.Product.Infrastructure.Cache.CachePolicy;
+import Contexts.Product.Infrastructure.Cache.ProductRepositoryCache;
+import Contexts.Product.Infrastructure.Memory.ProductRepositoryMemory;
+import Contexts.Product.Infrastructure.MongoDB.ProductRepositoryMongoDB;
+import Contexts.Product.Infrastructure.SQL.ProductRepositorySQL;
+import Contexts.Ticket.Domain.TicketRepository;
+import Contexts.Ticket.Infrastructure.Memory.TicketRepositoryMemory;
+import Contexts.Ticket.Infrastructure.MongoDB.TicketRepositoryMongoDB;
+import Contexts.Ticket.Infrastructure.SQL.TicketRepositorySQL;
+import FlowerStore.Checkout.CheckoutService;
+import Infrastructure.Connections.MongoDBConnection;
+import Infrastructure.Connections.MySQLConnection;
+
+import java.time.Duration;
+
+// gradle loadTest -PloadArgs="--backend=mongodb --clients=100 --seconds=120 --zipf=1.2 --stock=500"
+// Writes real tickets, so point --store at a store kept for load testing.
+public class CheckoutLoadTest {
+
+    private static final Duration CATALOG_REFRESH = Duration.ofMinutes(5);
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        ProductsRepository backend;
+        TicketRepository ticketRepository;
+        if (config.getBackend().equalsIgnoreCase("mongodb")) {
+            MongoDBConnection mongoDBConnection = new MongoDBConnection(config.getStoreName());
+            backend = new ProductRepositoryMongoDB(mongoDBConnection);
+            ticketRepository = new TicketRepositoryMongoDB(mongoDBConnection, null);
+        } else if (config.getBackend().equalsIgnoreCase("mysql")) {
+            MySQLConnection mySQLConnection = new MySQLConnection(config.getStoreName());
+            backend = new ProductRepositorySQL(mySQLConnection, config.getStoreName());
+            ticketRepository = new TicketRepositorySQL(mySQLConnection);
+        } else if (config.getBackend().equalsIgnoreCase("memory")) {
+            backend = new ProductRepositoryMemory();
+            ticketRepository = new TicketRepositoryMemory();
+        } else {
+            throw new IllegalArgumentException("Unknown backend " + config.getBackend());
+        }
+
+        // Same stack as Demo: database sales go through the cache, verification reads the backend directly.
+        ProductsRepository productsRepository = backend instanceof ProductRepositoryMemory ? backend
+                : new ProductRepositoryCache(backend, CachePolicy.refreshAfter(CATALOG_REFRESH));
+        productsRepository.initialize();
+        ticketRepository.initialize();
+        CheckoutService checkoutService = new CheckoutService(productsRepository, ticketRepository);
+
+        LoadReport report = new LoadGenerator(productsRepository, backend, checkoutService, config).run();
+        System.out.println(report);
+        System.exit(report.getOversoldProducts() > 0 || report.getStockMismatches() > 0 ? 1 : 0);
+    }
+}
@@ -0,0 +1,191 @@
+package FlowerStore.LoadTest;
+
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductsRepository;
+import FlowerStore.Checkout.CheckoutService;
+import FlowerStore.Manager.Exceptions.InsufficientStockException;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Simulated tills: each client looks up the products it picks, then sells them through CheckoutService the
+// way ManagerTickets.createNewTicket does. Popularity follows a Zipf distribution over a shuffled catalog, so
+// the hot products are spread across types. Stock is read again at the end through stockSource, which should
+// bypass any cache, and compared with what was sold to find oversells.
+public class LoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final long SHUFFLE_SEED = 42;
+
+    private final ProductsRepository productsRepository;
+    private final ProductsRepository stockSource;
+    private final CheckoutService checkoutService;
+    private final LoadTestConfig config;
+
+    public LoadGenerator(ProductsRepository productsRepository, ProductsRepository stockSource,
+                         CheckoutService checkoutService, LoadTestConfig config) {
+        this.productsRepository = productsRepository;
+        this.stockSource = stockSource;
+        this.checkoutService = checkoutService;
+        this.config = config;
+    }
+
+    public LoadReport run() throws InterruptedException {
+        List<Product> catalog = prepareCatalog();
+        if (catalog.isEmpty()) {
+            throw new IllegalStateException("The store has no products to sell");
+        }
+        Collections.shuffle(catalog, new Random(SHUFFLE_SEED));
+        RunState state = new RunState(catalog);
+
+        logger.info("Load test: " + config.getClients() + " clients for " + config.getDuration().getSeconds()
+                + "s over " + catalog.size() + " products, zipf " + config.getZipfExponent());
+        ExecutorService clients = Executors.newFixedThreadPool(config.getClients());
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + config.getDuration().toNanos();
+        for (int client = 0; client < config.getClients(); client++) {
+            clients.execute(() -> runClient(state, deadline));
+        }
+        clients.shutdown();
+        clients.awaitTermination(config.getDuration().getSeconds() + 60, TimeUnit.SECONDS);
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        return state.report(elapsedNanos, finalStock());
+    }
+
+    private List<Product> prepareCatalog() {
+        List<Product> catalog = new ArrayList<>(stockSource.getAllProducts());
+        if (config.getInitialStock() >= 0) {
+            for (Product product : catalog) {
+                product.setQuantity(config.getInitialStock());
+            }
+            productsRepository.updateProducts(catalog);
+        }
+        return catalog;
+    }
+
+    private Map<Integer, Integer> finalStock() {
+        Map<Integer, Integer> stock = new HashMap<>();
+        for (Product product : stockSource.getAllProducts()) {
+            stock.put(product.getProductId(), product.getQuantity());
+        }
+        return stock;
+    }
+
+    private void runClient(RunState state, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            Map<Integer, Integer> quantities = new HashMap<>();
+            Set<Integer> ranks = new HashSet<>();
+            int lines = 1 + random.nextInt(config.getMaxLinesPerTicket());
+            try {
+                for (int line = 0; line < lines; line++) {
+                    int rank = state.zipf.sample(random);
+                    int productId = state.catalog.get(rank).getProductId();
+                    long lookupStart = System.nanoTime();
+                    checkoutService.getProduct(productId);
+                    state.lookupLatency.recordValue(micros(lookupStart));
+                    quantities.merge(productId, 1 + random.nextInt(config.getMaxQuantityPerLine()), Integer::sum);
+                    ranks.add(rank);
+                }
+            } catch (Exception e) {
+                state.errors.increment();
+                logger.warn("Product lookup failed: " + e);
+                continue;
+            }
+            sell(state, quantities, ranks);
+        }
+    }
+
+    private void sell(RunState state, Map<Integer, Integer> quantities, Set<Integer> ranks) {
+        for (int rank : ranks) {
+            state.attempts.incrementAndGet(rank);
+        }
+        long checkoutStart = System.nanoTime();
+        try {
+            checkoutService.createTicket(quantities);
+            state.tickets.increment();
+            for (int rank : ranks) {
+                state.soldUnits.addAndGet(rank, quantities.get(state.catalog.get(rank).getProductId()));
+            }
+        } catch (InsufficientStockException e) {
+            state.rejected.increment();
+            for (int rank : ranks) {
+                state.rejections.incrementAndGet(rank);
+            }
+        } catch (Exception e) {
+            state.errors.increment();
+            logger.warn("Checkout failed: " + e);
+        } finally {
+            long latency = micros(checkoutStart);
+            state.checkoutLatency.recordValue(latency);
+            if (ranks.contains(0)) {
+                state.hotCheckoutLatency.recordValue(latency);
+            }
+        }
+    }
+
+    private static long micros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000;
+    }
+
+    private class RunState {
+        private final List<Product> catalog;
+        private final ZipfDistribution zipf;
+        private final Map<Integer, Integer> initialStock = new HashMap<>();
+        private final Recorder lookupLatency = new Recorder(3);
+        private final Recorder checkoutLatency = new Recorder(3);
+        private final Recorder hotCheckoutLatency = new Recorder(3);
+        private final LongAdder tickets = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final AtomicLongArray attempts;
+        private final AtomicLongArray soldUnits;
+        private final AtomicLongArray rejections;
+
+        private RunState(List<Product> catalog) {
+            this.catalog = catalog;
+            this.zipf = new ZipfDistribution(catalog.size(), config.getZipfExponent());
+            for (Product product : catalog) {
+                initialStock.put(product.getProductId(), product.getQuantity());
+            }
+            attempts = new AtomicLongArray(catalog.size());
+            soldUnits = new AtomicLongArray(catalog.size());
+            rejections = new AtomicLongArray(catalog.size());
+        }
+
+        // A product is oversold when its stock went negative or when more units left the shelf than were sold.
+        private LoadReport report(long elapsedNanos, Map<Integer, Integer> finalStock) {
+            long oversoldProducts = 0;
+            long stockMismatches = 0;
+            List<LoadReport.ProductContention> contention = new ArrayList<>();
+            for (int rank = 0; rank < catalog.size(); rank++) {
+                Product product = catalog.get(rank);
+                Integer remaining = finalStock.get(product.getProductId());
+                long expected = initialStock.get(product.getProductId()) - soldUnits.get(rank);
+                if (remaining != null && remaining < 0) {
+                    oversoldProducts++;
+                }
+                if (remaining != null && remaining != expected) {
+                    stockMismatches++;
+                }
+                if (attempts.get(rank) > 0) {
+                    contention.add(new LoadReport.ProductContention(product.getProductId(), product.getName(),
+                            attempts.get(rank), soldUnits.get(rank), rejections.get(rank)));
+                }
+            }
+            contention.sort(Comparator.comparingLong(LoadReport.ProductContention::getAttempts).reversed());
+            return new LoadReport(config, elapsedNanos, tickets.sum(), rejected.sum(), errors.sum(), oversoldProducts,
+                    stockMismatches, lookupLatency.getIntervalHistogram(), checkoutLatency.getIntervalHistogram(),
+                    hotCheckoutLatency.getIntervalHistogram(), contention);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package FlowerStore.LoadTest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.List;
+
+// Latencies are recorded in microseconds.
+public class LoadReport {
+
+    private static final int HOT_PRODUCTS_SHOWN = 10;
+
+    private final LoadTestConfig config;
+    private final long elapsedNanos;
+    private final long tickets;
+    private final long rejected;
+    private final long errors;
+    private final long oversoldProducts;
+    private final long stockMismatches;
+    private final Histogram lookupLatency;
+    private final Histogram checkoutLatency;
+    private final Histogram hotCheckoutLatency;
+    private final List<ProductContention> contention;
+
+    public LoadReport(LoadTestConfig config, long elapsedNanos, long tickets, long rejected, long errors,
+                      long oversoldProducts, long stockMismatches, Histogram lookupLatency, Histogram checkoutLatency,
+                      Histogram hotCheckoutLatency, List<ProductContention> contention) {
+        this.config = config;
+        this.elapsedNanos = elapsedNanos;
+        this.tickets = tickets;
+        this.rejected = rejected;
+        this.errors = errors;
+        this.oversoldProducts = oversoldProducts;
+        this.stockMismatches = stockMismatches;
+        this.lookupLatency = lookupLatency;
+        this.checkoutLatency = checkoutLatency;
+        this.hotCheckoutLatency = hotCheckoutLatency;
+        this.contention = contention;
+    }
+
+    public long getTickets() {
+        return tickets;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getOversoldProducts() {
+        return oversoldProducts;
+    }
+
+    public long getStockMismatches() {
+        return stockMismatches;
+    }
+
+    public Histogram getCheckoutLatency() {
+        return checkoutLatency;
+    }
+
+    // Sorted by attempts, hottest first.
+    public List<ProductContention> getContention() {
+        return contention;
+    }
+
+    public double getTicketsPerSecond() {
+        return elapsedNanos == 0 ? 0 : tickets / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Backend %s, %d clients, %.1fs, zipf %.2f%n", config.getBackend(),
+                config.getClients(), elapsedNanos / 1_000_000_000.0, config.getZipfExponent()));
+        report.append(String.format("Tickets %d (%.1f/s), rejected for stock %d, errors %d%n", tickets,
+                getTicketsPerSecond(), rejected, errors));
+        report.append(String.format("Oversold products %d, stock mismatches %d%n", oversoldProducts, stockMismatches));
+        report.append(String.format("%-16s %10s %10s %10s %10s %10s%n", "Latency (us)", "count", "p50", "p99",
+                "p99.9", "max"));
+        appendLatency(report, "Lookup", lookupLatency);
+        appendLatency(report, "Checkout", checkoutLatency);
+        appendLatency(report, "Checkout (hot)", hotCheckoutLatency);
+        report.append(String.format("%-10s %-20s %10s %10s %10s %8s%n", "Product", "Name", "attempts", "sold",
+                "rejected", "reject%"));
+        for (ProductContention product : contention.subList(0, Math.min(HOT_PRODUCTS_SHOWN, contention.size()))) {
+            report.append(String.format("%-10d %-20s %10d %10d %10d %7.1f%%%n", product.productId, product.name,
+                    product.attempts, product.soldUnits, product.rejections, product.getRejectionRate() * 100));
+        }
+        return report.toString();
+    }
+
+    private static void appendLatency(StringBuilder report, String name, Histogram histogram) {
+        report.append(String.format("%-16s %10d %10d %10d %10d %10d%n", name, histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9), histogram.getMaxValue()));
+    }
+
+    public static class ProductContention {
+        private final int productId;
+        private final String name;
+        private final long attempts;
+        private final long soldUnits;
+        private final long rejections;
+
+        public ProductContention(int productId, String name, long attempts, long soldUnits, long rejections) {
+            this.productId = productId;
+            this.name = name;
+            this.attempts = attempts;
+            this.soldUnits = soldUnits;
+            this.rejections = rejections;
+        }
+
+        public int getProductId() {
+            return productId;
+        }
+
+        public long getAttempts() {
+            return attempts;
+        }
+
+        public long getSoldUnits() {
+            return soldUnits;
+        }
+
+        public long getRejections() {
+            return rejections;
+        }
+
+        public double getRejectionRate() {
+            return attempts == 0 ? 0 : rejections / (double) attempts;
+        }
+    }
+}
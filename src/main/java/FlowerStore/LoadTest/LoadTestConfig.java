@@ -0,0 +1,115 @@
+package FlowerStore.LoadTest;
+
+import java.time.Duration;
+
+public class LoadTestConfig {
+
+    private final String backend;
+    private final String storeName;
+    private final int clients;
+    private final Duration duration;
+    private final double zipfExponent;
+    private final int maxLinesPerTicket;
+    private final int maxQuantityPerLine;
+    private final int initialStock;
+
+    public LoadTestConfig(String backend, String storeName, int clients, Duration duration, double zipfExponent,
+                          int maxLinesPerTicket, int maxQuantityPerLine, int initialStock) {
+        if (clients < 1 || maxLinesPerTicket < 1 || maxQuantityPerLine < 1) {
+            throw new IllegalArgumentException("Clients, lines per ticket and quantity per line must be positive");
+        }
+        if (zipfExponent < 0) {
+            throw new IllegalArgumentException("The Zipf exponent can't be negative");
+        }
+        this.backend = backend;
+        this.storeName = storeName;
+        this.clients = clients;
+        this.duration = duration;
+        this.zipfExponent = zipfExponent;
+        this.maxLinesPerTicket = maxLinesPerTicket;
+        this.maxQuantityPerLine = maxQuantityPerLine;
+        this.initialStock = initialStock;
+    }
+
+    // --backend=mysql|mongodb|memory --store=loadtest --clients=50 --seconds=60 --zipf=1.1 --lines=5 --quantity=3 --stock=1000
+    public static LoadTestConfig fromArgs(String[] args) {
+        String backend = "mysql";
+        String storeName = "loadtest";
+        int clients = 50;
+        long seconds = 60;
+        double zipfExponent = 1.1;
+        int lines = 5;
+        int quantity = 3;
+        int stock = -1;
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String value = arg.substring(equals + 1);
+            switch (arg.substring(2, equals)) {
+                case "backend":
+                    backend = value;
+                    break;
+                case "store":
+                    storeName = value;
+                    break;
+                case "clients":
+                    clients = Integer.parseInt(value);
+                    break;
+                case "seconds":
+                    seconds = Long.parseLong(value);
+                    break;
+                case "zipf":
+                    zipfExponent = Double.parseDouble(value);
+                    break;
+                case "lines":
+                    lines = Integer.parseInt(value);
+                    break;
+                case "quantity":
+                    quantity = Integer.parseInt(value);
+                    break;
+                case "stock":
+                    stock = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        return new LoadTestConfig(backend, storeName, clients, Duration.ofSeconds(seconds), zipfExponent, lines,
+                quantity, stock);
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public String getStoreName() {
+        return storeName;
+    }
+
+    public int getClients() {
+        return clients;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public int getMaxLinesPerTicket() {
+        return maxLinesPerTicket;
+    }
+
+    public int getMaxQuantityPerLine() {
+        return maxQuantityPerLine;
+    }
+
+    // Negative keeps the stock already in the store.
+    public int getInitialStock() {
+        return initialStock;
+    }
+}
@@ -0,0 +1,8 @@
+package FlowerStore.Manager.Exceptions;
+
+public class ProductNotFoundException extends Exception {
+
+    public ProductNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -1,22 +1,36 @@
 package FlowerStore.Manager;
 
 import Contexts.Product.Domain.*;
+import Contexts.Product.Infrastructure.Import.CatalogImporter;
+import Contexts.Product.Infrastructure.Import.ImportProgress;
 import FlowerStore.FlowerStore;
 import Utils.InputControl.InputControl;
+import Utils.Kernels.AggregationKernels;
+import Utils.Primitive.Cents;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class ManagerProducts {
 
     private static ManagerProducts instance;
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final int IMPORT_QUEUE_CAPACITY = 10_000;
+    private static final long IMPORT_PROGRESS_INTERVAL = 50_000;
     private ProductsRepository productsRepository;
 
     private ManagerProducts(ProductsRepository productsRepository) {
         this.productsRepository = productsRepository;
     }
 
-    public static ManagerProducts getInstance(ProductsRepository productsRepository) {
+    public static synchronized ManagerProducts getInstance(ProductsRepository productsRepository) {
         if (instance == null) {
             instance = new ManagerProducts(productsRepository);
         }
@@ -32,23 +46,46 @@ public class ManagerProducts {
         double price = InputControl.readDouble("Type a price.");
 
         String typeProduct = "";
-        switch (type) {
-            case 1:
-                Tree tree = newTree(name, quantity, price);
-                productsRepository.addProduct(tree);
-                break;
-            case 2:
-                Flower flower = newFlower(name, quantity, price);
-                productsRepository.addProduct(flower);
-                break;
-            case 3:
-                Decoration decoration = newDecoration(name, quantity, price);
-                productsRepository.addProduct(decoration);
-                break;
+        try {
+            switch (type) {
+                case 1:
+                    Tree tree = newTree(name, quantity, price);
+                    productsRepository.addProduct(tree);
+                    break;
+                case 2:
+                    Flower flower = newFlower(name, quantity, price);
+                    productsRepository.addProduct(flower);
+                    break;
+                case 3:
+                    Decoration decoration = newDecoration(name, quantity, price);
+                    productsRepository.addProduct(decoration);
+                    break;
+            }
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return;
         }
         System.out.println(name + " was added");
     }
 
+    public void importCatalog() {
+        Path path = Paths.get(InputControl.readText("Type the path of the catalog file (.csv or .jsonl)."));
+        if (!Files.isRegularFile(path)) {
+            System.err.println("File not found: " + path);
+            return;
+        }
+        CatalogImporter importer = new CatalogImporter(productsRepository, IMPORT_BATCH_SIZE,
+                IMPORT_QUEUE_CAPACITY, IMPORT_PROGRESS_INTERVAL);
+        try {
+            ImportProgress result = importer.importFile(path, System.out::println);
+            for (String error : result.getErrors()) {
+                System.err.println(error);
+            }
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            System.err.println("The catalog could not be imported: " + e.getMessage());
+        }
+    }
+
     private void showTypeProducts(List<Product> products) {
         showProducts(products);
     }
@@ -86,12 +123,16 @@ public class ManagerProducts {
     }
 
     public void showAllProducts() {
-        List<Product> products = productsRepository.getAllProducts();
-        if (products.isEmpty()) {
-            System.out.println("No products found");
-        } else {
-            showProducts(products);
-
+        try (Stream<Product> products = productsRepository.streamAllProducts()) {
+            Iterator<Product> iterator = products.iterator();
+            if (!iterator.hasNext()) {
+                System.out.println("No products found");
+            } else {
+                showHeader();
+                while (iterator.hasNext()) {
+                    showProduct(iterator.next());
+                }
+            }
         }
     }
 
@@ -105,7 +146,12 @@ public class ManagerProducts {
             product.setQuantity(stockToAdd);
             double price = InputControl.readDouble("Choose a price for " + product.getName());
             product.setPrice(price);
-            productsRepository.updateProduct(product);
+            try {
+                productsRepository.updateProduct(product);
+            } catch (IllegalStateException e) {
+                System.err.println(e.getMessage());
+                return;
+            }
             System.out.println(product.getName() + " updated.");
         } else {
             System.err.println("Can't add under 0");
@@ -115,37 +161,49 @@ public class ManagerProducts {
     public void deleteProduct() {
 
         Product product = getProduct();
-        productsRepository.deleteProduct(product);
+        try {
+            productsRepository.deleteProduct(product);
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        System.out.println("Product: " + product.getName() + " deleted.");
     }
 
+    private static final int ID_WIDTH = 5, NAME_WIDTH = 15, QUANTITY_WIDTH = 10, PRICE_WIDTH = 10,
+            TYPE_WIDTH = 15, ATTRIBUTE_WIDTH = 15;
+
     public void showProducts(List<Product> products) {
-        int idWidth = 5, nameWidth = 15, quantityWidth = 10, priceWidth = 10,
-                typeWidth = 15, attributeWidth = 15;
+        showHeader();
+        for (Product product : products) {
+            showProduct(product);
+        }
+    }
 
-        System.out.printf("%-" + idWidth + "s %-" + nameWidth + "s %-" + quantityWidth
-                        + "s %-" + priceWidth + "s %-" + typeWidth + "s %-" + attributeWidth + "s%n",
+    private void showHeader() {
+        System.out.printf("%-" + ID_WIDTH + "s %-" + NAME_WIDTH + "s %-" + QUANTITY_WIDTH
+                        + "s %-" + PRICE_WIDTH + "s %-" + TYPE_WIDTH + "s %-" + ATTRIBUTE_WIDTH + "s%n",
                 "ID", "Name", "Quantity", "Price", "Type", "Attributes");
 
-        System.out.printf("%-" + (idWidth + nameWidth + quantityWidth + priceWidth + typeWidth
-                + attributeWidth + 10) + "s%n", "");
+        System.out.printf("%-" + (ID_WIDTH + NAME_WIDTH + QUANTITY_WIDTH + PRICE_WIDTH + TYPE_WIDTH
+                + ATTRIBUTE_WIDTH + 10) + "s%n", "");
+    }
 
-        for (Product product : products) {
-            System.out.printf("%-" + idWidth + "d %-" + nameWidth + "s %-" + quantityWidth
-                            + "d %-" + priceWidth + ".2f %-" + typeWidth + "s %-" + attributeWidth + "s%n",
-                    product.getProductId(),
-                    product.getName(),
-                    product.getQuantity(),
-                    product.getPrice(),
-                    product.getType().toString(),
-                    product.getAttributes());
-        }
+    private void showProduct(Product product) {
+        System.out.printf("%-" + ID_WIDTH + "d %-" + NAME_WIDTH + "s %-" + QUANTITY_WIDTH
+                        + "d %-" + PRICE_WIDTH + ".2f %-" + TYPE_WIDTH + "s %-" + ATTRIBUTE_WIDTH + "s%n",
+                product.getProductId(),
+                product.getName(),
+                product.getQuantity(),
+                product.getPrice(),
+                product.getType().toString(),
+                product.getAttributes());
     }
 
     public void totalValue() {
-        List<Product> products = productsRepository.getAllProducts();
         double price = 0;
-        for (Product product : products) {
-            price += product.getPrice() * product.getQuantity();
+        for (StockValuation valuation : productsRepository.getStockValuationByType().values()) {
+            price += valuation.getValue();
         }
 
         System.out.println("The flower store " + FlowerStore.getNameStore() +
@@ -154,13 +212,22 @@ public class ManagerProducts {
 
     public void stockValue() {
         List<Product> products = getType();
-        double priceStock = 0;
-        int stock = 0;
-
-        for (Product product : products) {
-            priceStock += product.getPrice() * product.getQuantity();
-            stock += product.getQuantity();
+        int size = products.size();
+        byte[] types = new byte[size];
+        int[] quantities = new int[size];
+        long[] prices = new long[size];
+        for (int i = 0; i < size; i++) {
+            Product product = products.get(i);
+            types[i] = (byte) product.getType().ordinal();
+            quantities[i] = product.getQuantity();
+            prices[i] = Cents.fromEuros(product.getPrice());
         }
+        long[] count = new long[ProductType.values().length];
+        long[] units = new long[count.length];
+        long[] valueInCents = new long[count.length];
+        AggregationKernels.getInstance().sumByType(types, quantities, prices, size, count, units, valueInCents);
+        long stock = Arrays.stream(units).sum();
+        double priceStock = Cents.toEuros(Arrays.stream(valueInCents).sum());
         showProducts(products);
         System.out.println("\nThe flower store " + FlowerStore.getNameStore()
                 + " had a stock value: \n" +
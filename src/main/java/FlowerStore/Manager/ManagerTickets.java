@@ -1,29 +1,36 @@
 package FlowerStore.Manager;
 
 import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductType;
 import Contexts.Product.Domain.ProductsRepository;
 import Contexts.Ticket.Domain.Ticket;
 import Contexts.Ticket.Domain.TicketRepository;
 import Contexts.Ticket.Infrastructure.Exceptions.NoTicketsFoundException;
+import FlowerStore.FlowerStore;
+import FlowerStore.Checkout.CheckoutService;
 import FlowerStore.Manager.Exceptions.InsufficientStockException;
+import FlowerStore.Manager.Exceptions.ProductNotFoundException;
 import FlowerStore.Manager.ManagerProducts;
 import Utils.InputControl.InputControl;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Stream;
 
 public class ManagerTickets {
 
     private static ManagerTickets instance;
     private TicketRepository ticketRepository;
     private ProductsRepository productsRepository;
+    private final CheckoutService checkoutService;
 
     private ManagerTickets(TicketRepository ticketRepository, ProductsRepository productsRepository) {
         this.ticketRepository = ticketRepository;
         this.productsRepository = productsRepository;
-
+        this.checkoutService = CheckoutService.getInstance(productsRepository, ticketRepository);
     }
 
-    public static ManagerTickets getInstance(TicketRepository ticketRepository, ProductsRepository productsRepository) {
+    public static synchronized ManagerTickets getInstance(TicketRepository ticketRepository, ProductsRepository productsRepository) {
         if (instance == null) {
             instance = new ManagerTickets(ticketRepository, productsRepository);
         }
@@ -31,30 +38,39 @@ public class ManagerTickets {
     }
 
     public void showAllTickets() throws NoTicketsFoundException {
-        List<Ticket> alltickets = ticketRepository.getAllTickets();
-        for (Ticket ticket : alltickets) {
-            ticket.showTicket();
+        try (Stream<Ticket> tickets = ticketRepository.streamAllTickets()) {
+            Iterator<Ticket> iterator = tickets.iterator();
+            if (!iterator.hasNext()) {
+                throw new NoTicketsFoundException("No tickets found in the database.");
+            }
+            while (iterator.hasNext()) {
+                iterator.next().showTicket();
+            }
         }
     }
 
-    public void shopBenefits() throws NoTicketsFoundException {
-        ticketRepository.getAllSales(ticketRepository.getAllTickets());
-    }
-
-    private double getTotalTicket(Map<Product, Integer> ticket) {
-        double total = 0;
-        for (Map.Entry<Product, Integer> entry : ticket.entrySet()) {
-            Product product = entry.getKey();
-            int quantity = entry.getValue();
-            total += product.getPrice() * quantity;
+    public void shopBenefits() {
+        double totalSales = ticketRepository.getTotalRevenue();
+        System.out.println("The total sales of the FlowerShop "
+                + FlowerStore.getNameStore() + " have a value of: " + totalSales + "€.");
+        for (Map.Entry<ProductType, Double> entry : ticketRepository.getRevenueByType().entrySet()) {
+            System.out.printf("%-12s %10.2f€%n", entry.getKey(), entry.getValue());
         }
-        return total;
+        LocalDate today = LocalDate.now();
+        System.out.printf("%-12s %10.2f€%n", "Today", ticketRepository.getRevenueBetween(today, today));
+        System.out.printf("%-12s %10.2f€%n", "Last 7 days", ticketRepository.getRevenueBetween(today.minusDays(6), today));
+        System.out.printf("%-12s %10.2f€%n", "Last 30 days", ticketRepository.getRevenueBetween(today.minusDays(29), today));
     }
 
+    // Recomputes the sales reports from the ticket history, for when the rollups no longer match the tickets.
+    public void rebuildSalesReports() {
+        ticketRepository.rebuildSalesRollups();
+        System.out.println("The sales reports have been rebuilt from the tickets.");
+    }
 
     public Map<Product, Integer> addProductsToTicket() throws InsufficientStockException {
         ManagerProducts managerProducts = ManagerProducts.getInstance(productsRepository);
-        Map<Product, Integer> ticketWithProducts = new HashMap<>();
+        Map<Product, Integer> ticketWithProducts = new LinkedHashMap<>();
         boolean addMore;
 
         do {
@@ -68,14 +84,27 @@ public class ManagerTickets {
         return ticketWithProducts;
     }
 
+    // The stock shown while choosing can be stale, so the sale itself goes through CheckoutService, which
+    // reserves every line atomically before the ticket is written.
     public void createNewTicket() throws InsufficientStockException {
-        Date date = new Date();
-        Map<Product, Integer> mapProduct = addProductsToTicket();
-        double total = getTotalTicket(mapProduct);
-        Ticket newTicket = new Ticket(date, mapProduct, total);
-        ticketRepository.newTicket(newTicket);
-        newTicket = ticketRepository.getLastTicket();
-        newTicket.showTicket();
+        Map<Integer, Integer> quantities = quantitiesById(addProductsToTicket());
+        if (quantities.isEmpty()) {
+            System.out.println("No products were added, so no ticket was created.");
+            return;
+        }
+        try {
+            checkoutService.createTicket(quantities).showTicket();
+        } catch (ProductNotFoundException | IllegalArgumentException | IllegalStateException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    private Map<Integer, Integer> quantitiesById(Map<Product, Integer> ticket) {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (Map.Entry<Product, Integer> entry : ticket.entrySet()) {
+            quantities.merge(entry.getKey().getProductId(), entry.getValue(), Integer::sum);
+        }
+        return quantities;
     }
 
     private Product selectProduct(ManagerProducts managerProducts) {
@@ -91,15 +120,24 @@ public class ManagerTickets {
 
     private void checkQuantityAndAddProduct(Map<Product, Integer> ticketWithProducts, Product productToTicket, int quantity)
             throws InsufficientStockException {
+        Product line = findLine(ticketWithProducts, productToTicket.getProductId());
+        int alreadyInTicket = line == null ? 0 : ticketWithProducts.get(line);
         if (quantity <= 0) {
             System.out.println("You have to select at least one " + productToTicket.getType());
-        } else if (productToTicket.getQuantity() < quantity) {
+        } else if (productToTicket.getQuantity() < alreadyInTicket + quantity) {
             throw new InsufficientStockException("Insufficient stock for product: " + productToTicket.getName());
         } else {
-            ticketWithProducts.put(productToTicket, quantity);
-            productToTicket = Ticket.updateStockStore(productToTicket, quantity);
-            productsRepository.updateProduct(productToTicket);
+            ticketWithProducts.put(line == null ? productToTicket : line, alreadyInTicket + quantity);
             System.out.println(productToTicket.getName() + " added to buy.");
         }
     }
+
+    private Product findLine(Map<Product, Integer> ticketWithProducts, int productId) {
+        for (Product product : ticketWithProducts.keySet()) {
+            if (product.getProductId() == productId) {
+                return product;
+            }
+        }
+        return null;
+    }
 }
@@ -1,6 +1,9 @@
 package Infrastructure.Connections;
 
 import Infrastructure.Config.MySQLConfig;
+import Infrastructure.Connections.Pool.ConnectionPool;
+import Infrastructure.Connections.Pool.PoolConfig;
+import Infrastructure.Connections.Pool.PoolMetrics;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -11,32 +14,35 @@ import java.util.Properties;
 
 @MySQLConfig(config = "mysql.properties")
 public class MySQLConnection {
-    private static Connection mySQLDatabase;
+    private static ConnectionPool connectionPool;
     private String url;
     private String username;
     private String password;
 
     public MySQLConnection(String nameStore) {
+        this(loadProperties(MySQLConnection.class.getAnnotation(MySQLConfig.class).config()));
+    }
 
-        MySQLConfig annotation = MySQLConnection.class.getAnnotation(MySQLConfig.class);
-        String configFileName = annotation.config();
-        Properties properties = loadProperties(configFileName);
-
-
+    // Used to point the repositories at another JDBC url, e.g. an embedded database in benchmarks.
+    // The pool is shared by every repository, so a new connection closes the pool it replaces.
+    public MySQLConnection(Properties properties) {
         url = properties.getProperty("mysql.url");
         username = properties.getProperty("mysql.username");
         password = properties.getProperty("mysql.password");
 
-        try {
-            mySQLDatabase = DriverManager.getConnection(url, username, password);
-        } catch (SQLException e) {
-            System.err.println("Error establishing the database connection.");
-            e.printStackTrace();
+        replacePool(new ConnectionPool(PoolConfig.fromProperties(properties),
+                () -> DriverManager.getConnection(url, username, password)));
+    }
+
+    private static synchronized void replacePool(ConnectionPool pool) {
+        if (connectionPool != null) {
+            connectionPool.close();
         }
+        connectionPool = pool;
     }
 
-    private Properties loadProperties(String filename) {
-        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(filename)) {
+    private static Properties loadProperties(String filename) {
+        try (InputStream inputStream = MySQLConnection.class.getClassLoader().getResourceAsStream(filename)) {
             if (inputStream != null) {
                 Properties properties = new Properties();
                 properties.load(inputStream);
@@ -50,18 +56,22 @@ public class MySQLConnection {
     }
 
 
-    public static Connection getMySQLDatabase() {
-        return mySQLDatabase;
+    // Borrows a connection from the pool; closing it gives it back.
+    public static Connection getMySQLDatabase() throws SQLException {
+        return connectionPool.getConnection();
     }
 
-    public void disconnectMySQL() {
+    public void useDatabase(String dataBaseName) {
+        connectionPool.setCatalog(dataBaseName);
+    }
 
-        try {
-            if (mySQLDatabase != null) {
-                mySQLDatabase.close();
-            }
-        } catch (SQLException e) {
-            System.err.println("An error occurred when disconnecting from the database");
+    public PoolMetrics getPoolMetrics() {
+        return connectionPool.getMetrics();
+    }
+
+    public void disconnectMySQL() {
+        if (connectionPool != null) {
+            connectionPool.close();
         }
     }
 }
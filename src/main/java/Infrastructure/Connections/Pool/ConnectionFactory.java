@@ -0,0 +1,9 @@
+package Infrastructure.Connections.Pool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface ConnectionFactory {
+    Connection create() throws SQLException;
+}
@@ -0,0 +1,209 @@
+package Infrastructure.Connections.Pool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Iterator;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+    private static final long HOUSEKEEPING_PERIOD_MILLIS = 30_000;
+
+    private final PoolConfig config;
+    private final ConnectionFactory connectionFactory;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+    private volatile String catalog;
+    private volatile boolean closed;
+
+    public ConnectionPool(PoolConfig config, ConnectionFactory connectionFactory) {
+        this.config = config;
+        this.connectionFactory = connectionFactory;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::evictIdle, HOUSEKEEPING_PERIOD_MILLIS,
+                HOUSEKEEPING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Applied to every connection handed out from now on, the pooled equivalent of "USE database".
+    public void setCatalog(String catalog) {
+        this.catalog = catalog;
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.getConnectionTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLTransientConnectionException("Timed out after " + config.getConnectionTimeoutMillis()
+                        + "ms waiting for a connection (" + getMetrics() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            PooledConnection pooled = checkOut();
+            recordWait(System.nanoTime() - start);
+            active.incrementAndGet();
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection checkOut() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isExpired(pooled, System.currentTimeMillis()) || !isValid(pooled)) {
+                destroy(pooled);
+            } else {
+                break;
+            }
+        }
+        if (pooled == null) {
+            pooled = new PooledConnection(this, connectionFactory.create(), config.getStatementCacheSize());
+            created.incrementAndGet();
+        }
+        try {
+            pooled.useCatalog(catalog);
+        } catch (SQLException e) {
+            destroy(pooled);
+            throw e;
+        }
+        return pooled;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        long now = System.currentTimeMillis();
+        if (now - pooled.getLastUsedAt() < config.getValidationIntervalMillis()
+                || now - pooled.getLastValidatedAt() < config.getValidationIntervalMillis()) {
+            return true;
+        }
+        try {
+            boolean valid = pooled.physical().isValid(config.getValidationTimeoutSeconds());
+            if (valid) {
+                pooled.validated();
+            }
+            return valid;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void release(PooledConnection pooled) {
+        active.decrementAndGet();
+        pooled.endLease();
+        try {
+            if (closed || pooled.isBroken() || isExpired(pooled, System.currentTimeMillis())) {
+                destroy(pooled);
+                return;
+            }
+            Connection physical = pooled.physical();
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            pooled.touch();
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled, long now) {
+        return config.getMaxLifetimeMillis() > 0 && now - pooled.getCreatedAt() >= config.getMaxLifetimeMillis();
+    }
+
+    private void destroy(PooledConnection pooled) {
+        destroyed.incrementAndGet();
+        pooled.closePhysical();
+    }
+
+    // Idle connections are kept most-recently-used first, so the ones at the tail are the coldest.
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        int kept = 0;
+        Iterator<PooledConnection> iterator = idle.iterator();
+        while (iterator.hasNext()) {
+            PooledConnection pooled = iterator.next();
+            boolean idleTooLong = config.getIdleTimeoutMillis() > 0
+                    && now - pooled.getLastUsedAt() >= config.getIdleTimeoutMillis()
+                    && kept >= config.getMinIdle();
+            if ((idleTooLong || isExpired(pooled, now)) && idle.remove(pooled)) {
+                destroy(pooled);
+            } else {
+                kept++;
+            }
+        }
+        logger.debug("Connection pool: " + getMetrics());
+    }
+
+    private void recordWait(long waitNanos) {
+        borrows.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    void recordStatementHit() {
+        statementHits.incrementAndGet();
+    }
+
+    void recordStatementMiss() {
+        statementMisses.incrementAndGet();
+    }
+
+    void recordStatementEviction() {
+        statementEvictions.incrementAndGet();
+    }
+
+    public PoolMetrics getMetrics() {
+        return new PoolMetrics(active.get(), idle.size(), permits.getQueueLength(), borrows.get(), timeouts.get(),
+                created.get(), destroyed.get(), totalWaitNanos.get(), maxWaitNanos.get(),
+                statementHits.get(), statementMisses.get(), statementEvictions.get());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+}
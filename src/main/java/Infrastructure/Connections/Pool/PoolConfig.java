@@ -0,0 +1,78 @@
+package Infrastructure.Connections.Pool;
+
+import java.util.Properties;
+
+public class PoolConfig {
+
+    private final int maxSize;
+    private final int minIdle;
+    private final long connectionTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final long validationIntervalMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    public PoolConfig(int maxSize, int minIdle, long connectionTimeoutMillis, long idleTimeoutMillis,
+                      long maxLifetimeMillis, long validationIntervalMillis, int validationTimeoutSeconds,
+                      int statementCacheSize) {
+        if (maxSize < 1 || minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: maxSize=" + maxSize + ", minIdle=" + minIdle);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Invalid statement cache size: " + statementCacheSize);
+        }
+        this.maxSize = maxSize;
+        this.minIdle = minIdle;
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public static PoolConfig fromProperties(Properties properties) {
+        return new PoolConfig(
+                Integer.parseInt(properties.getProperty("mysql.pool.maxSize", "10")),
+                Integer.parseInt(properties.getProperty("mysql.pool.minIdle", "2")),
+                Long.parseLong(properties.getProperty("mysql.pool.connectionTimeoutMs", "30000")),
+                Long.parseLong(properties.getProperty("mysql.pool.idleTimeoutMs", "600000")),
+                Long.parseLong(properties.getProperty("mysql.pool.maxLifetimeMs", "1800000")),
+                Long.parseLong(properties.getProperty("mysql.pool.validationIntervalMs", "500")),
+                Integer.parseInt(properties.getProperty("mysql.pool.validationTimeoutSec", "5")),
+                Integer.parseInt(properties.getProperty("mysql.pool.statementCacheSize", "64")));
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public long getConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public long getMaxLifetimeMillis() {
+        return maxLifetimeMillis;
+    }
+
+    public long getValidationIntervalMillis() {
+        return validationIntervalMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+}
@@ -0,0 +1,90 @@
+package Infrastructure.Connections.Pool;
+
+public class PoolMetrics {
+
+    private final int active;
+    private final int idle;
+    private final int waiting;
+    private final long borrows;
+    private final long timeouts;
+    private final long created;
+    private final long destroyed;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long statementHits;
+    private final long statementMisses;
+    private final long statementEvictions;
+
+    public PoolMetrics(int active, int idle, int waiting, long borrows, long timeouts, long created, long destroyed,
+                       long totalWaitNanos, long maxWaitNanos, long statementHits, long statementMisses,
+                       long statementEvictions) {
+        this.active = active;
+        this.idle = idle;
+        this.waiting = waiting;
+        this.borrows = borrows;
+        this.timeouts = timeouts;
+        this.created = created;
+        this.destroyed = destroyed;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.statementHits = statementHits;
+        this.statementMisses = statementMisses;
+        this.statementEvictions = statementEvictions;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public long getBorrows() {
+        return borrows;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getDestroyed() {
+        return destroyed;
+    }
+
+    public double getAverageWaitMillis() {
+        return borrows == 0 ? 0 : totalWaitNanos / 1_000_000.0 / borrows;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    public long getStatementHits() {
+        return statementHits;
+    }
+
+    public long getStatementMisses() {
+        return statementMisses;
+    }
+
+    public long getStatementEvictions() {
+        return statementEvictions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d, idle=%d, waiting=%d, borrows=%d, timeouts=%d, created=%d, destroyed=%d, " +
+                        "avgWait=%.3fms, maxWait=%.3fms, statementHits=%d, statementMisses=%d, statementEvictions=%d",
+                active, idle, waiting, borrows, timeouts, created, destroyed, getAverageWaitMillis(), getMaxWaitMillis(),
+                statementHits, statementMisses, statementEvictions);
+    }
+}
@@ -0,0 +1,139 @@
+package Infrastructure.Connections.Pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+class PooledConnection {
+
+    private static final String CONNECTION_EXCEPTION_STATE = "08";
+
+    private final ConnectionPool pool;
+    private final Connection physical;
+    private final StatementCache statementCache;
+    private final long createdAt;
+    private long lastUsedAt;
+    private long lastValidatedAt;
+    private String catalog;
+    private volatile boolean broken;
+
+    PooledConnection(ConnectionPool pool, Connection physical, int statementCacheSize) {
+        this.pool = pool;
+        this.physical = physical;
+        this.statementCache = new StatementCache(statementCacheSize, pool);
+        this.createdAt = System.currentTimeMillis();
+        this.lastUsedAt = createdAt;
+        this.lastValidatedAt = createdAt;
+    }
+
+    Connection physical() {
+        return physical;
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    void touch() {
+        lastUsedAt = System.currentTimeMillis();
+    }
+
+    long getLastValidatedAt() {
+        return lastValidatedAt;
+    }
+
+    void validated() {
+        lastValidatedAt = System.currentTimeMillis();
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    void useCatalog(String catalog) throws SQLException {
+        if (catalog != null && !catalog.equals(this.catalog)) {
+            physical.setCatalog(catalog);
+            this.catalog = catalog;
+        }
+    }
+
+    // Every borrow gets its own proxy, so a connection closed twice or used after close can't touch the
+    // physical connection once somebody else has borrowed it.
+    Connection lease() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Lease());
+    }
+
+    void endLease() {
+        statementCache.releaseAll();
+    }
+
+    void closePhysical() {
+        statementCache.closeAll();
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            e.printStackTrace(System.out);
+        }
+    }
+
+    // Only prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys) are cached; the other
+    // variants carry cursor settings (e.g. streaming) that shouldn't leak into the next caller.
+    private static boolean isCacheable(Method method) {
+        Class<?>[] parameters = method.getParameterTypes();
+        return parameters.length == 1 || (parameters.length == 2 && parameters[1] == int.class);
+    }
+
+    private class Lease implements InvocationHandler {
+        private boolean returned;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (method.getName().equals("prepareStatement") && isCacheable(method)) {
+                int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                return statementCache.prepare((Connection) proxy, physical, (String) args[0], autoGeneratedKeys);
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    String state = ((SQLException) cause).getSQLState();
+                    if (state != null && state.startsWith(CONNECTION_EXCEPTION_STATE)) {
+                        broken = true;
+                    }
+                }
+                throw cause;
+            }
+        }
+    }
+}
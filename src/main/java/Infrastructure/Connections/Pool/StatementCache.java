@@ -0,0 +1,196 @@
+package Infrastructure.Connections.Pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+// Prepared statements of one physical connection, keyed by SQL text. A connection is only used by the thread
+// holding its lease, so no locking is needed here.
+class StatementCache {
+
+    private final int maxSize;
+    private final ConnectionPool pool;
+    private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+    // Everything handed out during the current lease, so none of it outlives the lease.
+    private final Set<CachedStatement> leased = new HashSet<>();
+    private final List<PreparedStatement> unpooled = new ArrayList<>();
+
+    StatementCache(int maxSize, ConnectionPool pool) {
+        this.maxSize = maxSize;
+        this.pool = pool;
+    }
+
+    PreparedStatement prepare(Connection lease, Connection physical, String sql, int autoGeneratedKeys)
+            throws SQLException {
+        if (maxSize == 0) {
+            return unpooled(physical.prepareStatement(sql, autoGeneratedKeys));
+        }
+        String key = autoGeneratedKeys + ":" + sql;
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            pool.recordStatementHit();
+            return lease(cached, lease);
+        }
+        pool.recordStatementMiss();
+        PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null) {
+            // The same SQL is already open further up the call stack; hand out a plain statement.
+            return unpooled(statement);
+        }
+        cached = new CachedStatement(statement);
+        statements.put(key, cached);
+        evictOverflow();
+        return lease(cached, lease);
+    }
+
+    private PreparedStatement lease(CachedStatement cached, Connection lease) {
+        leased.add(cached);
+        return cached.lease(lease);
+    }
+
+    private PreparedStatement unpooled(PreparedStatement statement) {
+        unpooled.add(statement);
+        return statement;
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> iterator = statements.values().iterator();
+        while (statements.size() > maxSize && iterator.hasNext()) {
+            CachedStatement eldest = iterator.next();
+            iterator.remove();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                eldest.closePhysical();
+            }
+            pool.recordStatementEviction();
+        }
+    }
+
+    // Called when the lease ends. Statements the caller kept are invalidated, like a closed connection's
+    // statements, so they can't run on the connection once somebody else has borrowed it.
+    void releaseAll() {
+        for (CachedStatement cached : leased) {
+            cached.invalidate();
+        }
+        leased.clear();
+        for (PreparedStatement statement : unpooled) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                e.printStackTrace(System.out);
+            }
+        }
+        unpooled.clear();
+    }
+
+    void closeAll() {
+        List<CachedStatement> all = new ArrayList<>(statements.values());
+        statements.clear();
+        for (CachedStatement cached : all) {
+            cached.closePhysical();
+        }
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private static class CachedStatement {
+        private final PreparedStatement physical;
+        private StatementLease current;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        private PreparedStatement lease(Connection connection) {
+            inUse = true;
+            current = new StatementLease(connection);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, current);
+        }
+
+        private void invalidate() {
+            if (current != null && !current.returned) {
+                current.returned = true;
+                giveBack();
+            }
+        }
+
+        private void giveBack() {
+            inUse = false;
+            if (evicted) {
+                closePhysical();
+                return;
+            }
+            try {
+                physical.clearParameters();
+                physical.clearBatch();
+            } catch (SQLException e) {
+                evicted = true;
+                closePhysical();
+            }
+        }
+
+        private void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                e.printStackTrace(System.out);
+            }
+        }
+
+        private class StatementLease implements InvocationHandler {
+            private final Connection connection;
+            private boolean returned;
+
+            private StatementLease(Connection connection) {
+                this.connection = connection;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!returned) {
+                            returned = true;
+                            giveBack();
+                        }
+                        return null;
+                    case "isClosed":
+                        return returned || physical.isClosed();
+                    case "getConnection":
+                        return connection;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "CachedStatement[" + physical + "]";
+                    default:
+                        break;
+                }
+                if (returned) {
+                    throw new SQLException("Statement has already been closed");
+                }
+                try {
+                    return method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+}
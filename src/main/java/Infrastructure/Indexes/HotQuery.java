@@ -0,0 +1,34 @@
+package Infrastructure.Indexes;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+// A query the repository runs often and that must be answered from an index.
+public class HotQuery {
+
+    private final String description;
+    private final Bson filter;
+    private final Bson sort;
+
+    public HotQuery(String description, Bson filter, Bson sort) {
+        this.description = description;
+        this.filter = filter;
+        this.sort = sort;
+    }
+
+    public HotQuery(String description, Bson filter) {
+        this(description, filter, new Document());
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Bson getFilter() {
+        return filter;
+    }
+
+    public Bson getSort() {
+        return sort;
+    }
+}
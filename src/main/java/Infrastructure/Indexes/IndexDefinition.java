@@ -0,0 +1,47 @@
+package Infrastructure.Indexes;
+
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import org.bson.conversions.Bson;
+
+public class IndexDefinition {
+
+    private final String name;
+    private final Bson keys;
+    private final boolean unique;
+
+    private IndexDefinition(String name, Bson keys, boolean unique) {
+        this.name = name;
+        this.keys = keys;
+        this.unique = unique;
+    }
+
+    public static IndexDefinition ascending(String name, String... fields) {
+        return new IndexDefinition(name, Indexes.ascending(fields), false);
+    }
+
+    public static IndexDefinition uniqueAscending(String name, String... fields) {
+        return new IndexDefinition(name, Indexes.ascending(fields), true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Bson getKeys() {
+        return keys;
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+    public IndexOptions toOptions() {
+        return new IndexOptions().name(name).unique(unique);
+    }
+
+    @Override
+    public String toString() {
+        return name + (unique ? " (unique) " : " ") + keys.toBsonDocument().toJson();
+    }
+}
@@ -0,0 +1,97 @@
+package Infrastructure.Indexes;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Indexes each collection needs, declared once and created at startup if they are missing. Builds that
+// take longer than the slow build threshold are logged, as are hot queries that don't use an index.
+public class MongoIndexRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexRegistry.class);
+    private static final long DEFAULT_SLOW_BUILD_MILLIS = 500;
+
+    private final Map<String, List<IndexDefinition>> indexes = new LinkedHashMap<>();
+    private final Map<String, List<HotQuery>> hotQueries = new LinkedHashMap<>();
+    private final long slowBuildMillis;
+
+    public MongoIndexRegistry() {
+        this(DEFAULT_SLOW_BUILD_MILLIS);
+    }
+
+    public MongoIndexRegistry(long slowBuildMillis) {
+        this.slowBuildMillis = slowBuildMillis;
+    }
+
+    public MongoIndexRegistry index(String collection, IndexDefinition definition) {
+        indexes.computeIfAbsent(collection, name -> new ArrayList<>()).add(definition);
+        return this;
+    }
+
+    public MongoIndexRegistry hotQuery(String collection, HotQuery query) {
+        hotQueries.computeIfAbsent(collection, name -> new ArrayList<>()).add(query);
+        return this;
+    }
+
+    public List<IndexDefinition> getIndexes(String collection) {
+        return indexes.getOrDefault(collection, new ArrayList<>());
+    }
+
+    // Returns the names of the indexes created by this call.
+    public List<String> ensureIndexes(MongoCollection<Document> collection) {
+        String collectionName = collection.getNamespace().getCollectionName();
+        Set<String> existing = new HashSet<>();
+        for (Document index : collection.listIndexes()) {
+            existing.add(index.getString("name"));
+        }
+
+        List<String> created = new ArrayList<>();
+        for (IndexDefinition definition : getIndexes(collectionName)) {
+            if (existing.contains(definition.getName())) {
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                collection.createIndex(definition.getKeys(), definition.toOptions());
+            } catch (MongoException e) {
+                logger.error("Could not create index " + definition + " on " + collectionName + ": " + e.getMessage());
+                continue;
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMillis >= slowBuildMillis) {
+                logger.warn("Slow index build: " + definition + " on " + collectionName + " took " + elapsedMillis + " ms");
+            } else {
+                logger.info("Created index " + definition + " on " + collectionName + " in " + elapsedMillis + " ms");
+            }
+            created.add(definition.getName());
+        }
+        return created;
+    }
+
+    public List<QueryPlan> explainHotQueries(MongoCollection<Document> collection) {
+        String collectionName = collection.getNamespace().getCollectionName();
+        List<QueryPlan> plans = new ArrayList<>();
+        for (HotQuery query : hotQueries.getOrDefault(collectionName, new ArrayList<>())) {
+            QueryPlan plan = explain(collection, query);
+            if (!plan.usesIndex()) {
+                logger.warn("Hot query is not using an index. " + plan);
+            }
+            plans.add(plan);
+        }
+        return plans;
+    }
+
+    public static QueryPlan explain(MongoCollection<Document> collection, HotQuery query) {
+        Document explain = collection.find(query.getFilter()).sort(query.getSort()).limit(1).explain();
+        return new QueryPlan(query.getDescription(), explain);
+    }
+}
@@ -0,0 +1,67 @@
+package Infrastructure.Indexes;
+
+import org.bson.Document;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Stages and index names found in the winning plan of an explain() result. Both the classic
+// (winningPlan.inputStage) and the slot based engine (winningPlan.queryPlan) layouts are read.
+public class QueryPlan {
+
+    private final String description;
+    private final Set<String> stages = new LinkedHashSet<>();
+    private final Set<String> indexNames = new LinkedHashSet<>();
+
+    public QueryPlan(String description, Document explain) {
+        this.description = description;
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        if (queryPlanner != null) {
+            collect(queryPlanner.get("winningPlan", Document.class));
+        }
+    }
+
+    private void collect(Document stage) {
+        if (stage == null) {
+            return;
+        }
+        String name = stage.getString("stage");
+        if (name != null) {
+            stages.add(name);
+        }
+        String indexName = stage.getString("indexName");
+        if (indexName != null) {
+            indexNames.add(indexName);
+        }
+        collect(stage.get("queryPlan", Document.class));
+        collect(stage.get("inputStage", Document.class));
+        Object inputStages = stage.get("inputStages");
+        if (inputStages instanceof List) {
+            for (Object input : (List<?>) inputStages) {
+                if (input instanceof Document) {
+                    collect((Document) input);
+                }
+            }
+        }
+    }
+
+    public boolean usesIndex() {
+        return !stages.contains("COLLSCAN") && (stages.contains("IXSCAN") || stages.contains("IDHACK")
+                || stages.contains("EXPRESS_IXSCAN"));
+    }
+
+    public Set<String> getStages() {
+        return stages;
+    }
+
+    public Set<String> getIndexNames() {
+        return indexNames;
+    }
+
+    @Override
+    public String toString() {
+        return description + ": " + String.join(" <- ", stages)
+                + (indexNames.isEmpty() ? "" : " using " + String.join(", ", indexNames));
+    }
+}
@@ -0,0 +1,105 @@
+package Infrastructure.Sequences;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntSupplier;
+
+// Hi/lo id allocator backed by a counters collection ({_id: name, seq: n}). Each round trip reserves a block
+// of ids with an atomic $inc; ids are then handed out from the local range without touching the server.
+// Ids left in a block when the application stops are never reused, so sequences may have gaps.
+public class MongoSequence {
+
+    private final MongoCollection<Document> counters;
+    private final String name;
+    private final int blockSize;
+    private final IntSupplier currentMax;
+    private final AtomicReference<Range> range = new AtomicReference<>(Range.EMPTY);
+    private volatile boolean seeded;
+
+    public MongoSequence(MongoCollection<Document> counters, String name, int blockSize, IntSupplier currentMax) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.counters = counters;
+        this.name = name;
+        this.blockSize = blockSize;
+        this.currentMax = currentMax;
+    }
+
+    public int next() {
+        while (true) {
+            Range current = range.get();
+            if (current.next <= current.last) {
+                if (range.compareAndSet(current, new Range(current.next + 1, current.last))) {
+                    return current.next;
+                }
+            } else {
+                refill(current);
+            }
+        }
+    }
+
+    // Returns the first of count consecutive ids. Large requests are reserved directly on the server so the
+    // local range is not drained by bulk inserts.
+    public int allocate(int count) {
+        if (count == 1) {
+            return next();
+        }
+        while (true) {
+            Range current = range.get();
+            if (current.last - current.next + 1 < count) {
+                return reserve(count) - count + 1;
+            }
+            if (range.compareAndSet(current, new Range(current.next + count, current.last))) {
+                return current.next;
+            }
+        }
+    }
+
+    private synchronized void refill(Range exhausted) {
+        if (range.get() != exhausted) {
+            return;
+        }
+        int hi = reserve(blockSize);
+        range.set(new Range(hi - blockSize + 1, hi));
+    }
+
+    private int reserve(int count) {
+        seed();
+        Document counter = counters.findOneAndUpdate(Filters.eq("_id", name), Updates.inc("seq", count),
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+        return ((Number) counter.get("seq")).intValue();
+    }
+
+    // Existing documents may predate the counter, so it is raised to the highest id in use the first time.
+    private void seed() {
+        if (!seeded) {
+            synchronized (this) {
+                if (!seeded) {
+                    counters.updateOne(Filters.eq("_id", name), Updates.max("seq", currentMax.getAsInt()),
+                            new UpdateOptions().upsert(true));
+                    seeded = true;
+                }
+            }
+        }
+    }
+
+    private static final class Range {
+        private static final Range EMPTY = new Range(1, 0);
+
+        private final int next;
+        private final int last;
+
+        private Range(int next, int last) {
+            this.next = next;
+            this.last = last;
+        }
+    }
+}
@@ -122,6 +122,18 @@ public class InputControl {
         }
     }
 
+    public static String readText(String mensaje) {
+
+        while (true) {
+            System.out.println(mensaje);
+            try {
+                return scanner.nextLine().trim();
+            } catch (Exception e) {
+                exception(e);
+            }
+        }
+    }
+
     public static boolean readBoolean(String mensaje) {
         boolean result = false;
         boolean validData = false;
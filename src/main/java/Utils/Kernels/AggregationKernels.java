@@ -0,0 +1,25 @@
+package Utils.Kernels;
+
+import java.nio.ByteBuffer;
+
+// Sums over primitive columns for inventory valuation and ticket totals. Money is in cents, so the results
+// are exact whatever order the lanes are added in.
+// Types are ordinals; the per-type arrays passed in are indexed by them and accumulated into, not reset.
+public interface AggregationKernels {
+
+    // Sum of quantities[i] * pricesInCents[i] over the first length entries, e.g. the total of a ticket.
+    long dot(int[] quantities, long[] pricesInCents, int length);
+
+    // Products, units and stock value per type over the first length entries.
+    void sumByType(byte[] types, int[] quantities, long[] pricesInCents, int length,
+                   long[] count, long[] units, long[] valueInCents);
+
+    // The same over off-heap columns in native byte order: a byte per type, an int per quantity and a long per price.
+    void sumByType(ByteBuffer types, ByteBuffer quantities, ByteBuffer pricesInCents, int rows,
+                   long[] count, long[] units, long[] valueInCents);
+
+    // The Vector API implementation when the jdk.incubator.vector module is loaded, the scalar one otherwise.
+    static AggregationKernels getInstance() {
+        return KernelLoader.AGGREGATION;
+    }
+}
@@ -0,0 +1,33 @@
+package Utils.Kernels;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// The vector kernels are only loaded reflectively: their class references jdk.incubator.vector and can't be
+// linked when the JVM was started without --add-modules jdk.incubator.vector.
+// -Dflowerstore.kernels=scalar forces the scalar kernels.
+class KernelLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(KernelLoader.class);
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    static final AggregationKernels AGGREGATION = load();
+
+    private KernelLoader() {
+    }
+
+    private static AggregationKernels load() {
+        if (!"scalar".equalsIgnoreCase(System.getProperty("flowerstore.kernels"))
+                && ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                AggregationKernels kernels = (AggregationKernels) Class.forName("Utils.Kernels.VectorAggregationKernels")
+                        .getDeclaredConstructor().newInstance();
+                logger.info("Using Vector API aggregation kernels: {}", kernels);
+                return kernels;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.warn("Vector API kernels unavailable, using scalar code", e);
+            }
+        }
+        return new ScalarAggregationKernels();
+    }
+}
@@ -0,0 +1,43 @@
+package Utils.Kernels;
+
+import java.nio.ByteBuffer;
+
+public class ScalarAggregationKernels implements AggregationKernels {
+
+    @Override
+    public long dot(int[] quantities, long[] pricesInCents, int length) {
+        long total = 0;
+        for (int i = 0; i < length; i++) {
+            total += quantities[i] * pricesInCents[i];
+        }
+        return total;
+    }
+
+    @Override
+    public void sumByType(byte[] types, int[] quantities, long[] pricesInCents, int length,
+                          long[] count, long[] units, long[] valueInCents) {
+        for (int i = 0; i < length; i++) {
+            int type = types[i];
+            count[type]++;
+            units[type] += quantities[i];
+            valueInCents[type] += quantities[i] * pricesInCents[i];
+        }
+    }
+
+    @Override
+    public void sumByType(ByteBuffer types, ByteBuffer quantities, ByteBuffer pricesInCents, int rows,
+                          long[] count, long[] units, long[] valueInCents) {
+        for (int row = 0; row < rows; row++) {
+            int type = types.get(row);
+            int quantity = quantities.getInt(row * 4);
+            count[type]++;
+            units[type] += quantity;
+            valueInCents[type] += quantity * pricesInCents.getLong(row * 8);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,139 @@
+package Utils.Kernels;
+
+import jdk.incubator.vector.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Each step loads one vector of long prices plus as many quantities and types, widened to long lanes.
+// Per-type sums are kept in vector accumulators selected by a lane mask and reduced once at the end. The loop
+// is written out for the three product types; other type counts, and whatever doesn't fill a whole vector,
+// are summed by scalar code.
+class VectorAggregationKernels implements AggregationKernels {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.length() * 32));
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_64;
+    private static final int LANES = LONGS.length();
+    // A type load always reads a 64-bit vector of bytes, which can be more than LANES types.
+    private static final int TYPE_READ = Math.max(LANES, BYTES.length());
+    private static final ByteOrder ORDER = ByteOrder.nativeOrder();
+    private static final int TYPES = 3;
+
+    private final ScalarAggregationKernels scalar = new ScalarAggregationKernels();
+
+    @Override
+    public long dot(int[] quantities, long[] pricesInCents, int length) {
+        LongVector sum = LongVector.zero(LONGS);
+        int i = 0;
+        for (int bound = LONGS.loopBound(length); i < bound; i += LANES) {
+            LongVector quantity = (LongVector) IntVector.fromArray(INTS, quantities, i).convertShape(VectorOperators.I2L, LONGS, 0);
+            sum = sum.add(quantity.mul(LongVector.fromArray(LONGS, pricesInCents, i)));
+        }
+        long total = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            total += quantities[i] * pricesInCents[i];
+        }
+        return total;
+    }
+
+    // The accumulators are locals, one per type, and are only ever reduced: kept in an array or an object, or
+    // passed to another method, they escape and every step of the loop allocates boxed vectors.
+    @Override
+    public void sumByType(byte[] types, int[] quantities, long[] pricesInCents, int length,
+                          long[] count, long[] units, long[] valueInCents) {
+        if (count.length != TYPES) {
+            scalar.sumByType(types, quantities, pricesInCents, length, count, units, valueInCents);
+            return;
+        }
+        LongVector units0 = LongVector.zero(LONGS), units1 = units0, units2 = units0;
+        LongVector value0 = units0, value1 = units0, value2 = units0;
+        long count0 = 0, count1 = 0, count2 = 0;
+        int i = 0;
+        for (; i + TYPE_READ <= length; i += LANES) {
+            LongVector type = (LongVector) ByteVector.fromArray(BYTES, types, i).convertShape(VectorOperators.B2L, LONGS, 0);
+            LongVector quantity = (LongVector) IntVector.fromArray(INTS, quantities, i).convertShape(VectorOperators.I2L, LONGS, 0);
+            LongVector value = quantity.mul(LongVector.fromArray(LONGS, pricesInCents, i));
+            VectorMask<Long> is0 = type.compare(VectorOperators.EQ, 0);
+            VectorMask<Long> is1 = type.compare(VectorOperators.EQ, 1);
+            VectorMask<Long> is2 = type.compare(VectorOperators.EQ, 2);
+            count0 += is0.trueCount();
+            count1 += is1.trueCount();
+            count2 += is2.trueCount();
+            units0 = units0.add(quantity, is0);
+            units1 = units1.add(quantity, is1);
+            units2 = units2.add(quantity, is2);
+            value0 = value0.add(value, is0);
+            value1 = value1.add(value, is1);
+            value2 = value2.add(value, is2);
+        }
+        count[0] += count0;
+        count[1] += count1;
+        count[2] += count2;
+        units[0] += units0.reduceLanes(VectorOperators.ADD);
+        units[1] += units1.reduceLanes(VectorOperators.ADD);
+        units[2] += units2.reduceLanes(VectorOperators.ADD);
+        valueInCents[0] += value0.reduceLanes(VectorOperators.ADD);
+        valueInCents[1] += value1.reduceLanes(VectorOperators.ADD);
+        valueInCents[2] += value2.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            int type = types[i];
+            count[type]++;
+            units[type] += quantities[i];
+            valueInCents[type] += quantities[i] * pricesInCents[i];
+        }
+    }
+
+    @Override
+    public void sumByType(ByteBuffer types, ByteBuffer quantities, ByteBuffer pricesInCents, int rows,
+                          long[] count, long[] units, long[] valueInCents) {
+        if (count.length != TYPES) {
+            scalar.sumByType(types, quantities, pricesInCents, rows, count, units, valueInCents);
+            return;
+        }
+        LongVector units0 = LongVector.zero(LONGS), units1 = units0, units2 = units0;
+        LongVector value0 = units0, value1 = units0, value2 = units0;
+        long count0 = 0, count1 = 0, count2 = 0;
+        int row = 0;
+        for (; row + TYPE_READ <= rows; row += LANES) {
+            LongVector type = (LongVector) ByteVector.fromByteBuffer(BYTES, types, row, ORDER)
+                    .convertShape(VectorOperators.B2L, LONGS, 0);
+            LongVector quantity = (LongVector) IntVector.fromByteBuffer(INTS, quantities, row * 4, ORDER)
+                    .convertShape(VectorOperators.I2L, LONGS, 0);
+            LongVector value = quantity.mul(LongVector.fromByteBuffer(LONGS, pricesInCents, row * 8, ORDER));
+            VectorMask<Long> is0 = type.compare(VectorOperators.EQ, 0);
+            VectorMask<Long> is1 = type.compare(VectorOperators.EQ, 1);
+            VectorMask<Long> is2 = type.compare(VectorOperators.EQ, 2);
+            count0 += is0.trueCount();
+            count1 += is1.trueCount();
+            count2 += is2.trueCount();
+            units0 = units0.add(quantity, is0);
+            units1 = units1.add(quantity, is1);
+            units2 = units2.add(quantity, is2);
+            value0 = value0.add(value, is0);
+            value1 = value1.add(value, is1);
+            value2 = value2.add(value, is2);
+        }
+        count[0] += count0;
+        count[1] += count1;
+        count[2] += count2;
+        units[0] += units0.reduceLanes(VectorOperators.ADD);
+        units[1] += units1.reduceLanes(VectorOperators.ADD);
+        units[2] += units2.reduceLanes(VectorOperators.ADD);
+        valueInCents[0] += value0.reduceLanes(VectorOperators.ADD);
+        valueInCents[1] += value1.reduceLanes(VectorOperators.ADD);
+        valueInCents[2] += value2.reduceLanes(VectorOperators.ADD);
+        for (; row < rows; row++) {
+            int type = types.get(row);
+            int quantity = quantities.getInt(row * 4);
+            count[type]++;
+            units[type] += quantity;
+            valueInCents[type] += quantity * pricesInCents.getLong(row * 8);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "vector, " + LANES + " long lanes";
+    }
+}
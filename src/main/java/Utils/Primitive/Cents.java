@@ -0,0 +1,16 @@
+package Utils.Primitive;
+
+// Prices and totals as whole cents, so sums don't pick up floating point error.
+public class Cents {
+
+    private Cents() {
+    }
+
+    public static long fromEuros(double euros) {
+        return Math.round(euros * 100);
+    }
+
+    public static double toEuros(long cents) {
+        return cents / 100.0;
+    }
+}
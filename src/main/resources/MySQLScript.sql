@@ -30,7 +30,8 @@ CREATE TABLE IF NOT EXISTS `floresPaquitaSL`.`product` (
   `quantity` INT NOT NULL,
   `price` DOUBLE NOT NULL,
   `type` ENUM('FLOWER', 'TREE', 'DECORATION') NULL DEFAULT NULL,
-  PRIMARY KEY (`idproduct`))
+  PRIMARY KEY (`idproduct`),
+  INDEX `idx_product_type` (`type` ASC, `idproduct` ASC) VISIBLE)
 ENGINE = InnoDB
 AUTO_INCREMENT = 1
 DEFAULT CHARACTER SET = utf8mb4
@@ -79,7 +80,8 @@ CREATE TABLE IF NOT EXISTS `floresPaquitaSL`.`ticket` (
   `idticket` INT NOT NULL AUTO_INCREMENT,
   `date` DATE NULL,
   `totalPrice` FLOAT NULL,
-  PRIMARY KEY (`idticket`))
+  PRIMARY KEY (`idticket`),
+  INDEX `idx_ticket_date` (`date` ASC) VISIBLE)
 ENGINE = InnoDB
 DEFAULT CHARACTER SET = utf8mb4
 COLLATE = utf8mb4_0900_ai_ci;
@@ -93,14 +95,14 @@ DROP TABLE IF EXISTS `floresPaquitaSL`.`product_ticket` ;
 CREATE TABLE IF NOT EXISTS `floresPaquitaSL`.`product_ticket` (
   `idproduct_ticket` INT NOT NULL AUTO_INCREMENT,
   `amount` SMALLINT(10) NULL,
+  `unit_price` DOUBLE NULL,
+  `name` VARCHAR(45) NULL,
+  `type` ENUM('FLOWER', 'TREE', 'DECORATION') NULL,
   `product_idproduct` INT NOT NULL,
   `ticket_idticket` INT NOT NULL,
   PRIMARY KEY (`idproduct_ticket`),
   INDEX `fk_product_ticket_product1_idx` (`product_idproduct` ASC) VISIBLE,
   INDEX `fk_product_ticket_ticket1_idx` (`ticket_idticket` ASC) VISIBLE,
-    FOREIGN KEY (`product_idproduct`)
-    REFERENCES `floresPaquitaSL`.`product` (`idproduct`)
-    ON DELETE CASCADE,
     FOREIGN KEY (`ticket_idticket`)
     REFERENCES `floresPaquitaSL`.`ticket` (`idticket`)
     ON DELETE CASCADE)
@@ -125,6 +127,53 @@ DEFAULT CHARACTER SET = utf8mb4
 COLLATE = utf8mb4_0900_ai_ci;
 
 
+-- -----------------------------------------------------
+-- Table `floresPaquitaSL`.`sales_daily`
+-- -----------------------------------------------------
+DROP TABLE IF EXISTS `floresPaquitaSL`.`sales_daily` ;
+
+CREATE TABLE IF NOT EXISTS `floresPaquitaSL`.`sales_daily` (
+  `day` DATE NOT NULL,
+  `tickets` INT NOT NULL,
+  `revenue` DOUBLE NOT NULL,
+  PRIMARY KEY (`day`))
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8mb4
+COLLATE = utf8mb4_0900_ai_ci;
+
+
+-- -----------------------------------------------------
+-- Table `floresPaquitaSL`.`sales_daily_product`
+-- -----------------------------------------------------
+DROP TABLE IF EXISTS `floresPaquitaSL`.`sales_daily_product` ;
+
+CREATE TABLE IF NOT EXISTS `floresPaquitaSL`.`sales_daily_product` (
+  `day` DATE NOT NULL,
+  `product_idproduct` INT NOT NULL,
+  `units` INT NOT NULL,
+  `revenue` DOUBLE NOT NULL,
+  PRIMARY KEY (`day`, `product_idproduct`))
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8mb4
+COLLATE = utf8mb4_0900_ai_ci;
+
+
+-- -----------------------------------------------------
+-- Table `floresPaquitaSL`.`sales_daily_type`
+-- -----------------------------------------------------
+DROP TABLE IF EXISTS `floresPaquitaSL`.`sales_daily_type` ;
+
+CREATE TABLE IF NOT EXISTS `floresPaquitaSL`.`sales_daily_type` (
+  `day` DATE NOT NULL,
+  `type` ENUM('FLOWER', 'TREE', 'DECORATION') NOT NULL,
+  `units` INT NOT NULL,
+  `revenue` DOUBLE NOT NULL,
+  PRIMARY KEY (`day`, `type`))
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8mb4
+COLLATE = utf8mb4_0900_ai_ci;
+
+
 SET SQL_MODE=@OLD_SQL_MODE;
 SET FOREIGN_KEY_CHECKS=@OLD_FOREIGN_KEY_CHECKS;
 SET UNIQUE_CHECKS=@OLD_UNIQUE_CHECKS;
\ No newline at end of file
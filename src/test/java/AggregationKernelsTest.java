@@ -0,0 +1,88 @@
+import Utils.Kernels.AggregationKernels;
+import Utils.Kernels.ScalarAggregationKernels;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AggregationKernelsTest {
+
+    private static final int TYPES = 3;
+
+    private final AggregationKernels scalar = new ScalarAggregationKernels();
+    private final AggregationKernels kernels = AggregationKernels.getInstance();
+
+    @Test
+    void testVectorKernelsAreLoadedWithTheModule() {
+        boolean vectorModule = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assertEquals(vectorModule, !kernels.toString().equals("scalar"));
+    }
+
+    // Every length up to a few vectors, so the scalar tails are covered whatever the vector width.
+    @Test
+    void testKernelsMatchScalarCode() {
+        Random random = new Random(42);
+        for (int length = 0; length <= 70; length++) {
+            byte[] types = new byte[length];
+            int[] quantities = new int[length];
+            long[] prices = new long[length];
+            for (int i = 0; i < length; i++) {
+                types[i] = (byte) random.nextInt(TYPES);
+                quantities[i] = random.nextInt(1000);
+                prices[i] = random.nextInt(100_000);
+            }
+
+            assertEquals(scalar.dot(quantities, prices, length), kernels.dot(quantities, prices, length));
+            assertArrayEquals(sums(scalar, types, quantities, prices), sums(kernels, types, quantities, prices));
+            assertArrayEquals(sums(scalar, types, quantities, prices), bufferSums(kernels, types, quantities, prices));
+        }
+    }
+
+    @Test
+    void testProductsOfLargeQuantitiesDoNotOverflow() {
+        int[] quantities = new int[16];
+        long[] prices = new long[16];
+        Arrays.fill(quantities, Integer.MAX_VALUE);
+        Arrays.fill(prices, 1_000_000L);
+
+        assertEquals(16L * Integer.MAX_VALUE * 1_000_000L, kernels.dot(quantities, prices, 16));
+    }
+
+    private static long[] sums(AggregationKernels kernels, byte[] types, int[] quantities, long[] prices) {
+        long[] count = new long[TYPES];
+        long[] units = new long[TYPES];
+        long[] value = new long[TYPES];
+        kernels.sumByType(types, quantities, prices, types.length, count, units, value);
+        return concat(count, units, value);
+    }
+
+    private static long[] bufferSums(AggregationKernels kernels, byte[] types, int[] quantities, long[] prices) {
+        int rows = types.length;
+        // Spare capacity, like the product columns, so the kernels must stop at rows.
+        ByteBuffer typeColumn = ByteBuffer.allocateDirect(rows + 16).order(ByteOrder.nativeOrder());
+        ByteBuffer quantityColumn = ByteBuffer.allocateDirect((rows + 16) * 4).order(ByteOrder.nativeOrder());
+        ByteBuffer priceColumn = ByteBuffer.allocateDirect((rows + 16) * 8).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < rows + 16; i++) {
+            typeColumn.put(i, i < rows ? types[i] : 1);
+            quantityColumn.putInt(i * 4, i < rows ? quantities[i] : 99);
+            priceColumn.putLong(i * 8, i < rows ? prices[i] : 99);
+        }
+        long[] count = new long[TYPES];
+        long[] units = new long[TYPES];
+        long[] value = new long[TYPES];
+        kernels.sumByType(typeColumn, quantityColumn, priceColumn, rows, count, units, value);
+        return concat(count, units, value);
+    }
+
+    private static long[] concat(long[] count, long[] units, long[] value) {
+        long[] all = new long[count.length * 3];
+        System.arraycopy(count, 0, all, 0, count.length);
+        System.arraycopy(units, 0, all, count.length, units.length);
+        System.arraycopy(value, 0, all, count.length * 2, value.length);
+        return all;
+    }
+}
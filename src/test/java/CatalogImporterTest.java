@@ -0,0 +1,114 @@
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductsRepository;
+import Contexts.Product.Infrastructure.Import.CatalogImporter;
+import Contexts.Product.Infrastructure.Import.ImportProgress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+public class CatalogImporterTest {
+
+    @Mock
+    ProductsRepository repository;
+    List<Product> written = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            Collection<Product> batch = invocation.getArgument(0);
+            written.addAll(batch);
+            return null;
+        }).when(repository).addProducts(any());
+    }
+
+    @Test
+    void testCsvRowsAreValidatedAndWrittenInBatches() throws IOException {
+        Path file = directory.resolve("catalog.csv");
+        Files.write(file, List.of(
+                "type,name,quantity,price,attribute",
+                "FLOWER,Rosa,50,4.0,roja",
+                "tree,pino,10,8.5,3.0",
+                "DECORATION,\"jarron, grande\",5,20.5,madera",
+                "DECORATION,mesa,5,20.5,cristal",
+                "FLOWER,tulipan,-1,2.0,amarilla",
+                "FLOWER,margarita,20,1.5,blanca"), StandardCharsets.UTF_8);
+
+        ImportProgress result = new CatalogImporter(repository, 2, 4, 100).importFile(file, progress -> { });
+
+        assertTrue(result.isFinished());
+        assertEquals(4, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(2, result.getErrors().size());
+        assertEquals(4, written.size());
+        assertEquals("rosa", written.get(0).getName());
+        assertEquals("jarron, grande", written.get(2).getName());
+    }
+
+    @Test
+    void testJsonLinesRowsAreImported() throws IOException {
+        Path file = directory.resolve("catalog.jsonl");
+        Files.write(file, List.of(
+                "{\"type\": \"FLOWER\", \"name\": \"rosa\", \"quantity\": 50, \"price\": 4.0, \"attribute\": \"roja\"}",
+                "{\"type\": \"TREE\", \"name\": \"pino\"",
+                "",
+                "{\"type\": \"TREE\", \"name\": \"pino\", \"quantity\": 10, \"price\": 8.5, \"attribute\": 3.0}"),
+                StandardCharsets.UTF_8);
+
+        ImportProgress result = new CatalogImporter(repository, 10, 10, 100).importFile(file, progress -> { });
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(4, result.getLinesRead());
+    }
+
+    @Test
+    void testJsonValuesThatAreNotObjectsAreRejected() {
+        Path file = directory.resolve("catalog.jsonl");
+        ImportProgress result = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            Files.write(file, List.of(
+                    "42",
+                    "[1]",
+                    "\"x\"",
+                    "{\"type\": \"FLOWER\", \"name\": \"rosa\", \"quantity\": 50, \"price\": 4.0, \"attribute\": \"roja\"}"),
+                    StandardCharsets.UTF_8);
+            return new CatalogImporter(repository, 10, 10, 100).importFile(file, progress -> { });
+        });
+
+        assertEquals(1, result.getImported());
+        assertEquals(3, result.getRejected());
+    }
+
+    @Test
+    void testFailedWriteStopsTheImport() throws IOException {
+        doThrow(new IllegalStateException("write failed")).when(repository).addProducts(any());
+        Path file = directory.resolve("catalog.csv");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            lines.add("FLOWER,rosa" + i + ",50,4.0,roja");
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(IllegalStateException.class,
+                () -> new CatalogImporter(repository, 2, 4, 100).importFile(file, progress -> { })));
+    }
+}
@@ -0,0 +1,117 @@
+import Contexts.Product.Domain.Flower;
+import Contexts.Product.Domain.ProductsRepository;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketRepository;
+import FlowerStore.Checkout.CheckoutService;
+import FlowerStore.Manager.Exceptions.InsufficientStockException;
+import FlowerStore.Manager.Exceptions.ProductNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+public class CheckoutServiceTest {
+
+    @Mock
+    ProductsRepository productsRepository;
+    @Mock
+    TicketRepository ticketRepository;
+    CheckoutService checkoutService;
+    AtomicInteger stock = new AtomicInteger(50);
+    AtomicInteger ticketIds = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(productsRepository.getProduct(5)).thenReturn(new Flower<>(5, "rosa", 50, 4.0, "roja"));
+        when(productsRepository.reserveStock(anyMap())).thenAnswer(invocation -> {
+            Map<Integer, Integer> quantities = invocation.getArgument(0);
+            int quantity = quantities.get(5);
+            return stock.getAndUpdate(current -> current >= quantity ? current - quantity : current) >= quantity;
+        });
+        doAnswer(invocation -> {
+            Map<Integer, Integer> quantities = invocation.getArgument(0);
+            stock.addAndGet(quantities.get(5));
+            return null;
+        }).when(productsRepository).releaseStock(anyMap());
+        when(ticketRepository.newTicket(any(Ticket.class))).thenAnswer(invocation -> {
+            Ticket ticket = invocation.getArgument(0);
+            ticket.setTicketID(ticketIds.incrementAndGet());
+            return ticket;
+        });
+        checkoutService = new CheckoutService(productsRepository, ticketRepository);
+    }
+
+    @Test
+    void testTicketIsPersistedWithItsTotal() throws Exception {
+        Ticket ticket = checkoutService.createTicket(Collections.singletonMap(5, 3));
+
+        assertEquals(1, ticket.getTicketID());
+        assertEquals(12.0, ticket.getTotal(), 0.001);
+        assertEquals(47, stock.get());
+    }
+
+    @Test
+    void testUnknownProductsAndShortStockSellNothing() {
+        assertThrows(ProductNotFoundException.class, () -> checkoutService.createTicket(Collections.singletonMap(99, 1)));
+        assertThrows(InsufficientStockException.class, () -> checkoutService.createTicket(Collections.singletonMap(5, 51)));
+        assertThrows(IllegalArgumentException.class, () -> checkoutService.createTicket(Collections.singletonMap(5, 0)));
+        verify(ticketRepository, never()).newTicket(any());
+        assertEquals(50, stock.get());
+    }
+
+    @Test
+    void testStockIsReleasedWhenTheTicketIsNotSaved() {
+        when(ticketRepository.newTicket(any(Ticket.class))).thenReturn(null);
+
+        assertThrows(IllegalStateException.class, () -> checkoutService.createTicket(Collections.singletonMap(5, 3)));
+        assertEquals(50, stock.get());
+    }
+
+    @Test
+    void testStockIsReleasedWhenSavingTheTicketThrows() {
+        when(ticketRepository.newTicket(any(Ticket.class))).thenThrow(new RuntimeException("database down"));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> checkoutService.createTicket(Collections.singletonMap(5, 3)));
+        assertEquals("database down", e.getMessage());
+        assertEquals(50, stock.get());
+    }
+
+    @Test
+    void testConcurrentCheckoutsNeverOversell() throws InterruptedException {
+        AtomicInteger sold = new AtomicInteger();
+        List<Thread> tills = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread till = new Thread(() -> {
+                for (int i = 0; i < 20; i++) {
+                    try {
+                        checkoutService.createTicket(Collections.singletonMap(5, 1));
+                        sold.incrementAndGet();
+                    } catch (InsufficientStockException | ProductNotFoundException e) {
+                        // Expected once the stock runs out.
+                    }
+                }
+            });
+            tills.add(till);
+            till.start();
+        }
+        for (Thread till : tills) {
+            till.join();
+        }
+        assertEquals(50, sold.get());
+        assertEquals(0, stock.get());
+        verify(ticketRepository, times(50)).newTicket(any(Ticket.class));
+    }
+}
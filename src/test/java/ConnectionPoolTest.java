@@ -0,0 +1,100 @@
+import Infrastructure.Connections.Pool.ConnectionPool;
+import Infrastructure.Connections.Pool.PoolConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ConnectionPoolTest {
+
+    AtomicInteger physicalConnections;
+    ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        physicalConnections = new AtomicInteger();
+        PoolConfig config = new PoolConfig(2, 0, 50, 60_000, 0, 500, 1, 2);
+        pool = new ConnectionPool(config, () -> {
+            physicalConnections.incrementAndGet();
+            Connection connection = mock(Connection.class);
+            when(connection.getAutoCommit()).thenReturn(true);
+            when(connection.prepareStatement(anyString(), anyInt()))
+                    .thenAnswer(invocation -> mock(PreparedStatement.class));
+            return connection;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void testReturnedConnectionsAreReused() throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            assertEquals(1, pool.getMetrics().getActive());
+        }
+        try (Connection connection = pool.getConnection()) {
+            assertFalse(connection.isClosed());
+        }
+        assertEquals(1, physicalConnections.get());
+        assertEquals(0, pool.getMetrics().getActive());
+        assertEquals(1, pool.getMetrics().getIdle());
+        assertEquals(2, pool.getMetrics().getBorrows());
+    }
+
+    @Test
+    void testBorrowTimesOutWhenPoolIsExhausted() throws SQLException {
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, () -> pool.getConnection());
+        assertEquals(1, pool.getMetrics().getTimeouts());
+
+        first.close();
+        first.close();
+        assertThrows(SQLException.class, first::createStatement);
+        second.close();
+        assertEquals(2, pool.getMetrics().getIdle());
+    }
+
+    @Test
+    void testPreparedStatementsAreCachedPerConnection() throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+                statement.setInt(1, i);
+            }
+        }
+        try (Connection connection = pool.getConnection()) {
+            connection.prepareStatement("SELECT 2").close();
+            connection.prepareStatement("SELECT 3").close();
+        }
+        assertEquals(2, pool.getMetrics().getStatementHits());
+        assertEquals(3, pool.getMetrics().getStatementMisses());
+        assertEquals(1, pool.getMetrics().getStatementEvictions());
+    }
+
+    @Test
+    void testStatementsKeptAfterTheLeaseCantBeUsed() throws SQLException {
+        Connection connection = pool.getConnection();
+        PreparedStatement kept = connection.prepareStatement("SELECT 1");
+        connection.close();
+
+        assertTrue(kept.isClosed());
+        assertThrows(SQLException.class, () -> kept.setInt(1, 1));
+        try (Connection next = pool.getConnection();
+             PreparedStatement statement = next.prepareStatement("SELECT 1")) {
+            statement.setInt(1, 2);
+        }
+        assertEquals(1, pool.getMetrics().getStatementHits());
+    }
+}
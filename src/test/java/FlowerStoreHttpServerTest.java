@@ -0,0 +1,101 @@
+import Contexts.Product.Domain.Flower;
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductsRepository;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketRepository;
+import FlowerStore.Http.FlowerStoreHttpServer;
+import FlowerStore.Http.HttpServerConfig;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+public class FlowerStoreHttpServerTest {
+
+    @Mock
+    ProductsRepository productsRepository;
+    @Mock
+    TicketRepository ticketRepository;
+    FlowerStoreHttpServer server;
+    HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(productsRepository.getProduct(5)).thenReturn(new Flower<>(5, "rosa", 50, 4.0, "roja"));
+        server = new FlowerStoreHttpServer(new HttpServerConfig(0, 10, 100, 500, 4), productsRepository, ticketRepository);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void testProductLookup() throws Exception {
+        HttpResponse<String> found = send(HttpRequest.newBuilder(uri("/products/5")).GET());
+        HttpResponse<String> missing = send(HttpRequest.newBuilder(uri("/products/6")).GET());
+
+        assertEquals(200, found.statusCode());
+        assertEquals("rosa", Document.parse(found.body()).getString("name"));
+        assertEquals(404, missing.statusCode());
+    }
+
+    @Test
+    void testStockUpdateWritesACopy() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/products/5/stock"))
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"quantity\": 80}")));
+
+        ArgumentCaptor<Product> updated = ArgumentCaptor.forClass(Product.class);
+        verify(productsRepository).updateProduct(updated.capture());
+        assertEquals(200, response.statusCode());
+        assertEquals(80, updated.getValue().getQuantity());
+        assertEquals(4.0, updated.getValue().getPrice(), 0.001);
+        assertEquals(50, productsRepository.getProduct(5).getQuantity());
+    }
+
+    @Test
+    void testTicketCreationStatuses() throws Exception {
+        when(productsRepository.reserveStock(anyMap())).thenReturn(true, false);
+        when(ticketRepository.newTicket(any(Ticket.class))).thenAnswer(invocation -> {
+            Ticket ticket = invocation.getArgument(0);
+            ticket.setTicketID(1);
+            return ticket;
+        });
+        String body = "{\"lines\": [{\"productId\": 5, \"quantity\": 2}]}";
+
+        HttpResponse<String> created = send(HttpRequest.newBuilder(uri("/tickets"))
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        HttpResponse<String> conflict = send(HttpRequest.newBuilder(uri("/tickets"))
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        HttpResponse<String> invalid = send(HttpRequest.newBuilder(uri("/tickets"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"lines\": []}")));
+
+        assertEquals(201, created.statusCode());
+        assertEquals(8.0, Document.parse(created.body()).getDouble("total"), 0.001);
+        assertEquals(409, conflict.statusCode());
+        assertEquals(400, invalid.statusCode());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
@@ -0,0 +1,47 @@
+import Utils.Primitive.IntObjectHashMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntObjectHashMapTest {
+
+    @Test
+    void testPutGetRemove() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        map.put(0, "zero");
+        map.put(7, "seven");
+
+        assertEquals("seven", map.put(7, "SEVEN"));
+        assertEquals("zero", map.get(0));
+        assertEquals("SEVEN", map.get(7));
+        assertEquals(2, map.size());
+        assertEquals("zero", map.remove(0));
+        assertNull(map.get(0));
+        assertNull(map.remove(8));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void testMatchesHashMapUnderRandomChurn() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = -100; key < 4900; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import Contexts.Product.Domain.Flower;
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductsRepository;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketRepository;
+import FlowerStore.Checkout.CheckoutService;
+import FlowerStore.LoadTest.LoadGenerator;
+import FlowerStore.LoadTest.LoadReport;
+import FlowerStore.LoadTest.LoadTestConfig;
+import FlowerStore.LoadTest.ZipfDistribution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+public class LoadGeneratorTest {
+
+    @Mock
+    ProductsRepository productsRepository;
+    @Mock
+    TicketRepository ticketRepository;
+    Map<Integer, Integer> stock = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        for (int id = 1; id <= 20; id++) {
+            stock.put(id, 30);
+        }
+        when(productsRepository.getAllProducts()).thenAnswer(invocation -> {
+            List<Product> products = new ArrayList<>();
+            stock.forEach((id, quantity) -> products.add(new Flower<>(id, "rosa" + id, quantity, 2.0, "roja")));
+            return products;
+        });
+        when(productsRepository.getProduct(anyInt())).thenAnswer(invocation -> {
+            int id = invocation.getArgument(0);
+            return new Flower<>(id, "rosa" + id, stock.get(id), 2.0, "roja");
+        });
+        // All or nothing, like the real repositories.
+        when(productsRepository.reserveStock(anyMap())).thenAnswer(invocation -> {
+            Map<Integer, Integer> quantities = invocation.getArgument(0);
+            synchronized (stock) {
+                for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+                    if (stock.get(line.getKey()) < line.getValue()) {
+                        return false;
+                    }
+                }
+                quantities.forEach((id, quantity) -> stock.merge(id, -quantity, Integer::sum));
+                return true;
+            }
+        });
+        when(ticketRepository.newTicket(any(Ticket.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testZipfFavoursLowRanks() {
+        ZipfDistribution zipf = new ZipfDistribution(100, 1.0);
+        int[] counts = new int[100];
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            counts[zipf.sample(random)]++;
+        }
+
+        assertTrue(zipf.probability(0) > zipf.probability(1));
+        assertEquals(zipf.probability(0), counts[0] / 100_000.0, 0.01);
+        assertTrue(counts[0] > counts[99] * 50);
+    }
+
+    @Test
+    void testRunReportsSalesWithoutOversell() throws Exception {
+        LoadTestConfig config = new LoadTestConfig("mock", "test", 8, Duration.ofMillis(300), 1.2, 3, 2, -1);
+        CheckoutService checkoutService = new CheckoutService(productsRepository, ticketRepository);
+
+        LoadReport report = new LoadGenerator(productsRepository, productsRepository, checkoutService, config).run();
+
+        assertTrue(report.getTickets() > 0);
+        assertTrue(report.getRejected() > 0);
+        assertEquals(0, report.getErrors());
+        assertEquals(0, report.getOversoldProducts());
+        assertEquals(0, report.getStockMismatches());
+        assertEquals(report.getTickets() + report.getRejected(), report.getCheckoutLatency().getTotalCount());
+        assertTrue(report.getContention().get(0).getAttempts() >= report.getContention().get(1).getAttempts());
+    }
+}
@@ -0,0 +1,124 @@
+import Contexts.Product.Domain.Flower;
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductType;
+import Contexts.Product.Domain.Tree;
+import Contexts.Product.Infrastructure.Memory.ProductRepositoryMemory;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketLines;
+import Contexts.Ticket.Infrastructure.Memory.TicketRepositoryMemory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryRepositoriesTest {
+
+    ProductRepositoryMemory productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new ProductRepositoryMemory();
+        productRepository.initialize();
+    }
+
+    @Test
+    void testPrimaryStockIsOrderedLikeTheDatabases() {
+        List<Product> products = productRepository.getAllProducts();
+
+        assertEquals(13, products.size());
+        assertEquals(ProductType.TREE, products.get(0).getType());
+        assertEquals(ProductType.DECORATION, products.get(12).getType());
+        assertEquals(5, productRepository.getFlowers().size());
+        assertEquals(13, productRepository.getLastProduct().getProductId());
+        assertEquals(Arrays.asList(4, 5), ids(productRepository.getProductsAfter(3, 2)));
+    }
+
+    @Test
+    void testOrderedReadsDontWalkTheIdRange() {
+        productRepository.putProducts(Arrays.asList(new Flower<>(Integer.MAX_VALUE, "lirio", 5, 2.0, "blanca"),
+                new Flower<>(500_000_000, "tulipan", 5, 2.0, "roja")));
+
+        List<Product> flowers = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> productRepository.getFlowers());
+        assertEquals(7, flowers.size());
+        assertEquals(Integer.MAX_VALUE, flowers.get(6).getProductId());
+        assertEquals(Integer.MAX_VALUE, productRepository.getLastProduct().getProductId());
+        assertEquals(Arrays.asList(500_000_000, Integer.MAX_VALUE), ids(productRepository.getProductsAfter(13, 10)));
+    }
+
+    @Test
+    void testCallersGetCopies() {
+        productRepository.getProduct(1).setQuantity(0);
+
+        assertEquals(50, productRepository.getProduct(1).getQuantity());
+    }
+
+    @Test
+    void testReserveIsAllOrNothing() {
+        Map<Integer, Integer> lines = new HashMap<>();
+        lines.put(1, 10);
+        lines.put(2, 60);
+
+        assertFalse(productRepository.reserveStock(lines));
+        assertEquals(50, productRepository.getProduct(1).getQuantity());
+        assertTrue(productRepository.reserveStock(1, 50));
+        assertFalse(productRepository.reserveStock(1, 1));
+        assertFalse(productRepository.reserveStock(99, 1));
+    }
+
+    @Test
+    void testConcurrentReservationsNeverOversell() throws Exception {
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 400; i++) {
+            int other = 2 + i % 12;
+            executor.execute(() -> {
+                Map<Integer, Integer> lines = new HashMap<>();
+                lines.put(1, 1);
+                lines.put(other, 1);
+                if (productRepository.reserveStock(lines)) {
+                    sold.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, sold.get());
+        assertEquals(0, productRepository.getProduct(1).getQuantity());
+    }
+
+    @Test
+    void testTicketRollups() {
+        TicketRepositoryMemory ticketRepository = new TicketRepositoryMemory();
+        TicketLines lines = new TicketLines(2);
+        lines.add(new Tree<>(1, "manzano", 50, 20.0, 1.5), 1);
+        lines.add(new Flower<>(5, "rosa", 50, 4.0, "roja"), 3);
+
+        Ticket saved = ticketRepository.newTicket(new Ticket(new Date(), lines));
+        LocalDate today = LocalDate.now();
+
+        assertEquals(1, saved.getTicketID());
+        assertEquals(32.0, ticketRepository.getTotalRevenue(), 0.001);
+        assertEquals(0.0, ticketRepository.getRevenueBetween(today.plusDays(1), null), 0.001);
+        assertEquals(12.0, ticketRepository.getRevenueByType(today, today).get(ProductType.FLOWER), 0.001);
+        assertEquals(1, ticketRepository.getRevenueByProduct().keySet().iterator().next());
+        ticketRepository.rebuildSalesRollups();
+        assertEquals(32.0, ticketRepository.getRevenueByDay(today, today).get(today), 0.001);
+    }
+
+    private static List<Integer> ids(List<Product> products) {
+        List<Integer> ids = new ArrayList<>();
+        for (Product product : products) {
+            ids.add(product.getProductId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,72 @@
+import Infrastructure.Indexes.IndexDefinition;
+import Infrastructure.Indexes.MongoIndexRegistry;
+import Infrastructure.Indexes.QueryPlan;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.ListIndexesIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.IndexOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class MongoIndexRegistryTest {
+
+    @Mock
+    MongoCollection<Document> collection;
+    @Mock
+    ListIndexesIterable<Document> listIndexes;
+    @Mock
+    MongoCursor<Document> cursor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(collection.getNamespace()).thenReturn(new MongoNamespace("store", "products"));
+        when(collection.listIndexes()).thenReturn(listIndexes);
+        when(listIndexes.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, true, false);
+        when(cursor.next()).thenReturn(new Document("name", "_id_"), new Document("name", "productId_1"));
+    }
+
+    @Test
+    void testOnlyMissingIndexesAreCreated() {
+        MongoIndexRegistry registry = new MongoIndexRegistry()
+                .index("products", IndexDefinition.uniqueAscending("productId_1", "productId"))
+                .index("products", IndexDefinition.ascending("type_1_productId_1", "type", "productId"))
+                .index("tickets", IndexDefinition.ascending("date_1", "date"));
+
+        List<String> created = registry.ensureIndexes(collection);
+
+        assertEquals(Arrays.asList("type_1_productId_1"), created);
+        verify(collection, times(1)).createIndex(any(Bson.class), any(IndexOptions.class));
+        verify(collection).createIndex(any(Bson.class),
+                argThat((IndexOptions options) -> "type_1_productId_1".equals(options.getName()) && !options.isUnique()));
+    }
+
+    @Test
+    void testQueryPlanDetectsCollectionScans() {
+        Document indexed = Document.parse("{queryPlanner: {winningPlan: {stage: 'LIMIT', inputStage: "
+                + "{stage: 'FETCH', inputStage: {stage: 'IXSCAN', indexName: 'productId_1'}}}}}");
+        Document slotBased = Document.parse("{queryPlanner: {winningPlan: {queryPlan: "
+                + "{stage: 'FETCH', inputStage: {stage: 'IXSCAN', indexName: 'date_1'}}}}}");
+        Document scan = Document.parse("{queryPlanner: {winningPlan: {stage: 'COLLSCAN'}}}");
+
+        QueryPlan plan = new QueryPlan("getProduct", indexed);
+        assertTrue(plan.usesIndex());
+        assertTrue(plan.getIndexNames().contains("productId_1"));
+        assertTrue(new QueryPlan("ticketsByDate", slotBased).usesIndex());
+        assertFalse(new QueryPlan("getProduct", scan).usesIndex());
+    }
+}
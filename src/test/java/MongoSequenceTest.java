@@ -0,0 +1,83 @@
+import Infrastructure.Sequences.MongoSequence;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class MongoSequenceTest {
+
+    @Mock
+    MongoCollection<Document> counters;
+    AtomicInteger seq = new AtomicInteger();
+    MongoSequence sequence;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(counters.findOneAndUpdate(any(Bson.class), any(Bson.class), any(FindOneAndUpdateOptions.class)))
+                .thenAnswer(invocation -> {
+                    Bson update = invocation.getArgument(1);
+                    int increment = update.toBsonDocument().getDocument("$inc").getInt32("seq").getValue();
+                    return new Document("_id", "productId").append("seq", seq.addAndGet(increment));
+                });
+        when(counters.updateOne(any(Bson.class), any(Bson.class), any())).thenAnswer(invocation -> {
+            seq.accumulateAndGet(13, Math::max);
+            return null;
+        });
+        sequence = new MongoSequence(counters, "productId", 10, () -> 13);
+    }
+
+    @Test
+    void testIdsAreServedFromReservedBlocks() {
+        assertEquals(14, sequence.next());
+        for (int i = 15; i <= 25; i++) {
+            assertEquals(i, sequence.next());
+        }
+        verify(counters, times(1)).updateOne(any(Bson.class), any(Bson.class), any());
+        verify(counters, times(2)).findOneAndUpdate(any(Bson.class), any(Bson.class), any(FindOneAndUpdateOptions.class));
+    }
+
+    @Test
+    void testLargeAllocationsAreContiguousAndDoNotOverlap() {
+        int first = sequence.next();
+        int bulk = sequence.allocate(100);
+        int next = sequence.next();
+
+        assertEquals(14, first);
+        assertEquals(24, bulk);
+        assertEquals(15, next);
+    }
+
+    @Test
+    void testConcurrentCallersNeverReceiveTheSameId() throws InterruptedException {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    ids.add(sequence.next());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(4000, ids.size());
+    }
+}
@@ -0,0 +1,82 @@
+import Contexts.Product.Domain.Decoration;
+import Contexts.Product.Domain.Flower;
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductType;
+import Contexts.Product.Domain.Tree;
+import Contexts.Product.Infrastructure.Memory.ProductColumns;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductColumnsTest {
+
+    @Test
+    void testRowsGrowAndViewsMatchTheProducts() {
+        ProductColumns columns = new ProductColumns();
+        for (int id = 1; id <= 1000; id++) {
+            columns.put(new Flower<>(id, "flor" + id, id, 1.25, "roja"));
+        }
+        columns.put(new Tree<>(5000, "pino", 3, 8.5, 3.0));
+
+        assertEquals(1001, columns.size());
+        Product tree = columns.toProduct(columns.rowOf(5000));
+        assertEquals(ProductType.TREE, tree.getType());
+        assertEquals(8.5, tree.getPrice(), 0.001);
+        assertEquals(3.0, ((Tree<?>) tree).getHeight());
+        assertEquals("flor700", columns.toProduct(columns.rowOf(700)).getName());
+        assertEquals(-1, columns.rowOf(4999));
+        assertEquals(-1, columns.rowOf(1_000_000));
+    }
+
+    @Test
+    void testRemoveMovesTheLastRowIntoTheGap() {
+        ProductColumns columns = new ProductColumns();
+        columns.put(new Flower<>(1, "rosa", 10, 4.0, "roja"));
+        columns.put(new Tree<>(2, "olivo", 20, 11.99, 2.0));
+        columns.put(new Decoration<>(3, "jarron", 30, 20.5, "madera"));
+
+        assertTrue(columns.remove(1));
+        assertFalse(columns.remove(1));
+        assertEquals(2, columns.size());
+        assertEquals(-1, columns.rowOf(1));
+        assertEquals(0, columns.rowOf(3));
+        assertEquals("jarron", columns.toProduct(columns.rowOf(3)).getName());
+        assertEquals(20, columns.quantity(columns.rowOf(2)));
+    }
+
+    @Test
+    void testLargeIdsDontGrowTheDenseIndex() {
+        ProductColumns columns = new ProductColumns();
+        columns.put(new Flower<>(Integer.MAX_VALUE, "rosa", 10, 4.0, "roja"));
+        columns.put(new Tree<>(2, "olivo", 20, 11.99, 2.0));
+        columns.put(new Decoration<>(1 << 30, "jarron", 30, 20.5, "madera"));
+
+        assertEquals(0, columns.rowOf(Integer.MAX_VALUE));
+        assertEquals(-1, columns.rowOf(Integer.MAX_VALUE - 1));
+        assertTrue(columns.remove(Integer.MAX_VALUE));
+        assertEquals(-1, columns.rowOf(Integer.MAX_VALUE));
+        assertEquals(0, columns.rowOf(1 << 30));
+        assertEquals("jarron", columns.toProduct(columns.rowOf(1 << 30)).getName());
+        assertEquals(20, columns.quantity(columns.rowOf(2)));
+    }
+
+    @Test
+    void testValuationSumsInCents() {
+        ProductColumns columns = new ProductColumns();
+        columns.put(new Flower<>(1, "rosa", 3, 0.1, "roja"));
+        columns.put(new Flower<>(2, "lirio", 7, 0.2, "naranja"));
+        columns.put(new Tree<>(3, "pino", 0, 8.5, 3.0));
+        columns.addQuantity(columns.rowOf(1), -1);
+
+        long[] count = new long[ProductType.values().length];
+        long[] units = new long[count.length];
+        long[] valueInCents = new long[count.length];
+        columns.valuation(count, units, valueInCents);
+
+        assertEquals(2, count[ProductType.FLOWER.ordinal()]);
+        assertEquals(9, units[ProductType.FLOWER.ordinal()]);
+        assertEquals(160, valueInCents[ProductType.FLOWER.ordinal()]);
+        assertEquals(1, count[ProductType.TREE.ordinal()]);
+        assertEquals(0, units[ProductType.TREE.ordinal()]);
+    }
+}
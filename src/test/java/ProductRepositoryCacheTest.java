@@ -0,0 +1,99 @@
+import Contexts.Product.Domain.Decoration;
+import Contexts.Product.Domain.Flower;
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Domain.ProductType;
+import Contexts.Product.Domain.ProductsRepository;
+import Contexts.Product.Domain.StockValuation;
+import Contexts.Product.Domain.Tree;
+import Contexts.Product.Infrastructure.Cache.CachePolicy;
+import Contexts.Product.Infrastructure.Cache.ProductRepositoryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductRepositoryCacheTest {
+
+    @Mock
+    ProductsRepository delegate;
+    ProductRepositoryCache cache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        List<Product> products = new ArrayList<>(Arrays.asList(
+                new Flower<>(1, "rosa", 50, 4.0, "roja"),
+                new Tree<>(2, "pino", 50, 8.5, 3.0),
+                new Decoration<>(3, "jarron", 50, 20.5, "madera")));
+        when(delegate.getAllProducts()).thenReturn(products);
+        cache = new ProductRepositoryCache(delegate, CachePolicy.never());
+        cache.initialize();
+    }
+
+    @Test
+    void testListingsAndLookupsAreServedFromMemory() {
+        assertEquals("rosa", cache.getProduct(1).getName());
+        assertEquals(1, cache.getFlowers().size());
+        assertEquals(1, cache.getTrees().size());
+        assertEquals(3, cache.getLastProduct().getProductId());
+        assertEquals("pino", cache.getAllProducts().get(0).getName());
+
+        verify(delegate, times(1)).getAllProducts();
+        verify(delegate, never()).getProduct(anyInt());
+        verify(delegate, never()).getFlowers();
+    }
+
+    @Test
+    void testWritesGoThroughToDelegate() {
+        Product rosa = cache.getProduct(1);
+        rosa.setQuantity(10);
+        cache.updateProduct(rosa);
+        verify(delegate).updateProduct(rosa);
+        assertEquals(10, cache.getFlowers().get(0).getQuantity());
+
+        cache.deleteProduct(rosa);
+        verify(delegate).deleteProduct(rosa);
+        assertTrue(cache.getFlowers().isEmpty());
+
+        Product clavel = new Flower<>("clavel", 5, 9.5, "amarillo");
+        doAnswer(invocation -> {
+            clavel.setProductId(4);
+            return null;
+        }).when(delegate).addProduct(clavel);
+        cache.addProduct(clavel);
+        assertEquals("clavel", cache.getProduct(4).getName());
+        verify(delegate, never()).getProduct(4);
+    }
+
+    @Test
+    void testCallersCantChangeTheCachedProducts() {
+        Product rosa = cache.getProduct(1);
+        rosa.setQuantity(0);
+        cache.getAllProducts().get(0).setPrice(0);
+        assertEquals(50, cache.getProduct(1).getQuantity());
+        assertEquals(8.5, cache.getProduct(2).getPrice(), 0.001);
+
+        when(delegate.reserveStock(anyMap())).thenReturn(true);
+        assertTrue(cache.reserveStock(1, 5));
+        assertEquals(45, cache.getProduct(1).getQuantity());
+        assertEquals(0, rosa.getQuantity());
+    }
+
+    @Test
+    void testStockValuationIsComputedFromTheCatalog() {
+        Map<ProductType, StockValuation> valuation = cache.getStockValuationByType();
+
+        assertEquals(50, valuation.get(ProductType.FLOWER).getUnits());
+        assertEquals(200.0, valuation.get(ProductType.FLOWER).getValue(), 0.001);
+        assertEquals(425.0, valuation.get(ProductType.TREE).getValue(), 0.001);
+        verify(delegate, never()).getStockValuationByType();
+    }
+}
@@ -1,20 +1,34 @@
 import Contexts.Product.Domain.Product;
 import Contexts.Product.Infrastructure.MongoDB.ProductRepositoryMongoDB;
 import Infrastructure.Connections.MongoDBConnection;
+import Infrastructure.Sequences.MongoSequence;
+import com.mongodb.MongoException;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.conversions.Bson;
+import Contexts.Product.Domain.Flower;
+import Contexts.Product.Domain.Tree;
 import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 import java.lang.reflect.Field;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.*;
@@ -53,6 +67,64 @@ public class ProductRepositoryMongoDBTest {
 
     }
 
+    @Test
+    void testUpdateProductsIsOneUnorderedBulkWriteKeyedByProductId() {
+        List<Product> products = Arrays.asList(
+                new Flower<>(5, "rosa", 40, 4.0, "roja"),
+                new Tree<>(3, "pino", 45, 8.5, 3.0));
+        ArgumentCaptor<List<WriteModel<Document>>> updates = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<BulkWriteOptions> options = ArgumentCaptor.forClass(BulkWriteOptions.class);
+
+        productRepository.updateProducts(products);
+
+        verify(collection, times(1)).bulkWrite(updates.capture(), options.capture());
+        assertFalse(options.getValue().isOrdered());
+        assertEquals(2, updates.getValue().size());
+        UpdateOneModel<Document> first = (UpdateOneModel<Document>) updates.getValue().get(0);
+        assertEquals(Filters.eq("productId", 5).toBsonDocument(), first.getFilter().toBsonDocument());
+        verify(collection, never()).updateOne(any(Document.class), any(Document.class));
+    }
+
+    @Test
+    void testReserveStockGivesBackEarlierLinesWhenOneFails() {
+        when(collection.updateOne(any(Bson.class), any(Bson.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        Map<Integer, Integer> quantities = new HashMap<>();
+        quantities.put(7, 2);
+        quantities.put(3, 1);
+
+        assertFalse(productRepository.reserveStock(quantities));
+
+        ArgumentCaptor<Bson> filters = ArgumentCaptor.forClass(Bson.class);
+        verify(collection, times(2)).updateOne(filters.capture(), any(Bson.class));
+        assertEquals(3, filters.getAllValues().get(0).toBsonDocument().getArray("$and").get(0)
+                .asDocument().getInt32("productId").getValue());
+        ArgumentCaptor<List<WriteModel<Document>>> release = ArgumentCaptor.forClass(List.class);
+        verify(collection).bulkWrite(release.capture(), any(BulkWriteOptions.class));
+        assertEquals(1, release.getValue().size());
+    }
+
+    @Test
+    void testAddProductsRemovesThePartialBatchAndResetsIdsWhenTheInsertFails() {
+        MongoSequence productIds = mock(MongoSequence.class);
+        when(productIds.allocate(2)).thenReturn(10);
+        setPrivateField(productRepository, "productIds", productIds);
+        when(collection.insertMany(anyList())).thenThrow(new MongoException("duplicate key"));
+        List<Product> products = Arrays.asList(
+                new Flower<>("rosa", 40, 4.0, "roja"),
+                new Tree<>("pino", 45, 8.5, 3.0));
+
+        assertThrows(IllegalStateException.class, () -> productRepository.addProducts(products));
+
+        ArgumentCaptor<Bson> removed = ArgumentCaptor.forClass(Bson.class);
+        verify(collection).deleteMany(removed.capture());
+        assertEquals(Filters.and(Filters.gte("productId", 10), Filters.lt("productId", 12)).toBsonDocument(),
+                removed.getValue().toBsonDocument());
+        assertEquals(0, products.get(0).getProductId());
+        assertEquals(0, products.get(1).getProductId());
+    }
+
     private void setPrivateField(Object obj, String fieldName, Object value) {
         try {
             Field field = obj.getClass().getDeclaredField(fieldName);
@@ -0,0 +1,147 @@
+import Contexts.Product.Domain.Flower;
+import Contexts.Product.Domain.Product;
+import Contexts.Product.Infrastructure.Memory.ProductRepositoryMemory;
+import Contexts.Product.Infrastructure.Snapshot.ProductRepositorySnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductRepositorySnapshotTest {
+
+    private static final Duration SNAPSHOT_INTERVAL = Duration.ofHours(1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWarmStartServesLocalCopyUntilReconciled() throws Exception {
+        GatedDatabase database = new GatedDatabase();
+        database.open();
+        ProductRepositorySnapshot first = new ProductRepositorySnapshot(database, directory, SNAPSHOT_INTERVAL);
+        first.initialize();
+        assertTrue(first.reconciled().isDone());
+        assertEquals(13, first.getAllProducts().size());
+
+        // Changes after the snapshot only exist in the WAL, and the process stops without closing.
+        assertTrue(first.reserveStock(Map.of(1, 10, 5, 3)));
+        first.addProduct(new Flower<>("tulipan", 20, 2.5, "blanca"));
+        first.deleteProduct(first.getProduct(2));
+        Product rosa = first.getProduct(5);
+        rosa.setPrice(4.5);
+        first.updateProduct(rosa);
+
+        // Another process changes the database while this one is down.
+        database.close();
+        Product pino = database.getProduct(3);
+        pino.setQuantity(7);
+        database.updateProduct(pino);
+
+        ProductRepositorySnapshot second = new ProductRepositorySnapshot(database, directory, SNAPSHOT_INTERVAL);
+        second.initialize();
+        assertFalse(second.reconciled().isDone());
+        assertEquals(40, second.getProduct(1).getQuantity());
+        assertNull(second.getProduct(2));
+        assertEquals(50, second.getProduct(3).getQuantity());
+        assertEquals(47, second.getProduct(5).getQuantity());
+        assertEquals(4.5, second.getProduct(5).getPrice(), 0.001);
+        assertEquals("tulipan", second.getLastProduct().getName());
+
+        database.open();
+        second.reconciled().get(5, TimeUnit.SECONDS);
+        assertEquals(7, second.getProduct(3).getQuantity());
+        assertEquals(13, second.getAllProducts().size());
+        second.close();
+    }
+
+    @Test
+    void testTornWalRecordIsDiscarded() throws Exception {
+        GatedDatabase database = new GatedDatabase();
+        database.open();
+        ProductRepositorySnapshot first = new ProductRepositorySnapshot(database, directory, SNAPSHOT_INTERVAL);
+        first.initialize();
+        assertTrue(first.reserveStock(1, 5));
+        Path wal = walFiles().get(walFiles().size() - 1);
+        try (RandomAccessFile file = new RandomAccessFile(wal.toFile(), "rw")) {
+            file.seek(file.length());
+            file.writeInt(64);
+            file.writeInt(0);
+            file.writeByte(3);
+        }
+
+        database.close();
+        ProductRepositorySnapshot second = new ProductRepositorySnapshot(database, directory, SNAPSHOT_INTERVAL);
+        second.initialize();
+        assertEquals(45, second.getProduct(1).getQuantity());
+        database.open();
+        second.reconciled().get(5, TimeUnit.SECONDS);
+        second.close();
+    }
+
+    @Test
+    void testFailedReconciliationKeepsLocalCopyAndRejectsWrites() throws Exception {
+        GatedDatabase database = new GatedDatabase();
+        database.open();
+        ProductRepositorySnapshot first = new ProductRepositorySnapshot(database, directory, SNAPSHOT_INTERVAL);
+        first.initialize();
+        first.close();
+
+        GatedDatabase unavailable = new GatedDatabase();
+        unavailable.failing = true;
+        unavailable.open();
+        ProductRepositorySnapshot second = new ProductRepositorySnapshot(unavailable, directory, SNAPSHOT_INTERVAL);
+        second.initialize();
+        assertThrows(Exception.class, () -> second.reconciled().get(5, TimeUnit.SECONDS));
+
+        assertEquals(13, second.getAllProducts().size());
+        assertThrows(IllegalStateException.class, () -> second.reserveStock(1, 1));
+        second.close();
+    }
+
+    private List<Path> walFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".wal")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    // Stands in for a database that is slow to come up: initialize() waits until the test opens it.
+    private static class GatedDatabase extends ProductRepositoryMemory {
+        private CountDownLatch gate = new CountDownLatch(1);
+        private boolean failing;
+
+        private void open() {
+            gate.countDown();
+        }
+
+        private void close() {
+            gate = new CountDownLatch(1);
+        }
+
+        @Override
+        public void initialize() {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!failing) {
+                super.initialize();
+            }
+        }
+
+        @Override
+        public List<Product> getAllProducts() {
+            return failing ? new ArrayList<>() : super.getAllProducts();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import Contexts.Product.Domain.Flower;
+import Contexts.Product.Domain.Tree;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketLines;
+import Contexts.Ticket.Infrastructure.MongoDB.SalesRollupMongoDB;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class SalesRollupMongoDBTest {
+
+    @Mock
+    MongoDatabase database;
+    @Mock
+    MongoCollection<Document> tickets;
+    @Mock
+    MongoCollection<Document> daily;
+    @Mock
+    MongoCollection<Document> dailyProduct;
+    @Mock
+    MongoCollection<Document> dailyType;
+    SalesRollupMongoDB rollup;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(database.getCollection(SalesRollupMongoDB.DAILY)).thenReturn(daily);
+        when(database.getCollection(SalesRollupMongoDB.DAILY_PRODUCT)).thenReturn(dailyProduct);
+        when(database.getCollection(SalesRollupMongoDB.DAILY_TYPE)).thenReturn(dailyType);
+        rollup = new SalesRollupMongoDB(database, tickets);
+    }
+
+    @Test
+    void testTicketIsAddedToEachRollupWithUpserts() {
+        TicketLines lines = new TicketLines(3);
+        lines.add(new Flower<>(5, "rosa", 40, 4.0, "roja"), 2);
+        lines.add(new Flower<>(6, "girasol", 40, 3.5, "blanca"), 1);
+        lines.add(new Tree<>(3, "pino", 45, 8.5, 3.0), 1);
+        Ticket ticket = new Ticket(7, new Date(), lines, 2000);
+        String day = ticket.getDay().toString();
+
+        rollup.record(ticket);
+
+        ArgumentCaptor<Bson> dailyUpdate = ArgumentCaptor.forClass(Bson.class);
+        verify(daily).updateOne(any(Bson.class), dailyUpdate.capture(), any(UpdateOptions.class));
+        BsonDocument inc = dailyUpdate.getValue().toBsonDocument().getDocument("$inc");
+        assertEquals(1, inc.getInt32("tickets").getValue());
+        assertEquals(20.0, inc.getDouble("revenue").getValue(), 0.001);
+
+        ArgumentCaptor<List<WriteModel<Document>>> products = ArgumentCaptor.forClass(List.class);
+        verify(dailyProduct).bulkWrite(products.capture(), any(BulkWriteOptions.class));
+        assertEquals(3, products.getValue().size());
+
+        ArgumentCaptor<List<WriteModel<Document>>> types = ArgumentCaptor.forClass(List.class);
+        verify(dailyType).bulkWrite(types.capture(), any(BulkWriteOptions.class));
+        assertEquals(2, types.getValue().size());
+        UpdateOneModel<Document> flowers = (UpdateOneModel<Document>) types.getValue().get(0);
+        assertTrue(flowers.getOptions().isUpsert());
+        assertEquals(new Document("day", day).append("type", "FLOWER").toBsonDocument(),
+                flowers.getFilter().toBsonDocument().getDocument("_id"));
+        BsonDocument flowerInc = ((Bson) flowers.getUpdate()).toBsonDocument().getDocument("$inc");
+        assertEquals(3, flowerInc.getInt32("units").getValue());
+        assertEquals(11.5, flowerInc.getDouble("revenue").getValue(), 0.001);
+    }
+}
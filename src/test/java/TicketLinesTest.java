@@ -0,0 +1,47 @@
+import Contexts.Product.Domain.Decoration;
+import Contexts.Product.Domain.Flower;
+import Contexts.Product.Domain.ProductType;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketLines;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TicketLinesTest {
+
+    @Test
+    void testTotalIsExactInCents() {
+        TicketLines lines = new TicketLines(0);
+        for (int i = 0; i < 10; i++) {
+            lines.add(new Flower<>(i + 1, "rosa" + i, 50, 0.1, "roja"), 3);
+        }
+        Ticket ticket = new Ticket(new Date(), lines);
+
+        assertEquals(10, lines.size());
+        assertEquals(300, ticket.getTotalInCents());
+        assertEquals(3.0, ticket.getTotal());
+        assertEquals("rosa9", lines.name(9));
+        assertEquals(30, lines.revenueInCents(9));
+    }
+
+    @Test
+    void testSumByType() {
+        TicketLines lines = new TicketLines(2);
+        lines.add(new Flower<>(1, "rosa", 50, 4.0, "roja"), 2);
+        lines.add(new Decoration<>(2, "jarron", 10, 12.5, "madera"), 1);
+        lines.add(new Flower<>(3, "girasol", 50, 3.5, "blanca"), 1);
+        long[] count = new long[ProductType.values().length];
+        long[] units = new long[count.length];
+        long[] revenue = new long[count.length];
+
+        lines.sumByType(count, units, revenue);
+
+        assertEquals(2, count[ProductType.FLOWER.ordinal()]);
+        assertEquals(3, units[ProductType.FLOWER.ordinal()]);
+        assertEquals(1150, revenue[ProductType.FLOWER.ordinal()]);
+        assertEquals(0, count[ProductType.TREE.ordinal()]);
+        assertEquals(1250, revenue[ProductType.DECORATION.ordinal()]);
+    }
+}
@@ -0,0 +1,144 @@
+import Contexts.Product.Domain.Flower;
+import Contexts.Product.Domain.ProductType;
+import Contexts.Product.Domain.Tree;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketLines;
+import Contexts.Ticket.Infrastructure.Log.FsyncPolicy;
+import Contexts.Ticket.Infrastructure.Log.TicketRepositoryLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TicketRepositoryLogTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testTicketsSurviveReopenAcrossSegments() throws Exception {
+        try (TicketRepositoryLog repository = new TicketRepositoryLog(directory, SEGMENT_SIZE, FsyncPolicy.everyWrite())) {
+            for (int i = 0; i < 200; i++) {
+                assertEquals(i + 1, repository.newTicket(ticket(i % 5 + 1)).getTicketID());
+            }
+        }
+        assertTrue(segmentFiles().size() > 1);
+
+        try (TicketRepositoryLog repository = new TicketRepositoryLog(directory, SEGMENT_SIZE, FsyncPolicy.everyWrite())) {
+            repository.initialize();
+            List<Ticket> tickets = repository.getAllTickets();
+
+            assertEquals(200, tickets.size());
+            assertEquals(200, repository.getLastTicket().getTicketID());
+            assertEquals(150, repository.getTicket(150).getTicketID());
+            assertNull(repository.getTicket(201));
+            Ticket first = tickets.get(0);
+            assertEquals(1200, first.getTotalInCents());
+            int flowerLine = lineOfType(first, ProductType.FLOWER);
+            assertEquals("rosa", first.getLines().name(flowerLine));
+            assertEquals(5, first.getLines().productId(flowerLine));
+            assertEquals(400, first.getLines().priceInCents(flowerLine));
+            assertEquals(200 * 20.0, repository.getTotalRevenue(), 0.001);
+            assertEquals(201, repository.newTicket(ticket(1)).getTicketID());
+        }
+    }
+
+    @Test
+    void testTornTailIsDiscarded() throws Exception {
+        try (TicketRepositoryLog repository = new TicketRepositoryLog(directory, SEGMENT_SIZE, FsyncPolicy.groupCommit())) {
+            repository.newTicket(ticket(1));
+            repository.newTicket(ticket(1));
+        }
+        Path segment = segmentFiles().get(0);
+        long tail;
+        try (TicketRepositoryLog repository = new TicketRepositoryLog(directory, SEGMENT_SIZE, FsyncPolicy.groupCommit());
+             Stream<Ticket> tickets = repository.streamAllTickets()) {
+            tail = tickets.count();
+        }
+        // A record whose length made it to disk but whose checksum doesn't match its payload.
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long end = findEnd(file);
+            file.seek(end);
+            file.writeInt(40);
+            file.writeInt(12345);
+            file.writeInt(3);
+        }
+
+        try (TicketRepositoryLog repository = new TicketRepositoryLog(directory, SEGMENT_SIZE, FsyncPolicy.groupCommit())) {
+            assertEquals(2, tail);
+            assertEquals(2, repository.getAllTickets().size());
+            assertEquals(3, repository.newTicket(ticket(1)).getTicketID());
+            assertEquals(3, repository.getAllTickets().size());
+        }
+    }
+
+    @Test
+    void testConcurrentGroupCommitGivesUniqueIds() throws Exception {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        try (TicketRepositoryLog repository = new TicketRepositoryLog(directory, SEGMENT_SIZE, FsyncPolicy.groupCommit())) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            for (int i = 0; i < 400; i++) {
+                executor.execute(() -> ids.add(repository.newTicket(ticket(1)).getTicketID()));
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+            assertEquals(400, ids.size());
+            assertEquals(400, repository.getLastTicket().getTicketID());
+            try (Stream<Ticket> tickets = repository.streamAllTickets()) {
+                List<Integer> order = tickets.map(Ticket::getTicketID).collect(Collectors.toList());
+                assertEquals(400, order.size());
+                for (int i = 0; i < order.size(); i++) {
+                    assertEquals(i + 1, order.get(i));
+                }
+            }
+        }
+    }
+
+    private Ticket ticket(int flowers) {
+        TicketLines lines = new TicketLines(2);
+        lines.add(new Tree<>(1, "manzano", 50, 8.0, 1.5), 1);
+        lines.add(new Flower<>(5, "rosa", 50, 4.0, "roja"), flowers);
+        return new Ticket(new Date(), lines);
+    }
+
+    private static int lineOfType(Ticket ticket, ProductType type) {
+        for (int line = 0; line < ticket.getLines().size(); line++) {
+            if (ticket.getLines().type(line) == type) {
+                return line;
+            }
+        }
+        return -1;
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static long findEnd(RandomAccessFile file) throws Exception {
+        long position = 0;
+        while (true) {
+            file.seek(position);
+            int length = file.readInt();
+            if (length == 0) {
+                return position;
+            }
+            position += 8 + length;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+import Contexts.Product.Domain.ProductType;
+import Contexts.Ticket.Domain.Ticket;
+import Contexts.Ticket.Domain.TicketLines;
+import Contexts.Ticket.Infrastructure.SQL.TicketRepositorySQL;
+import Infrastructure.Connections.MySQLConnection;
+import Utils.Primitive.Cents;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the repository's own queries against an in-process H2 database in MySQL mode.
+public class TicketRepositorySQLTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 3, 4);
+    private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+    private static final String[] SCHEMA = {
+            "CREATE TABLE product (idproduct INT NOT NULL AUTO_INCREMENT PRIMARY KEY, name VARCHAR(45) NOT NULL, "
+                    + "quantity INT NOT NULL, price DOUBLE NOT NULL, type VARCHAR(10))",
+            "CREATE TABLE ticket (idticket INT NOT NULL AUTO_INCREMENT PRIMARY KEY, date DATETIME NULL, "
+                    + "totalPrice DOUBLE NULL)",
+            "CREATE TABLE product_ticket (idproduct_ticket INT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                    + "amount SMALLINT NULL, unit_price DOUBLE NULL, name VARCHAR(45) NULL, type VARCHAR(10) NULL, "
+                    + "product_idproduct INT NOT NULL, ticket_idticket INT NOT NULL, "
+                    + "FOREIGN KEY (ticket_idticket) REFERENCES ticket (idticket) ON DELETE CASCADE)",
+            "CREATE TABLE sales_daily (day DATE NOT NULL PRIMARY KEY, tickets INT NOT NULL, revenue DOUBLE NOT NULL)",
+            "CREATE TABLE sales_daily_product (day DATE NOT NULL, product_idproduct INT NOT NULL, units INT NOT NULL, "
+                    + "revenue DOUBLE NOT NULL, PRIMARY KEY (day, product_idproduct))",
+            "CREATE TABLE sales_daily_type (day DATE NOT NULL, type VARCHAR(10) NOT NULL, units INT NOT NULL, "
+                    + "revenue DOUBLE NOT NULL, PRIMARY KEY (day, type))"
+    };
+
+    MySQLConnection connection;
+    TicketRepositorySQL ticketRepository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("mysql.url", "jdbc:h2:mem:tickets;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=DAY;DB_CLOSE_DELAY=-1");
+        properties.setProperty("mysql.username", "sa");
+        properties.setProperty("mysql.password", "");
+        connection = new MySQLConnection(properties);
+        execute(SCHEMA);
+        ticketRepository = new TicketRepositorySQL(connection);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        execute("DROP ALL OBJECTS");
+        connection.disconnectMySQL();
+    }
+
+    @Test
+    void testAFailedLineBatchRollsBackTheWholeTicket() throws SQLException {
+        TicketLines lines = new TicketLines(2);
+        lines.add(1, ProductType.FLOWER, "rosa", 2, 400);
+        lines.add(2, ProductType.TREE, "a tree whose name does not fit in the forty-five character column", 1, 850);
+
+        assertNull(ticketRepository.newTicket(ticketOn(MONDAY, lines)));
+
+        for (String table : new String[]{"ticket", "product_ticket", "sales_daily", "sales_daily_product", "sales_daily_type"}) {
+            assertEquals(0, count(table), table);
+        }
+    }
+
+    @Test
+    void testLinesAreGroupedIntoTheirTickets() {
+        Ticket first = ticketRepository.newTicket(ticketOn(MONDAY, lines(3)));
+        Ticket second = ticketRepository.newTicket(ticketOn(MONDAY, lines(1)));
+        Ticket third = ticketRepository.newTicket(ticketOn(TUESDAY, lines(2)));
+
+        List<Ticket> tickets;
+        try (Stream<Ticket> stream = ticketRepository.streamAllTickets()) {
+            tickets = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(3, tickets.size());
+        assertEquals(List.of(first.getTicketID(), second.getTicketID(), third.getTicketID()),
+                tickets.stream().map(Ticket::getTicketID).collect(Collectors.toList()));
+        assertEquals(3, tickets.get(0).getLines().size());
+        assertEquals(1, tickets.get(1).getLines().size());
+        assertEquals(2, tickets.get(2).getLines().size());
+        assertEquals("product 3", tickets.get(0).getLines().name(2));
+        assertEquals(first.getTotalInCents(), tickets.get(0).getTotalInCents());
+
+        Ticket last = ticketRepository.getLastTicket();
+        assertEquals(third.getTicketID(), last.getTicketID());
+        assertEquals(2, last.getLines().size());
+    }
+
+    @Test
+    void testRevenueByTypeAndDayFollowsTheTickets() {
+        TicketLines monday = new TicketLines(3);
+        monday.add(1, ProductType.FLOWER, "rosa", 3, 400);
+        monday.add(2, ProductType.TREE, "pino", 1, 850);
+        monday.add(1, ProductType.FLOWER, "rosa", 1, 400);
+        ticketRepository.newTicket(ticketOn(MONDAY, monday));
+        TicketLines tuesday = new TicketLines(1);
+        tuesday.add(3, ProductType.DECORATION, "jarron", 2, 2050);
+        ticketRepository.newTicket(ticketOn(TUESDAY, tuesday));
+
+        SortedMap<LocalDate, Double> byDay = ticketRepository.getRevenueByDay(MONDAY, TUESDAY);
+        assertEquals(24.5, byDay.get(MONDAY), 0.001);
+        assertEquals(41.0, byDay.get(TUESDAY), 0.001);
+        assertEquals(65.5, ticketRepository.getTotalRevenue(), 0.001);
+        assertEquals(24.5, ticketRepository.getRevenueBetween(MONDAY, MONDAY), 0.001);
+
+        Map<ProductType, Double> byType = ticketRepository.getRevenueByType();
+        assertEquals(16.0, byType.get(ProductType.FLOWER), 0.001);
+        assertEquals(8.5, byType.get(ProductType.TREE), 0.001);
+        assertEquals(41.0, byType.get(ProductType.DECORATION), 0.001);
+        assertEquals(Map.of(ProductType.DECORATION, 41.0), ticketRepository.getRevenueByType(TUESDAY, TUESDAY));
+
+        ticketRepository.rebuildSalesRollups();
+        assertEquals(byDay, ticketRepository.getRevenueByDay(MONDAY, TUESDAY));
+        assertEquals(byType, ticketRepository.getRevenueByType());
+    }
+
+    private static Ticket ticketOn(LocalDate day, TicketLines lines) {
+        return new Ticket(Date.from(day.atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant()), lines);
+    }
+
+    private static TicketLines lines(int size) {
+        TicketLines lines = new TicketLines(size);
+        for (int line = 1; line <= size; line++) {
+            lines.add(line, ProductType.FLOWER, "product " + line, line, Cents.fromEuros(1.5));
+        }
+        return lines;
+    }
+
+    private static void execute(String... statements) throws SQLException {
+        try (Connection sql = MySQLConnection.getMySQLDatabase(); Statement statement = sql.createStatement()) {
+            for (String ddl : statements) {
+                statement.execute(ddl);
+            }
+        }
+    }
+
+    private static int count(String table) throws SQLException {
+        try (Connection sql = MySQLConnection.getMySQLDatabase(); Statement statement = sql.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}